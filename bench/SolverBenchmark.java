@@ -0,0 +1,84 @@
+import java.io.File;
+import java.util.Random;
+
+/**
+ * Simple timing harness for BoggleSolver. Solves a fixed set of
+ * random boards of each size for a few seconds, after a warm up
+ * round, and prints the average time per solve.
+ * @author rpathire
+ *
+ */
+public class SolverBenchmark {
+	/** Sizes of the boards solved */
+	private static final int[] SIZES = {4, 5, 10, 25};
+
+	/** Number of distinct boards solved for each size */
+	private static final int BOARDS = 64;
+
+	/** Seed of the boards, so runs solve the same boards */
+	private static final long SEED = 20140301L;
+
+	/** Time spent measuring each size, in nanoseconds */
+	private static final long MEASURE_NANOS = 3000000000L;
+
+	/**
+	 * Runs the benchmark. The only argument is the word list file.
+	 * @param args command line arguments
+	 * @throws Exception if the word list cannot be loaded.
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.err.println("usage: SolverBenchmark <word list>");
+			System.exit(1);
+		}
+		WordList dictionary = new WordList(new File(args[0]));
+		BoggleSolver solver = new BoggleSolver(dictionary);
+
+		Random rand = new Random(SEED);
+		for (int size : SIZES) {
+			BoggleBoard[] boards = new BoggleBoard[BOARDS];
+			for (int i = 0; i < boards.length; i++) {
+				boards[i] = randomBoard(rand, size);
+			}
+			// Warms up, then measures
+			run(solver, boards, MEASURE_NANOS / 2);
+			long[] result = run(solver, boards, MEASURE_NANOS);
+			System.out.printf("%2dx%-2d %10.1f us/solve %8.1f words/board%n",
+					size, size, result[0] / 1e3 / result[1],
+					result[2] / (double) result[1]);
+		}
+	}
+
+	/**
+	 * Creates a board of uniformly random letters.
+	 * @return the new board.
+	 */
+	private static BoggleBoard randomBoard(Random rand, int size) {
+		String[][] letters = new String[size][size];
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				char c = (char) ('A' + rand.nextInt(26));
+				letters[i][j] = c == 'Q' ? "Qu" : String.valueOf(c);
+			}
+		}
+		return new BoggleBoard(letters);
+	}
+
+	/**
+	 * Solves the boards in turn for the given time.
+	 * @return elapsed nanoseconds, solves and words found.
+	 */
+	private static long[] run(BoggleSolver solver, BoggleBoard[] boards,
+			long nanos) {
+		long start = System.nanoTime();
+		long solves = 0;
+		long words = 0;
+		long elapsed;
+		do {
+			words += solver.solve(boards[(int) (solves % boards.length)]).size();
+			solves++;
+			elapsed = System.nanoTime() - start;
+		} while (elapsed < nanos);
+		return new long[] {elapsed, solves, words};
+	}
+}
@@ -0,0 +1,88 @@
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark of building boards of several sizes, through the
+ * seeded constructor, a generator and the letters constructor. All
+ * boards derive from a fixed seed, so every run builds the same ones.
+ * Run with "ant jmh".
+ * @author rpathire
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BoardBenchmark {
+	/** Seed of the first board */
+	private static final long SEED = 20140301L;
+
+	/** Size of the boards built */
+	@Param({"4", "5", "10", "25"})
+	public int size;
+
+	/** Seed of the next board built by the seeded constructor */
+	private long seed;
+
+	/** Generator of boards */
+	private BoggleBoard.Generator generator;
+
+	/** Letters of a board, for the letters constructor */
+	private String[][] letters;
+
+	/**
+	 * Resets the seeds and prepares the letters of a board.
+	 */
+	@Setup
+	public void setup() {
+		seed = SEED;
+		generator = new BoggleBoard.Generator(SEED);
+		BoggleBoard board = new BoggleBoard(size, SEED);
+		letters = new String[size][size];
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				letters[i][j] = board.getCell(i, j);
+			}
+		}
+	}
+
+	/**
+	 * Builds a board with the seeded constructor, as batches do.
+	 * @return the board.
+	 */
+	@Benchmark
+	public BoggleBoard seeded() {
+		return new BoggleBoard(size, seed++);
+	}
+
+	/**
+	 * Builds the next board of a generator.
+	 * @return the board.
+	 */
+	@Benchmark
+	public BoggleBoard generator() {
+		return generator.next(size);
+	}
+
+	/**
+	 * Builds a board from its letters.
+	 * @return the board.
+	 */
+	@Benchmark
+	public BoggleBoard letters() {
+		return new BoggleBoard(letters);
+	}
+}
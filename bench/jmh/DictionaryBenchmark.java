@@ -0,0 +1,143 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark of loading a dictionary and looking words up in it.
+ * The dictionary defaults to the committed fixture, a pseudo-English
+ * list of 20000 words, and can be changed with "-p dictionary=FILE".
+ * Lookups mix words of the dictionary, in lowercase and in padded
+ * mixed case, with words that are not in it, drawn from a fixed seed.
+ * Run with "ant jmh".
+ * @author rpathire
+ *
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DictionaryBenchmark {
+	/** Seed of the lookups */
+	private static final long SEED = 20140301L;
+
+	/** Number of distinct lookups, a power of two */
+	private static final int LOOKUPS = 4096;
+
+	/** Word file to load, relative to the project directory */
+	@Param({"bench/fixtures/words-20k.txt"})
+	public String dictionary;
+
+	/** Dictionary file */
+	private File file;
+
+	/** Binary dictionary compiled from the word file */
+	private File compiled;
+
+	/** Loaded dictionary */
+	private WordList list;
+
+	/** Words looked up in turn */
+	private String[] lookups;
+
+	/** Index of the next lookup */
+	private int next;
+
+	/**
+	 * Loads the dictionary and draws the lookups.
+	 * @throws IOException if the dictionary cannot be read
+	 */
+	@Setup
+	public void setup() throws IOException {
+		file = new File(dictionary);
+		list = new WordList(file);
+		compiled = File.createTempFile("boggle", ".dict");
+		DictionaryCompiler.compile(file, compiled);
+
+		// Collects the words of the dictionary
+		final List<String> words = new ArrayList<String>();
+		list.trie().forEachWord(new WordTrie.WordVisitor() {
+			public void visit(String word) {
+				words.add(word);
+			}
+		});
+
+		Random rand = new Random(SEED);
+		lookups = new String[LOOKUPS];
+		for (int i = 0; i < LOOKUPS; i++) {
+			String word = words.get(rand.nextInt(words.size()));
+			switch (i % 4) {
+				case 0:
+				case 1:
+					lookups[i] = word;
+					break;
+				case 2:
+					lookups[i] = " " + word.toUpperCase() + "\t";
+					break;
+				default:
+					// Changes a letter, which usually makes a non-word
+					char[] chars = word.toCharArray();
+					chars[rand.nextInt(chars.length)] = (char) ('a' + rand.nextInt(26));
+					lookups[i] = new String(chars);
+			}
+		}
+	}
+
+	/**
+	 * Removes the compiled dictionary.
+	 */
+	@TearDown
+	public void tearDown() {
+		compiled.delete();
+	}
+
+	/**
+	 * Loads the word file into a word list.
+	 * @return the word list.
+	 * @throws IOException if the dictionary cannot be read
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public WordList load() throws IOException {
+		return new WordList(file);
+	}
+
+	/**
+	 * Opens the compiled binary dictionary.
+	 * @return the dictionary.
+	 * @throws IOException if the dictionary cannot be read
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public MappedDictionary loadMapped() throws IOException {
+		return new MappedDictionary(compiled);
+	}
+
+	/**
+	 * Looks up the next word.
+	 * @return whether the word is in the dictionary.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public boolean containsWord() {
+		return list.containsWord(lookups[next++ & (LOOKUPS - 1)]);
+	}
+}
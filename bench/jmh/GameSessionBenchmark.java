@@ -0,0 +1,105 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark of simulated moves on a headless game session. A
+ * simulated player extends the path to a random neighbor of its last
+ * cell, backs up now and then, and submits the word once the path is
+ * long enough, so every move goes through selection, the word status
+ * and scoring as a real player's would. Moves are drawn from a fixed
+ * seed. Run with "ant jmh".
+ * @author rpathire
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class GameSessionBenchmark {
+	/** Seed of the board and of the moves */
+	private static final long SEED = 20140301L;
+
+	/** Number of precomputed random values, a power of two */
+	private static final int RANDOM_COUNT = 1 << 16;
+
+	/** Longest path the player builds before submitting it */
+	private static final int MAX_PATH = 8;
+
+	/** Word file the words are checked against */
+	@Param({"bench/fixtures/words-20k.txt"})
+	public String dictionary;
+
+	/** Size of the board played */
+	@Param({"4", "10"})
+	public int size;
+
+	/** Session played */
+	private GameSession session;
+
+	/** Precomputed random values driving the moves */
+	private int[] randoms;
+
+	/** Index of the next random value */
+	private int next;
+
+	/**
+	 * Loads the dictionary and starts a session on a seeded board.
+	 * @throws IOException if the dictionary cannot be read
+	 */
+	@Setup
+	public void setup() throws IOException {
+		session = new GameSession(new BoggleBoard(size, SEED),
+				new WordList(new File(dictionary)));
+		Random rand = new Random(SEED);
+		randoms = new int[RANDOM_COUNT];
+		for (int i = 0; i < RANDOM_COUNT; i++) {
+			randoms[i] = rand.nextInt(Integer.MAX_VALUE);
+		}
+	}
+
+	/**
+	 * Makes a single move of the simulated player.
+	 * @return whether the move changed the session.
+	 */
+	@Benchmark
+	public boolean move() {
+		int r = randoms[next++ & (RANDOM_COUNT - 1)];
+		int length = session.pathLength();
+
+		// Starts a path anywhere on the board
+		if (length == 0)
+			return session.select(r % (size * size));
+
+		// Submits long paths, and paths ending a word half the time
+		if (length >= MAX_PATH ||
+				(session.getWordStatus() == GameSession.WordStatus.WORD && (r & 1) == 0)) {
+			if (!session.submitWord())
+				session.clearSelection();
+			return true;
+		}
+
+		// Backs up to an earlier cell one move in eight
+		if ((r & 7) == 7)
+			return session.select(session.pathCell(r % length));
+
+		// Otherwise extends the path through a neighbor of its last cell
+		int[] neighbors = session.getBoard().neighbors(session.lastCell());
+		return session.select(neighbors[(r >>> 3) % neighbors.length]);
+	}
+}
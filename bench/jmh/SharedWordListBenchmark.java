@@ -0,0 +1,149 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark of lookups in a word list shared by several threads.
+ * "shared" looks words up in a SharedWordList and "locked" in a word
+ * list guarded by a lock, as callers had to before. Run them with
+ * "-t 1", "-t 2", "-t 4" and so on to see how reader throughput scales
+ * with the number of threads. The "reload" group keeps looking words
+ * up on three threads while a fourth replaces the words.
+ * Run with "ant jmh".
+ * @author rpathire
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SharedWordListBenchmark {
+	/** Seed of the words looked up */
+	private static final long SEED = 20140301L;
+
+	/** Number of words looked up in turn, a power of two */
+	private static final int LOOKUP_COUNT = 1 << 12;
+
+	/** Word file to look words up in */
+	@Param({"bench/fixtures/words-20k.txt"})
+	public String dictionary;
+
+	/** Shared word list */
+	private SharedWordList shared;
+
+	/** Word list guarded by a lock */
+	private WordList locked;
+
+	/** Frozen word lists the reloader alternates between */
+	private WordList[] versions;
+
+	/** Words looked up, half of them in the list */
+	private String[] lookups;
+
+	/**
+	 * Loads the dictionary and picks the words looked up.
+	 * @throws IOException if the dictionary cannot be read
+	 */
+	@Setup
+	public void setup() throws IOException {
+		WordList words = new WordList(new File(dictionary));
+		final String[] all = new String[words.size()];
+		words.trie().forEachWord(new WordTrie.WordVisitor() {
+			private int count;
+
+			public void visit(String word) {
+				all[count++] = word;
+			}
+		});
+
+		// Misses are words of the list with their last letter changed
+		Random rand = new Random(SEED);
+		lookups = new String[LOOKUP_COUNT];
+		for (int i = 0; i < LOOKUP_COUNT; i++) {
+			String w = all[rand.nextInt(all.length)];
+			if (i % 2 == 1)
+				w = w.substring(0, w.length() - 1) + (char) ('a' + rand.nextInt(26));
+			lookups[i] = w;
+		}
+
+		locked = words;
+		shared = new SharedWordList(new WordList(words));
+		WordList larger = new WordList(words);
+		larger.addWord("zzzz");
+		versions = new WordList[] {shared.snapshot(), larger.freeze()};
+	}
+
+	/**
+	 * Per thread position in the words looked up.
+	 * @author rpathire
+	 *
+	 */
+	@State(Scope.Thread)
+	public static class Position {
+		/** Index of the next word looked up */
+		int next;
+	}
+
+	/**
+	 * Looks a word up in the shared word list.
+	 * @param position position of the thread
+	 * @return whether the word was found.
+	 */
+	@Benchmark
+	public boolean shared(Position position) {
+		return shared.containsWord(lookups[position.next++ & (LOOKUP_COUNT - 1)]);
+	}
+
+	/**
+	 * Looks a word up in the word list while holding its lock.
+	 * @param position position of the thread
+	 * @return whether the word was found.
+	 */
+	@Benchmark
+	public boolean locked(Position position) {
+		String w = lookups[position.next++ & (LOOKUP_COUNT - 1)];
+		synchronized (locked) {
+			return locked.containsWord(w);
+		}
+	}
+
+	/**
+	 * Looks a word up while the words are being replaced.
+	 * @param position position of the thread
+	 * @return whether the word was found.
+	 */
+	@Benchmark
+	@Group("reload")
+	@GroupThreads(3)
+	public boolean reloadReader(Position position) {
+		return shared.containsWord(lookups[position.next++ & (LOOKUP_COUNT - 1)]);
+	}
+
+	/**
+	 * Replaces the words with the other version.
+	 * @param position position of the thread
+	 */
+	@Benchmark
+	@Group("reload")
+	@GroupThreads(1)
+	public void reloadWriter(Position position) {
+		shared.replace(versions[position.next++ & 1]);
+	}
+}
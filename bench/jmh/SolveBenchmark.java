@@ -0,0 +1,79 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark of solving whole boards. A fixed set of boards is
+ * generated from a fixed seed and solved in turn, so every run solves
+ * the same boards with the same dictionary. The dictionary defaults to
+ * the committed fixture and can be changed with "-p dictionary=FILE".
+ * Run with "ant jmh".
+ * @author rpathire
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SolveBenchmark {
+	/** Seed of the boards */
+	private static final long SEED = 20140301L;
+
+	/** Number of distinct boards solved, a power of two */
+	private static final int BOARDS = 64;
+
+	/** Word file to solve with, relative to the project directory */
+	@Param({"bench/fixtures/words-20k.txt"})
+	public String dictionary;
+
+	/** Size of the boards solved */
+	@Param({"4", "5", "10", "25"})
+	public int size;
+
+	/** Solver reused for every board */
+	private BoggleSolver solver;
+
+	/** Boards solved in turn */
+	private BoggleBoard[] boards;
+
+	/** Index of the next board */
+	private int next;
+
+	/**
+	 * Loads the dictionary and generates the boards.
+	 * @throws IOException if the dictionary cannot be read
+	 */
+	@Setup
+	public void setup() throws IOException {
+		solver = new BoggleSolver(new WordList(new File(dictionary)));
+		BoggleBoard.Generator generator = new BoggleBoard.Generator(SEED);
+		boards = new BoggleBoard[BOARDS];
+		for (int i = 0; i < BOARDS; i++) {
+			boards[i] = generator.next(size);
+		}
+	}
+
+	/**
+	 * Solves the next board.
+	 * @return words found on the board.
+	 */
+	@Benchmark
+	public Set<String> solve() {
+		return solver.solve(boards[next++ & (BOARDS - 1)]);
+	}
+}
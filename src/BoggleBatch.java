@@ -0,0 +1,241 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class generates and solves a batch of random Boggle boards on
+ * a pool of worker threads and writes one line of statistics per
+ * board as CSV. It is used to evaluate the letter distribution of
+ * the boards over many rounds.
+ *
+ * Board number n is built from the seed of the batch plus n, so any
+ * board of a batch can be rebuilt later from its number.
+ * 
+ * Every worker owns a solver, while all of them share the word list
+ * loaded once. Lines are written as soon as a board is solved, so
+ * memory use does not grow with the number of boards. Lines appear
+ * in the order boards finish, which is not always their numbering.
+ * @author rpathire
+ *
+ */
+public class BoggleBatch {
+	/** First line of the output */
+	public static final String HEADER = "board,letters,words,max_score,longest_word";
+
+	/** Word list shared by all workers */
+	private final WordList dictionary;
+
+	/** Size of the generated boards */
+	private final int size;
+
+	/** Number of worker threads */
+	private final int threads;
+
+	/** Seed of the first board */
+	private final long seed;
+
+	/**
+	 * Constructs a batch generating boards of the given size from
+	 * a random seed.
+	 * @param dictionary word list to solve boards with, cannot be null
+	 * @param size size of the generated boards
+	 * @param threads number of worker threads
+	 * @throws IllegalArgumentException if size or threads is not positive.
+	 */
+	public BoggleBatch(WordList dictionary, int size, int threads)
+			throws IllegalArgumentException {
+		this(dictionary, size, threads, ThreadLocalRandom.current().nextLong());
+	}
+
+	/**
+	 * Constructs a batch generating boards of the given size from
+	 * the given seed.
+	 * @param dictionary word list to solve boards with, cannot be null
+	 * @param size size of the generated boards
+	 * @param threads number of worker threads
+	 * @param seed seed of the first board
+	 * @throws IllegalArgumentException if size or threads is not positive.
+	 */
+	public BoggleBatch(WordList dictionary, int size, int threads, long seed)
+			throws IllegalArgumentException {
+		if (size <= 0 || threads <= 0)
+			throw new IllegalArgumentException();
+		this.dictionary = dictionary;
+		this.size = size;
+		this.threads = threads;
+		this.seed = seed;
+	}
+
+	/**
+	 * Returns the seed of the first board.
+	 * @return seed of the batch.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Generates and solves the boards and writes their statistics
+	 * to the output, header first.
+	 * @param boards number of boards to generate
+	 * @param out output to write the statistics to, cannot be null
+	 * @return number of boards solved per second.
+	 * @throws IOException if writing the output fails.
+	 * @throws InterruptedException if interrupted while waiting for
+	 * the workers.
+	 */
+	public double run(long boards, Writer out)
+			throws IOException, InterruptedException {
+		out.write(HEADER);
+		out.write('\n');
+
+		// Starts the workers, which take board numbers from a counter
+		AtomicLong next = new AtomicLong();
+		long start = System.nanoTime();
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<Void>> workers = new ArrayList<Future<Void>>();
+		for (int i = 0; i < threads; i++) {
+			workers.add(pool.submit(new Worker(next, boards, out)));
+		}
+		pool.shutdown();
+
+		// Waits for the workers, passing on their failures
+		try {
+			for (Future<Void> f : workers) {
+				f.get();
+			}
+		}
+		catch (ExecutionException e) {
+			pool.shutdownNow();
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			throw new RuntimeException(e.getCause());
+		}
+		out.flush();
+		return boards / ((System.nanoTime() - start) / 1e9);
+	}
+
+	/**
+	 * Worker solving boards until the batch is complete.
+	 * @author rpathire
+	 *
+	 */
+	private class Worker implements Callable<Void> {
+		/** Number of the next board to generate */
+		private final AtomicLong next;
+
+		/** Number of boards in the batch */
+		private final long total;
+
+		/** Output shared by all workers */
+		private final Writer out;
+
+		/**
+		 * Constructs a worker.
+		 */
+		Worker(AtomicLong next, long total, Writer out) {
+			this.next = next;
+			this.total = total;
+			this.out = out;
+		}
+
+		/**
+		 * Solves boards and writes their statistics line by line.
+		 */
+		public Void call() throws IOException {
+			BoggleSolver solver = new BoggleSolver(dictionary);
+			StringBuilder line = new StringBuilder();
+			for (long n = next.getAndIncrement(); n < total;
+					n = next.getAndIncrement()) {
+				BoggleBoard board = new BoggleBoard(size, seed + n);
+				line.setLength(0);
+				appendStats(line, n, board, solver.solve(board));
+
+				// Only writing to the output is shared between workers
+				synchronized (out) {
+					out.append(line);
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Appends the CSV line describing a solved board.
+	 * @param line builder to append to
+	 * @param n number of the board
+	 * @param board the solved board
+	 * @param words words found on the board
+	 */
+	static void appendStats(StringBuilder line, long n, BoggleBoard board,
+			Set<String> words) {
+		// Computes the total score and the longest word
+		int score = 0;
+		String longest = "";
+		for (String w : words) {
+			score += BoggleSolver.score(w);
+			if (w.length() > longest.length())
+				longest = w;
+		}
+
+		line.append(n).append(',');
+		for (int i = 0; i < board.size(); i++) {
+			for (int j = 0; j < board.size(); j++) {
+				line.append(board.getCell(i, j));
+			}
+		}
+		line.append(',').append(words.size());
+		line.append(',').append(score);
+		line.append(',').append(longest).append('\n');
+	}
+
+	/**
+	 * Runs a batch from the command line and reports its throughput.
+	 * Arguments are the word list file, the output file, the number
+	 * of boards and optionally the board size, number of threads and
+	 * seed.
+	 * @param args command line arguments
+	 * @throws Exception if the batch fails.
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length < 3) {
+			System.err.println("usage: BoggleBatch <word list> <output.csv> "
+					+ "<boards> [size] [threads] [seed]");
+			System.exit(1);
+		}
+		int size = args.length > 3 ?
+				Integer.parseInt(args[3]) : BoggleBoard.DEFAULT_SIZE;
+		int threads = args.length > 4 ?
+				Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+		long boards = Long.parseLong(args[2]);
+		long seed = args.length > 5 ?
+				Long.parseLong(args[5]) : ThreadLocalRandom.current().nextLong();
+
+		WordList dictionary = new WordList(new File(args[0]));
+		BoggleBatch batch = new BoggleBatch(dictionary, size, threads, seed);
+		Writer out = new BufferedWriter(new OutputStreamWriter(
+				new FileOutputStream(args[1]), StandardCharsets.UTF_8));
+		try {
+			double rate = batch.run(boards, out);
+			System.out.printf("%d boards of size %d on %d threads (seed %d): "
+					+ "%.0f boards/s%n", boards, size, threads, seed, rate);
+		}
+		finally {
+			out.close();
+		}
+	}
+}
@@ -1,19 +1,58 @@
-import java.util.Random;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * This class represents an NxN Boggle board and contains methods
  * that configures it. The frequency of letters used for the game is
  * based on the letter distribution of Loggle.
+ * 
+ * Cells are stored row by row in a flat array of letter codes, where
+ * cell (x, y) has the index x * size + y. The codes 0 to 25 stand for
+ * the letters A to Z and QU stands for the Qu cell. The neighbors of
+ * every cell are looked up in a table shared by all boards of the
+ * same size.
+ * 
+ * Boards built from the same seed always hold the same letters. To
+ * generate many boards, use a Generator in each thread.
  * @author rpathire
  * 
  */
 public class BoggleBoard {
-	/** Cell grid to store letters */
-	private String[][] board;
+	/** Letter codes of the cells, row by row */
+	private byte[] cells;
+	
+	/** Dimension of the board */
+	private int size;
+	
+	/** Neighbors of each cell */
+	private int[][] neighbors;
 	
 	/** Default Boggle board size */
 	public static final int DEFAULT_SIZE = 4;
 	
+	/** Code of the Qu cell */
+	public static final int QU = 26;
+	
+	/** Number of letter codes */
+	public static final int CODE_COUNT = 27;
+	
+	/** Number of rotations and reflections of a board */
+	private static final int SYMMETRIES = 8;
+	
+	/** Text of each letter code as displayed on the board */
+	private static final String[] CODE_TEXT = {"A","B","C","D","E","F",
+			"G","H","I","J","K","L","M","N","O","P","Q","R","S","T","U",
+			"V","W","X","Y","Z","Qu"};
+	
+	/** Letter codes of the Loggle distribution, shared by all boards */
+	private static final byte[] DISTRIBUTION = createLetterDistribution();
+	
+	/** Neighbor tables of the board sizes used so far */
+	private static final ConcurrentHashMap<Integer, int[][]> NEIGHBOR_TABLES =
+			new ConcurrentHashMap<Integer, int[][]>();
+	
 	/**
 	 * Constructs a Boggle board of dimension 4x4 and initializes
 	 * the board to a random configuration of letters.
@@ -29,32 +68,118 @@ public class BoggleBoard {
 	 * @param size size of square Boggle board
 	 */
 	public BoggleBoard(int size) {
-		board = new String[size][size];
-		generateBoard();
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
+		allocate(size);
+		generateBoard(ThreadLocalRandom.current());
+		if (Metrics.ENABLED)
+			Metrics.BOARDS.recordSince(start);
 	}
 	
 	/**
-	 * Initializes the board to a random configuration of letters.
-	 * The letter Q is represented as Qu.
+	 * Constructs a Boggle board of dimension size x size.
+	 * Initializes the board to a configuration of letters that only
+	 * depends on the seed.
+	 * 
+	 * @param size size of square Boggle board
+	 * @param seed seed of the letter configuration
+	 */
+	public BoggleBoard(int size, long seed) {
+		this(size, new SplittableRandom(seed));
+	}
+	
+	/**
+	 * Constructs a Boggle board of dimension size x size with letters
+	 * drawn from the random generator.
+	 * 
+	 * @param size size of square Boggle board
+	 * @param rand random generator to draw letters from
 	 */
-	private void generateBoard() {
-		Random rand = new Random();
-		String[] letters = createLetterDistribution();
-		for (int i = 0; i < board.length; i++) {
-			for (int j = 0; j < board.length; j++) {
-				// Generates a letter and inserts it into the cell
-				board[i][j] = letters[rand.nextInt(letters.length)];
+	private BoggleBoard(int size, SplittableRandom rand) {
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
+		allocate(size);
+		generateBoard(rand);
+		if (Metrics.ENABLED)
+			Metrics.BOARDS.recordSince(start);
+	}
+	
+	/**
+	 * Constructs a Boggle board holding the given letters. The
+	 * letters are copied, so later changes to the array do not
+	 * affect the board.
+	 * 
+	 * @param letters square grid of letters, where the letter Q is
+	 * represented as Qu
+	 * @throws IllegalArgumentException if the grid is not square or
+	 * contains cells that are not a single letter or Qu.
+	 */
+	public BoggleBoard(String[][] letters) throws IllegalArgumentException {
+		allocate(letters.length);
+		for (int i = 0; i < size; i++) {
+			// Every row must be as long as the grid is high
+			if (letters[i].length != size)
+				throw new IllegalArgumentException();
+			for (int j = 0; j < size; j++) {
+				cells[i * size + j] = (byte) codeOf(letters[i][j]);
 			}
 		}
 	}
 	
+	/**
+	 * Constructs a Boggle board of dimension size x size holding the
+	 * letter codes, row by row. The codes are copied.
+	 * 
+	 * @param size size of square Boggle board
+	 * @param codes letter codes of the cells, valid and size x size long
+	 */
+	BoggleBoard(int size, byte[] codes) {
+		allocate(size);
+		System.arraycopy(codes, 0, cells, 0, cells.length);
+	}
+	
+	/**
+	 * Allocates the cells of a board of dimension size x size and
+	 * looks up its neighbor table.
+	 * @param size size of square Boggle board
+	 */
+	private void allocate(int size) {
+		this.size = size;
+		cells = new byte[size * size];
+		neighbors = neighborTable(size);
+	}
+	
+	/**
+	 * Initializes the board to a random configuration of letters
+	 * drawn from the calling thread's random generator.
+	 * The letter Q is represented as Qu.
+	 * @param rand random generator of the calling thread
+	 */
+	private void generateBoard(ThreadLocalRandom rand) {
+		for (int i = 0; i < cells.length; i++) {
+			// Generates a letter and inserts its code into the cell
+			cells[i] = DISTRIBUTION[rand.nextInt(DISTRIBUTION.length)];
+		}
+	}
+	
+	/**
+	 * Initializes the board to a random configuration of letters
+	 * drawn from the random generator.
+	 * The letter Q is represented as Qu.
+	 * @param rand random generator to draw letters from
+	 */
+	private void generateBoard(SplittableRandom rand) {
+		for (int i = 0; i < cells.length; i++) {
+			// Generates a letter and inserts its code into the cell
+			cells[i] = DISTRIBUTION[rand.nextInt(DISTRIBUTION.length)];
+		}
+	}
+	
 	/**
 	 * Creates a letter distribution for Boggle and returns
-	 * its representation. This representation is based of Loggle
-	 * which contains 96 letters.
-	 * @return list of letters for boggle game
+	 * its representation as letter codes. This representation is
+	 * based of Loggle which contains 96 letters.
+	 * @return list of letter codes for boggle game
 	 */
-	private String[] createLetterDistribution() {
+	private static byte[] createLetterDistribution() {
 		String[] letters = {"A","A","A","A","A","A","A","A",
 				"B","B","B","C","C","C","D","D","D","D","E","E","E",
 				"E","E","E","E","E","E","E","F","F","G","G","G","H",
@@ -64,7 +189,11 @@ public class BoggleBoard {
 				"S","S","S","S","S","T","T","T","T","T","U","U","U",
 				"U","V","V","W","W","X","Y","Y","Y","Z"};
 		assert letters.length == 96;
-		return letters;
+		byte[] codes = new byte[letters.length];
+		for (int i = 0; i < letters.length; i++) {
+			codes[i] = (byte) codeOf(letters[i]);
+		}
+		return codes;
 	}
 	
 	/**
@@ -72,7 +201,15 @@ public class BoggleBoard {
 	 * @return size of boggle board.
 	 */
 	public int size() {
-		return board.length;
+		return size;
+	}
+	
+	/**
+	 * Returns number of cells of Boggle board.
+	 * @return number of cells, size x size.
+	 */
+	public int cellCount() {
+		return cells.length;
 	}
 	
 	/**
@@ -82,9 +219,226 @@ public class BoggleBoard {
 	 * @return string at the boggle board (x, y)
 	 */
 	public String getCell(int x, int y) {
-		return board[x][y];
+		return CODE_TEXT[cells[x * size + y]];
 	}
 	
+	/**
+	 * Returns letter code of the cell at the index.
+	 * @param index index of the cell, x * size + y
+	 * @return code of the letter in the cell, QU for Qu.
+	 */
+	public int getCellCode(int index) {
+		return cells[index];
+	}
 	
-
+	/**
+	 * Returns the letter codes of the board in its canonical
+	 * orientation. Of the eight rotations and reflections of the
+	 * board, the one whose codes come first row by row is canonical,
+	 * so boards that are rotations or reflections of each other have
+	 * the same canonical codes. They also have the same words, as
+	 * neighboring cells stay neighbors.
+	 * @return new array of the canonical letter codes, row by row.
+	 */
+	public byte[] canonicalCodes() {
+		// Finds the smallest orientation without building the others
+		int best = 0;
+		for (int t = 1; t < SYMMETRIES; t++) {
+			for (int i = 0; i < cells.length; i++) {
+				int diff = cells[transform(t, i)] - cells[transform(best, i)];
+				if (diff != 0) {
+					if (diff < 0)
+						best = t;
+					break;
+				}
+			}
+		}
+		byte[] codes = new byte[cells.length];
+		for (int i = 0; i < cells.length; i++) {
+			codes[i] = cells[transform(best, i)];
+		}
+		return codes;
+	}
+	
+	/**
+	 * Returns the cell shown at the index when the board is viewed
+	 * through one of its rotations or reflections.
+	 * @param symmetry rotation or reflection, from 0 to SYMMETRIES - 1,
+	 * 0 being the board as it is
+	 * @param index index of the cell in the transformed board
+	 * @return index of the cell in the board.
+	 */
+	private int transform(int symmetry, int index) {
+		int x = index / size;
+		int y = index % size;
+		int last = size - 1;
+		switch (symmetry) {
+			case 0:
+				return index;
+			case 1:
+				return y * size + (last - x);
+			case 2:
+				return (last - x) * size + (last - y);
+			case 3:
+				return (last - y) * size + x;
+			case 4:
+				return x * size + (last - y);
+			case 5:
+				return (last - x) * size + y;
+			case 6:
+				return y * size + x;
+			default:
+				return (last - y) * size + (last - x);
+		}
+	}
+	
+	/**
+	 * Returns the indexes of the cells neighboring the cell
+	 * horizontally, vertically or diagonally. The array is shared
+	 * by all boards of the same size and must not be modified.
+	 * @param index index of the cell, x * size + y
+	 * @return indexes of the neighbors of the cell.
+	 */
+	public int[] neighbors(int index) {
+		return neighbors[index];
+	}
+	
+	/**
+	 * Returns the letter codes boards are drawn from, each code
+	 * appearing as often as its letter in the Loggle distribution.
+	 * @return new array of letter codes.
+	 */
+	static byte[] letterDistribution() {
+		return DISTRIBUTION.clone();
+	}
+	
+	/**
+	 * Returns text of a letter code as displayed on the board.
+	 * @param code letter code
+	 * @return text of the code, such as "A" or "Qu".
+	 */
+	public static String codeText(int code) {
+		return CODE_TEXT[code];
+	}
+	
+	/**
+	 * Returns letter code of the text of a cell. Letters may be of
+	 * either case.
+	 * @param text text of the cell, a single letter or Qu
+	 * @return letter code of the text.
+	 * @throws IllegalArgumentException if the text is not a single
+	 * letter or Qu.
+	 */
+	public static int codeOf(String text) throws IllegalArgumentException {
+		if (text != null) {
+			if (text.length() == 1) {
+				char c = Character.toUpperCase(text.charAt(0));
+				if (c >= 'A' && c <= 'Z')
+					return c - 'A';
+			}
+			else if (text.equalsIgnoreCase(CODE_TEXT[QU])) {
+				return QU;
+			}
+		}
+		throw new IllegalArgumentException();
+	}
+	
+	/**
+	 * Returns the neighbor table of boards of the given size,
+	 * creating it the first time the size is used.
+	 * @param size size of the board
+	 * @return neighbors of each cell, cells numbered row by row.
+	 */
+	static int[][] neighborTable(int size) {
+		int[][] table = NEIGHBOR_TABLES.get(size);
+		if (table == null) {
+			table = createNeighborTable(size);
+			int[][] existing = NEIGHBOR_TABLES.putIfAbsent(size, table);
+			if (existing != null)
+				table = existing;
+		}
+		return table;
+	}
+	
+	/**
+	 * Creates a table of the neighbors of every cell of a board.
+	 * @param size size of the board
+	 * @return neighbors of each cell, cells numbered row by row.
+	 */
+	private static int[][] createNeighborTable(int size) {
+		int[][] table = new int[size * size][];
+		int[] buffer = new int[8];
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				// Collects the up to eight cells around (x, y)
+				int count = 0;
+				for (int i = Math.max(0, x - 1); i <= Math.min(size - 1, x + 1); i++) {
+					for (int j = Math.max(0, y - 1); j <= Math.min(size - 1, y + 1); j++) {
+						if (i != x || j != y)
+							buffer[count++] = i * size + j;
+					}
+				}
+				table[x * size + y] = Arrays.copyOf(buffer, count);
+			}
+		}
+		return table;
+	}
+	
+	
+	/**
+	 * Generates random boards quickly. The letter distribution is
+	 * shared by all generators and every generator draws from its own
+	 * SplittableRandom, so a generator must only be used by one thread
+	 * at a time. Use split() to create generators for other threads.
+	 * Generators built from the same seed produce the same sequence
+	 * of boards, the first one being the board built from that seed.
+	 * @author rpathire
+	 *
+	 */
+	public static class Generator {
+		/** Source of the random letters */
+		private final SplittableRandom rand;
+		
+		/**
+		 * Constructs a generator with a random seed.
+		 */
+		public Generator() {
+			this(ThreadLocalRandom.current().nextLong());
+		}
+		
+		/**
+		 * Constructs a generator with the given seed.
+		 * @param seed seed of the sequence of boards
+		 */
+		public Generator(long seed) {
+			this(new SplittableRandom(seed));
+		}
+		
+		/**
+		 * Constructs a generator drawing letters from the random generator.
+		 * @param rand random generator to draw letters from
+		 */
+		private Generator(SplittableRandom rand) {
+			this.rand = rand;
+		}
+		
+		/**
+		 * Returns the next board of the sequence.
+		 * @param size size of the board
+		 * @return new board of dimension size x size
+		 */
+		public BoggleBoard next(int size) {
+			return new BoggleBoard(size, rand);
+		}
+		
+		/**
+		 * Returns a new generator whose sequence is independent from
+		 * this one, for use in another thread. The new generator only
+		 * depends on the seed and the calls made so far.
+		 * @return new generator
+		 */
+		public Generator split() {
+			return new Generator(rand.split());
+		}
+	}
 }
@@ -0,0 +1,321 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class plays many games against a BoggleServer on the local
+ * host and reports the latency of the commands and the number of
+ * games played per second and per core. Every client is a connection
+ * of its own playing games one after another: it starts a game,
+ * submits the words it finds on the board with its own solver, a
+ * word twice and a word that is not on the board, and ends the game.
+ *
+ * Unless the port of a running server is given, a server is started
+ * in the same process, in which case its processor time is included
+ * in the games per core.
+ * @author rpathire
+ *
+ */
+public class BoggleLoadClient {
+	/** Largest number of words submitted per game */
+	private static final int WORDS_PER_GAME = 20;
+
+	/** Word list used to find words to submit */
+	private final WordList dictionary;
+
+	/** Port of the server */
+	private final int port;
+
+	/** Size of the boards played */
+	private final int size;
+
+	/** Latency of every command sent, in nanoseconds, sorted */
+	private long[] latencies;
+
+	/** Number of games played per second in the last run */
+	private double gamesPerSecond;
+
+	/**
+	 * Constructs a load client.
+	 * @param dictionary word list to find words with, cannot be null
+	 * @param port port of the server on the local host
+	 * @param size size of the boards played
+	 * @throws IllegalArgumentException if size is not a valid board
+	 * size of the server.
+	 */
+	public BoggleLoadClient(WordList dictionary, int port, int size)
+			throws IllegalArgumentException {
+		if (size <= 0 || size > BoggleServer.MAX_SIZE)
+			throw new IllegalArgumentException();
+		this.dictionary = dictionary;
+		this.port = port;
+		this.size = size;
+		latencies = new long[0];
+	}
+
+	/**
+	 * Plays the games on concurrent connections and records the
+	 * latency of every command.
+	 * @param clients number of connections
+	 * @param games number of games played by each connection
+	 * @throws IOException if a connection fails or the server answers
+	 * unexpectedly
+	 * @throws InterruptedException if interrupted while waiting for
+	 * the clients.
+	 * @throws IllegalArgumentException if clients or games is not
+	 * positive.
+	 */
+	public void run(int clients, int games)
+			throws IOException, InterruptedException, IllegalArgumentException {
+		if (clients <= 0 || games <= 0)
+			throw new IllegalArgumentException();
+		long start = System.nanoTime();
+		ExecutorService pool = Executors.newFixedThreadPool(clients);
+		List<Future<long[]>> results = new ArrayList<Future<long[]>>();
+		for (int i = 0; i < clients; i++) {
+			results.add(pool.submit(new Client(games, i)));
+		}
+		pool.shutdown();
+
+		// Gathers the latencies of all clients, passing on failures
+		long[][] all = new long[clients][];
+		int count = 0;
+		try {
+			for (int i = 0; i < clients; i++) {
+				all[i] = results.get(i).get();
+				count += all[i].length;
+			}
+		}
+		catch (ExecutionException e) {
+			pool.shutdownNow();
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			throw new RuntimeException(e.getCause());
+		}
+		gamesPerSecond = (double) clients * games / ((System.nanoTime() - start) / 1e9);
+		latencies = new long[count];
+		count = 0;
+		for (long[] l : all) {
+			System.arraycopy(l, 0, latencies, count, l.length);
+			count += l.length;
+		}
+		Arrays.sort(latencies);
+	}
+
+	/**
+	 * Returns the latency below which the fraction of the commands of
+	 * the last run were answered.
+	 * @param fraction fraction of the commands, between 0 and 1
+	 * @return latency in nanoseconds, or 0 if nothing was run.
+	 */
+	public long percentile(double fraction) {
+		if (latencies.length == 0)
+			return 0;
+		int index = (int) Math.ceil(fraction * latencies.length) - 1;
+		return latencies[Math.max(0, Math.min(latencies.length - 1, index))];
+	}
+
+	/**
+	 * Returns number of commands sent in the last run.
+	 * @return number of commands.
+	 */
+	public int commands() {
+		return latencies.length;
+	}
+
+	/**
+	 * Returns number of games played per second in the last run.
+	 * @return games per second.
+	 */
+	public double gamesPerSecond() {
+		return gamesPerSecond;
+	}
+
+	/**
+	 * Connection playing games one after another.
+	 * @author rpathire
+	 *
+	 */
+	private class Client implements Callable<long[]> {
+		/** Number of games to play */
+		private final int games;
+
+		/** Seed of the boards and of the words picked */
+		private final long seed;
+
+		/** Latencies recorded so far */
+		private long[] latencies;
+
+		/** Number of latencies recorded */
+		private int count;
+
+		/** Reader of the answers */
+		private BufferedReader in;
+
+		/** Writer of the commands */
+		private Writer out;
+
+		/**
+		 * Constructs a client.
+		 */
+		Client(int games, long seed) {
+			this.games = games;
+			this.seed = seed;
+			latencies = new long[games * (WORDS_PER_GAME + 4)];
+		}
+
+		/**
+		 * Plays the games and returns the latencies of the commands.
+		 */
+		public long[] call() throws IOException {
+			BoggleSolver solver = new BoggleSolver(dictionary);
+			Random rand = new Random(seed);
+			Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+			try {
+				socket.setTcpNoDelay(true);
+				in = new BufferedReader(new InputStreamReader(
+						socket.getInputStream(), StandardCharsets.UTF_8));
+				out = new BufferedWriter(new OutputStreamWriter(
+						socket.getOutputStream(), StandardCharsets.UTF_8));
+				for (int g = 0; g < games; g++) {
+					play(solver, rand.nextLong(), rand);
+				}
+				send("QUIT", "BYE");
+			}
+			finally {
+				socket.close();
+			}
+			return Arrays.copyOf(latencies, count);
+		}
+
+		/**
+		 * Plays a game on the board built from the seed.
+		 */
+		private void play(BoggleSolver solver, long boardSeed, Random rand)
+				throws IOException {
+			String[] game = send("NEW " + size + " " + boardSeed, "GAME").split(" ");
+			String id = game[1];
+
+			// Submits some of the words on the board, and the first twice
+			List<String> words = new ArrayList<String>(
+					solver.solve(new BoggleBoard(size, boardSeed)));
+			for (int i = 0; i < WORDS_PER_GAME && !words.isEmpty(); i++) {
+				String w = words.remove(rand.nextInt(words.size()));
+				send("WORD " + id + " " + w, "OK");
+				if (i == 0)
+					send("WORD " + id + " " + w, "DUPLICATE");
+			}
+			send("WORD " + id + " zzzzzzzz", "INVALID");
+			send("END " + id, "SCORE");
+		}
+
+		/**
+		 * Sends the command and records how long the answer took.
+		 * @return answer of the server.
+		 * @throws IOException if the answer does not start as expected
+		 */
+		private String send(String command, String expected) throws IOException {
+			long start = System.nanoTime();
+			out.write(command);
+			out.write('\n');
+			out.flush();
+			String answer = in.readLine();
+			long latency = System.nanoTime() - start;
+			if (answer == null || !answer.startsWith(expected))
+				throw new IOException("unexpected answer to " + command + ": " + answer);
+			if (count == latencies.length)
+				latencies = Arrays.copyOf(latencies, count * 2);
+			latencies[count++] = latency;
+			return answer;
+		}
+	}
+
+	/**
+	 * Returns the processor time used by the process so far.
+	 * @return processor time in nanoseconds, or -1 if not supported.
+	 */
+	private static long processCpuTime() {
+		OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+		if (!(os instanceof com.sun.management.OperatingSystemMXBean))
+			return -1;
+		return ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+	}
+
+	/**
+	 * Runs a load test from the command line and reports the latency
+	 * percentiles and the games played per second and per core.
+	 * Arguments are the word list file and optionally the number of
+	 * clients, games per client, board size and port of a running
+	 * server.
+	 * @param args command line arguments
+	 * @throws Exception if the load test fails.
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.err.println("usage: BoggleLoadClient <word list> "
+					+ "[clients] [games] [size] [port]");
+			System.exit(1);
+		}
+		int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+		int games = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+		int size = args.length > 3 ?
+				Integer.parseInt(args[3]) : BoggleBoard.DEFAULT_SIZE;
+		WordList dictionary = new WordList(new File(args[0]));
+
+		BoggleServer server = null;
+		int port;
+		if (args.length > 4) {
+			port = Integer.parseInt(args[4]);
+		}
+		else {
+			server = new BoggleServer(dictionary, 0);
+			port = server.getPort();
+		}
+		try {
+			BoggleLoadClient client = new BoggleLoadClient(dictionary, port, size);
+			int cores = Runtime.getRuntime().availableProcessors();
+			long cpu = processCpuTime();
+			long start = System.nanoTime();
+			client.run(clients, games);
+			double seconds = (System.nanoTime() - start) / 1e9;
+			cpu = cpu < 0 ? -1 : processCpuTime() - cpu;
+
+			System.out.printf("%d clients x %d games of size %d: %d commands%n",
+					clients, games, size, client.commands());
+			System.out.printf("latency p50 %.1f us, p99 %.1f us%n",
+					client.percentile(0.50) / 1e3, client.percentile(0.99) / 1e3);
+			System.out.printf("%.0f games/s, %.0f games/s per core (%d cores)%n",
+					client.gamesPerSecond(), client.gamesPerSecond() / cores, cores);
+			if (cpu > 0)
+				System.out.printf("%.0f games per processor second%n",
+						clients * games / (cpu / 1e9));
+			if (server != null)
+				System.out.printf("%d games ended on the server in %.1f s%n",
+						server.endedGames(), seconds);
+			if (Metrics.ENABLED)
+				System.out.print(Metrics.dump());
+		}
+		finally {
+			if (server != null)
+				server.close();
+		}
+	}
+}
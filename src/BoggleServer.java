@@ -0,0 +1,495 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+
+/**
+ * This class hosts Boggle games for clients connecting through a
+ * socket. Every game has its own board, while all games share one
+ * word list whose frozen snapshots are only read, so no lock is taken
+ * to check words. The word list can be reloaded while games run, and
+ * games started afterwards use the new words.
+ * A board is solved when its game starts and submitted words are
+ * scored against the words found, so a word is valid exactly if it
+ * is in the word list and can be traced on the board. Solutions are
+ * cached, so boards played again, or rotated or reflected, are not
+ * solved again.
+ *
+ * Clients send one command per line and get one line back:
+ * <pre>
+ * NEW [size [seed]]  GAME id size letters...    starts a game
+ * WORD id word       OK points score | DUPLICATE | INVALID
+ * END id             SCORE score found words max_score
+ * QUIT               BYE
+ * </pre>
+ * Letters of a board are listed row by row, and errors are answered
+ * with "ERROR reason". A game belongs to the connection that started
+ * it and is dropped when it ends or the connection closes. A
+ * connection has at most MAX_GAMES games open at a time, as every
+ * game keeps the words of its board in memory.
+ *
+ * Each connection is served by a thread of its own, which owns the
+ * games of the connection, so games never share state other than the
+ * word list and the cached solutions.
+ * @author rpathire
+ *
+ */
+public class BoggleServer {
+	/** Largest board size a client can ask for */
+	public static final int MAX_SIZE = 100;
+
+	/** Most games a connection can have open at a time */
+	public static final int MAX_GAMES = 16;
+
+	/** Shortest pause after a failed accept, in milliseconds */
+	private static final long MIN_ACCEPT_DELAY = 10;
+
+	/** Longest pause after repeated failed accepts, in milliseconds */
+	private static final long MAX_ACCEPT_DELAY = 1000;
+
+	/** Number of connections waiting to be accepted */
+	private static final int BACKLOG = 1024;
+
+	/** Number of solved boards kept in memory */
+	private static final int CACHED_BOARDS = 1024;
+
+	/** Word list shared by all games */
+	private final SharedWordList dictionary;
+
+	/** Solutions of the boards played */
+	private final SolutionCache solutions;
+
+	/** Socket accepting connections */
+	private final ServerSocket server;
+
+	/** Threads serving the connections */
+	private final ExecutorService pool;
+
+	/** Open connections, to close them when the server stops */
+	private final Set<Socket> connections;
+
+	/** Number of the next game started */
+	private final AtomicLong nextGame;
+
+	/** Number of games in progress */
+	private final AtomicInteger openGames;
+
+	/** Number of games ended by their clients */
+	private final AtomicLong endedGames;
+
+	/**
+	 * Starts a server listening on the port of the local host, playing
+	 * with the words of the word list. A word list that is not frozen
+	 * is copied.
+	 * @param dictionary word list to play with, cannot be null
+	 * @param port port to listen on, or 0 for any free port
+	 * @throws IOException if the port cannot be listened on
+	 */
+	public BoggleServer(WordList dictionary, int port) throws IOException {
+		this(new SharedWordList(dictionary), port);
+	}
+
+	/**
+	 * Starts a server listening on the port of the local host, playing
+	 * with the current words of the shared word list.
+	 * @param dictionary word list to play with, cannot be null
+	 * @param port port to listen on, or 0 for any free port
+	 * @throws IOException if the port cannot be listened on
+	 */
+	public BoggleServer(SharedWordList dictionary, int port) throws IOException {
+		this.dictionary = dictionary;
+		solutions = new SolutionCache(dictionary, CACHED_BOARDS);
+		connections = new HashSet<Socket>();
+		nextGame = new AtomicLong(1);
+		openGames = new AtomicInteger();
+		endedGames = new AtomicLong();
+		server = new ServerSocket();
+		server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+				BACKLOG);
+		pool = Executors.newCachedThreadPool();
+		pool.execute(new Runnable() {
+			public void run() {
+				accept();
+			}
+		});
+	}
+
+	/**
+	 * Returns the port the server listens on.
+	 * @return port of the server.
+	 */
+	public int getPort() {
+		return server.getLocalPort();
+	}
+
+	/**
+	 * Returns the word list games are played with. Changes to it are
+	 * seen by the games started afterwards.
+	 * @return shared word list of the server.
+	 */
+	public SharedWordList getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * Returns the cache of the solutions of the boards played.
+	 * @return solution cache of the server.
+	 */
+	public SolutionCache getSolutions() {
+		return solutions;
+	}
+
+	/**
+	 * Returns number of games in progress.
+	 * @return number of open games.
+	 */
+	public int openGames() {
+		return openGames.get();
+	}
+
+	/**
+	 * Returns number of games ended by their clients.
+	 * @return number of ended games.
+	 */
+	public long endedGames() {
+		return endedGames.get();
+	}
+
+	/**
+	 * Stops accepting connections and closes the open ones. The open
+	 * connections are closed even if the server socket cannot be.
+	 * @throws IOException if the server socket cannot be closed
+	 */
+	public void close() throws IOException {
+		try {
+			server.close();
+		}
+		finally {
+			// Holding the lock keeps the accept thread from starting a
+			// connection between closing the others and the shutdown
+			synchronized (connections) {
+				for (Socket s : connections) {
+					closeQuietly(s);
+				}
+				pool.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * Accepts connections until the server is closed, serving each on
+	 * a thread of its own. Failed accepts, such as when the process
+	 * runs out of file descriptors, are logged and retried after a
+	 * pause that doubles while they keep failing.
+	 */
+	private void accept() {
+		long delay = MIN_ACCEPT_DELAY;
+		while (!server.isClosed()) {
+			final Socket socket;
+			try {
+				socket = server.accept();
+			}
+			catch (IOException e) {
+				// Closing the server ends the accept
+				if (server.isClosed())
+					break;
+				System.err.println("boggle server: accept failed, retrying in "
+						+ delay + " ms: " + e);
+				try {
+					Thread.sleep(delay);
+				}
+				catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+				delay = Math.min(2 * delay, MAX_ACCEPT_DELAY);
+				continue;
+			}
+			delay = MIN_ACCEPT_DELAY;
+			try {
+				socket.setTcpNoDelay(true);
+			}
+			catch (IOException e) {
+				// The connection is dropped rather than left open
+				closeQuietly(socket);
+				continue;
+			}
+			synchronized (connections) {
+				// A connection accepted as the server closes is dropped
+				if (server.isClosed()) {
+					closeQuietly(socket);
+					break;
+				}
+				connections.add(socket);
+				try {
+					pool.execute(new Connection(socket));
+				}
+				catch (RejectedExecutionException e) {
+					connections.remove(socket);
+					closeQuietly(socket);
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Game in progress on a connection.
+	 * @author rpathire
+	 *
+	 */
+	private static class Game {
+		/** Words that can be traced on the board */
+		final SortedSet<String> answers;
+
+		/** Words found so far */
+		final Set<String> found;
+
+		/** Score so far */
+		int score;
+
+		/**
+		 * Constructs a game.
+		 * @param answers words that can be traced on the board
+		 */
+		Game(SortedSet<String> answers) {
+			this.answers = answers;
+			found = new HashSet<String>();
+		}
+	}
+
+	/**
+	 * Serves the commands of a connection.
+	 * @author rpathire
+	 *
+	 */
+	private class Connection implements Runnable {
+		/** Socket of the connection */
+		private final Socket socket;
+
+		/** Games started on the connection, by number */
+		private final Map<Long, Game> games;
+
+		/**
+		 * Constructs a connection.
+		 */
+		Connection(Socket socket) {
+			this.socket = socket;
+			games = new HashMap<Long, Game>();
+		}
+
+		/**
+		 * Answers commands until the client quits or disconnects.
+		 */
+		public void run() {
+			try {
+				BufferedReader in = new BufferedReader(new InputStreamReader(
+						socket.getInputStream(), StandardCharsets.UTF_8));
+				Writer out = new BufferedWriter(new OutputStreamWriter(
+						socket.getOutputStream(), StandardCharsets.UTF_8));
+				StringBuilder reply = new StringBuilder();
+				for (String line = in.readLine(); line != null; line = in.readLine()) {
+					reply.setLength(0);
+					boolean quit = handle(line, reply);
+					out.append(reply).append('\n');
+					out.flush();
+					if (quit)
+						break;
+				}
+			}
+			catch (SocketException e) {
+				// The client or the server closed the connection
+			}
+			catch (IOException e) {
+				System.err.println("boggle server: " + e);
+			}
+			finally {
+				openGames.addAndGet(-games.size());
+				games.clear();
+				synchronized (connections) {
+					connections.remove(socket);
+				}
+				closeQuietly(socket);
+			}
+		}
+
+		/**
+		 * Answers a command.
+		 * @param line command sent by the client
+		 * @param reply builder to append the answer to
+		 * @return whether the client quit.
+		 */
+		boolean handle(String line, StringBuilder reply) {
+			String[] args = line.trim().split("\\s+");
+			String command = args[0].toUpperCase(Locale.ROOT);
+			try {
+				if (command.equals("NEW") && args.length <= 3)
+					newGame(args, reply);
+				else if (command.equals("WORD") && args.length == 3)
+					word(game(args[1]), args[2], reply);
+				else if (command.equals("END") && args.length == 2)
+					end(Long.parseLong(args[1]), reply);
+				else if (command.equals("QUIT") && args.length == 1) {
+					reply.append("BYE");
+					return true;
+				}
+				else
+					reply.append("ERROR unknown command");
+			}
+			catch (NumberFormatException e) {
+				reply.append("ERROR bad number");
+			}
+			catch (IllegalArgumentException e) {
+				reply.append("ERROR bad argument");
+			}
+			return false;
+		}
+
+		/**
+		 * Starts a game and appends its board to the reply.
+		 * @param args arguments of the command
+		 * @param reply builder to append the answer to
+		 */
+		private void newGame(String[] args, StringBuilder reply) {
+			int size = args.length > 1 ?
+					Integer.parseInt(args[1]) : BoggleBoard.DEFAULT_SIZE;
+			long seed = args.length > 2 ?
+					Long.parseLong(args[2]) : ThreadLocalRandom.current().nextLong();
+			if (size <= 0 || size > MAX_SIZE)
+				throw new IllegalArgumentException();
+			if (games.size() >= MAX_GAMES) {
+				reply.append("ERROR too many games");
+				return;
+			}
+
+			// Solves the board up front so words are only looked up,
+			// with the current words of the dictionary
+			BoggleBoard board = new BoggleBoard(size, seed);
+			long id = nextGame.getAndIncrement();
+			games.put(id, new Game(solutions.solve(board)));
+			openGames.incrementAndGet();
+
+			reply.append("GAME ").append(id).append(' ').append(size);
+			for (int i = 0; i < size; i++) {
+				for (int j = 0; j < size; j++) {
+					reply.append(' ').append(board.getCell(i, j));
+				}
+			}
+		}
+
+		/**
+		 * Scores a word submitted to the game.
+		 * @param game game the word is submitted to
+		 * @param word submitted word
+		 * @param reply builder to append the answer to
+		 */
+		private void word(Game game, String word, StringBuilder reply) {
+			String w = word.toLowerCase(Locale.ROOT);
+			if (!game.answers.contains(w)) {
+				reply.append("INVALID");
+			}
+			else if (!game.found.add(w)) {
+				reply.append("DUPLICATE");
+			}
+			else {
+				int points = BoggleSolver.score(w);
+				game.score += points;
+				reply.append("OK ").append(points).append(' ').append(game.score);
+			}
+		}
+
+		/**
+		 * Ends the game and appends its final score to the reply.
+		 * @param id number of the game
+		 * @param reply builder to append the answer to
+		 */
+		private void end(long id, StringBuilder reply) {
+			Game game = games.remove(id);
+			if (game == null)
+				throw new IllegalArgumentException();
+			openGames.decrementAndGet();
+			endedGames.incrementAndGet();
+			int maxScore = 0;
+			for (String w : game.answers) {
+				maxScore += BoggleSolver.score(w);
+			}
+			reply.append("SCORE ").append(game.score)
+					.append(' ').append(game.found.size())
+					.append(' ').append(game.answers.size())
+					.append(' ').append(maxScore);
+		}
+
+		/**
+		 * Returns the game of the connection with the number.
+		 * @param id number of the game
+		 * @return game with the number.
+		 * @throws IllegalArgumentException if the connection has no
+		 * such game.
+		 */
+		private Game game(String id) throws IllegalArgumentException {
+			Game game = games.get(Long.parseLong(id));
+			if (game == null)
+				throw new IllegalArgumentException();
+			return game;
+		}
+	}
+
+	/**
+	 * Closes the socket, ignoring errors as nothing is left to do with it.
+	 * @param socket socket to close
+	 */
+	private static void closeQuietly(Socket socket) {
+		try {
+			socket.close();
+		}
+		catch (IOException e) {
+			// Nothing left to do with the socket
+		}
+	}
+
+	/**
+	 * Runs a server from the command line until it is killed.
+	 * Arguments are the word list file and optionally the port.
+	 * Metrics are registered over JMX if they are enabled.
+	 * @param args command line arguments
+	 * @throws IOException if the word list cannot be read or the port
+	 * cannot be listened on.
+	 * @throws JMException if the metrics cannot be registered
+	 */
+	public static void main(String[] args) throws IOException, JMException {
+		if (args.length < 1) {
+			System.err.println("usage: BoggleServer <word list> [port]");
+			System.exit(1);
+		}
+		int port = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+		if (Metrics.ENABLED)
+			Metrics.register();
+		WordList dictionary = new WordList(new File(args[0]));
+		BoggleServer server = new BoggleServer(dictionary, port);
+		System.out.printf("%d words, listening on port %d%n",
+				dictionary.size(), server.getPort());
+	}
+}
@@ -0,0 +1,448 @@
+import java.util.Arrays;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This class finds every word of a word list that can be traced on
+ * a Boggle board. A word is traced by moving between cells that are
+ * neighbors horizontally, vertically or diagonally without using the
+ * same cell twice. Words shorter than MIN_WORD_LENGTH letters do not
+ * count, and the Qu cell contributes two letters.
+ *
+ * The search is a depth first search from every cell that walks the
+ * lexicon of the words alongside the path, so a path is abandoned
+ * as soon as no word starts with its letters. All scratch
+ * state is kept between solves, so a solver is not thread safe but
+ * can be reused for many boards. Large boards can be solved in
+ * parallel with solve(BoggleBoard, ForkJoinPool).
+ * @author rpathire
+ *
+ */
+public class BoggleSolver {
+	/** Minimum number of letters in a valid word */
+	public static final int MIN_WORD_LENGTH = 3;
+
+	/** Number of tasks per worker a parallel solve is split into */
+	private static final int TASKS_PER_WORKER = 8;
+
+	/** Words to find */
+	private final Lexicon lexicon;
+
+	/** Search state used by sequential solves */
+	private final Search search;
+
+	/**
+	 * Constructs a solver finding words from the word list. The
+	 * solver sees later changes made to the list.
+	 *
+	 * @param dictionary word list to find words from, cannot be null
+	 */
+	public BoggleSolver(WordList dictionary) {
+		this(dictionary.trie());
+	}
+
+	/**
+	 * Constructs a solver finding words from the lexicon, such as a
+	 * mapped dictionary. Words of the lexicon must be in lowercase.
+	 *
+	 * @param lexicon lexicon to find words from, cannot be null
+	 */
+	public BoggleSolver(Lexicon lexicon) {
+		this.lexicon = lexicon;
+		search = new Search(lexicon);
+	}
+
+	/**
+	 * Finds all words of the word list that can be traced on
+	 * the board.
+	 *
+	 * @param board board to solve, cannot be null
+	 * @return sorted set of the lowercase words found.
+	 */
+	public SortedSet<String> solve(BoggleBoard board) {
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
+		search.start(board);
+		search.searchFrom(0, board.cellCount());
+		SortedSet<String> words = search.finish();
+		if (Metrics.ENABLED)
+			Metrics.SOLVES.recordSince(start);
+		return words;
+	}
+
+	/**
+	 * Finds all words of the word list that can be traced on the
+	 * board, using the common fork join pool.
+	 *
+	 * @param board board to solve, cannot be null
+	 * @return sorted set of the lowercase words found.
+	 * @see #solve(BoggleBoard, ForkJoinPool)
+	 */
+	public SortedSet<String> solveParallel(BoggleBoard board) {
+		return solve(board, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Finds all words of the word list that can be traced on the
+	 * board, splitting the search by starting cell across the pool.
+	 * Every task searches with its own path state and word set, and
+	 * the sets are merged pairwise as the tasks are joined. Worth it
+	 * for large boards only, small boards solve faster sequentially.
+	 *
+	 * @param board board to solve, cannot be null
+	 * @param pool pool to run the search in, cannot be null
+	 * @return sorted set of the lowercase words found.
+	 */
+	public SortedSet<String> solve(BoggleBoard board, ForkJoinPool pool) {
+		// Splits the cells into a few tasks per worker
+		int cells = board.cellCount();
+		int grain = Math.max(1,
+				cells / (pool.getParallelism() * TASKS_PER_WORKER));
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
+		SortedSet<String> words = pool.invoke(new SolveTask(board, 0, cells, grain));
+		if (Metrics.ENABLED)
+			Metrics.SOLVES.recordSince(start);
+		return words;
+	}
+
+	/**
+	 * Task searching the paths starting from a range of cells.
+	 * @author rpathire
+	 *
+	 */
+	private class SolveTask extends RecursiveTask<SortedSet<String>> {
+		/** Board being solved */
+		private final BoggleBoard board;
+
+		/** First starting cell of the range */
+		private final int from;
+
+		/** Cell after the last starting cell of the range */
+		private final int to;
+
+		/** Maximum number of starting cells searched without splitting */
+		private final int grain;
+
+		/**
+		 * Constructs a task for the starting cells in [from, to).
+		 */
+		SolveTask(BoggleBoard board, int from, int to, int grain) {
+			this.board = board;
+			this.from = from;
+			this.to = to;
+			this.grain = grain;
+		}
+
+		/**
+		 * Searches the range directly if it is small enough, otherwise
+		 * splits it in two halves and merges their words.
+		 */
+		protected SortedSet<String> compute() {
+			if (to - from <= grain) {
+				Search s = new Search(lexicon);
+				s.start(board);
+				s.searchFrom(from, to);
+				return s.finish();
+			}
+			int middle = (from + to) >>> 1;
+			SolveTask left = new SolveTask(board, from, middle, grain);
+			SolveTask right = new SolveTask(board, middle, to, grain);
+			left.fork();
+			SortedSet<String> words = right.compute();
+			SortedSet<String> other = left.join();
+
+			// Merges the smaller set into the larger one
+			if (other.size() > words.size()) {
+				SortedSet<String> swap = words;
+				words = other;
+				other = swap;
+			}
+			words.addAll(other);
+			return words;
+		}
+	}
+
+	/**
+	 * Returns the Boggle score of the word, based on its length.
+	 * Words with 3 or 4 letters score 1, 5 letters score 2, 6 letters
+	 * score 3, 7 letters score 5 and longer words score 11. Shorter
+	 * words score nothing.
+	 *
+	 * @param word word to score
+	 * @return score of the word
+	 */
+	public static int score(String word) {
+		return score(word.length());
+	}
+
+	/**
+	 * Returns the Boggle score of a word with the number of letters.
+	 *
+	 * @param length number of letters of the word
+	 * @return score of the word
+	 * @see #score(String)
+	 */
+	static int score(int length) {
+		switch (length) {
+			case 0:
+			case 1:
+			case 2:
+				return 0;
+			case 3:
+			case 4:
+				return 1;
+			case 5:
+				return 2;
+			case 6:
+				return 3;
+			case 7:
+				return 5;
+			default:
+				return 11;
+		}
+	}
+
+	/**
+	 * State of a depth first search over the paths of a board. A
+	 * search belongs to a single thread at a time.
+	 * @author rpathire
+	 *
+	 */
+	private static class Search {
+		/** Lexicon of the words to find */
+		private final Lexicon lexicon;
+
+		/** Lexicon nodes of the words found so far */
+		private final NodeSet found;
+
+		/** Board being searched */
+		private BoggleBoard board;
+
+		/** Letter codes found among the neighbors of each cell, as bits */
+		private int[] neighborCodes;
+
+		/** Cells of the current path */
+		private PathState path;
+
+		/** Letters of the current path */
+		private char[] word;
+
+		/** Number of letters in the current path */
+		private int wordLength;
+
+		/** Words found in the current solve */
+		private SortedSet<String> results;
+
+		/** Number of cells added to a path in the current solve */
+		private long nodes;
+
+		/**
+		 * Constructs a search finding words from the lexicon.
+		 * @param lexicon lexicon to find words from
+		 */
+		Search(Lexicon lexicon) {
+			this.lexicon = lexicon;
+			found = new NodeSet();
+		}
+
+		/**
+		 * Prepares the search for a new board.
+		 * @param board board to search
+		 */
+		void start(BoggleBoard board) {
+			int cells = board.cellCount();
+			if (path == null || path.cellCount() != cells) {
+				path = new PathState(cells);
+				neighborCodes = new int[cells];
+				// Qu is the only cell with more than one letter
+				word = new char[2 * cells];
+			}
+			for (int cell = 0; cell < cells; cell++) {
+				int codes = 0;
+				for (int neighbor : board.neighbors(cell)) {
+					codes |= 1 << board.getCellCode(neighbor);
+				}
+				neighborCodes[cell] = codes;
+			}
+			this.board = board;
+			results = new TreeSet<String>();
+			found.clear();
+		}
+
+		/**
+		 * Searches all paths starting from the cells in [from, to).
+		 * @param from first starting cell
+		 * @param to cell after the last starting cell
+		 */
+		void searchFrom(int from, int to) {
+			for (int cell = from; cell < to; cell++) {
+				int code = board.getCellCode(cell);
+				int node;
+				if (code == BoggleBoard.QU) {
+					node = lexicon.child(Lexicon.ROOT, 'q');
+					if (node != Lexicon.NONE)
+						node = lexicon.child(node, 'u');
+				}
+				else {
+					node = lexicon.child(Lexicon.ROOT, (char) ('a' + code));
+				}
+				// Only starts from cells some word starts with
+				if (node != Lexicon.NONE && lexicon.hasWords(node))
+					search(cell, node);
+			}
+		}
+
+		/**
+		 * Returns the words found since the search was started.
+		 * @return sorted set of words found.
+		 */
+		SortedSet<String> finish() {
+			SortedSet<String> words = results;
+			results = null;
+			board = null;
+			if (Metrics.ENABLED) {
+				Metrics.SOLVE_NODES.add(nodes);
+				nodes = 0;
+			}
+			return words;
+		}
+
+		/**
+		 * Extends the current path with the cell and searches every
+		 * path continuing from it. Instead of looking up the letter of
+		 * every neighbor in the lexicon, the children of the node are
+		 * walked once and only followed if a neighbor has their letter.
+		 * @param cell cell to extend the path with
+		 * @param node lexicon node of the path including the cell
+		 */
+		private void search(int cell, int node) {
+			if (Metrics.ENABLED)
+				nodes++;
+
+			// Appends the cell to the path
+			int length = wordLength;
+			int code = board.getCellCode(cell);
+			if (code == BoggleBoard.QU) {
+				word[wordLength++] = 'q';
+				word[wordLength++] = 'u';
+			}
+			else {
+				word[wordLength++] = (char) ('a' + code);
+			}
+			path.push(cell);
+
+			// Records the path if it spells a word not seen before
+			if (wordLength >= MIN_WORD_LENGTH && lexicon.isWord(node) &&
+					found.add(node)) {
+				results.add(new String(word, 0, wordLength));
+			}
+
+			// Continues the path through the children of the node
+			int codes = neighborCodes[cell];
+			for (int child = lexicon.firstChild(node); child != Lexicon.NONE;
+					child = lexicon.nextSibling(child)) {
+				int letter = lexicon.label(child) - 'a';
+				if (letter < 0 || letter >= 26 || !lexicon.hasWords(child))
+					continue;
+				if ((codes >>> letter & 1) != 0)
+					extend(cell, letter, child);
+
+				// A q child may continue through a Qu neighbor
+				if (letter == 'q' - 'a' && (codes >>> BoggleBoard.QU & 1) != 0) {
+					int u = lexicon.child(child, 'u');
+					if (u != Lexicon.NONE && lexicon.hasWords(u))
+						extend(cell, BoggleBoard.QU, u);
+				}
+			}
+
+			// Removes the cell from the path
+			wordLength = length;
+			path.pop();
+		}
+
+		/**
+		 * Searches from every unvisited neighbor of the cell holding
+		 * the letter code.
+		 * @param cell last cell of the path
+		 * @param code letter code of the neighbors to follow
+		 * @param node lexicon node of the path including the neighbor
+		 */
+		private void extend(int cell, int code, int node) {
+			for (int neighbor : board.neighbors(cell)) {
+				if (board.getCellCode(neighbor) == code && !path.contains(neighbor))
+					search(neighbor, node);
+			}
+		}
+	}
+
+	/**
+	 * Open addressing set of trie nodes, used to report each word
+	 * only once even if it can be traced along several paths.
+	 * @author rpathire
+	 *
+	 */
+	private static class NodeSet {
+		/** Marker of an empty slot */
+		private static final int EMPTY = -1;
+
+		/** Slots of the set, the length is a power of two */
+		private int[] table;
+
+		/** Number of nodes in the set */
+		private int count;
+
+		/**
+		 * Constructs an empty set.
+		 */
+		NodeSet() {
+			table = new int[64];
+			Arrays.fill(table, EMPTY);
+		}
+
+		/**
+		 * Adds the node to the set.
+		 * @param node node to add
+		 * @return whether the node was not already in the set.
+		 */
+		boolean add(int node) {
+			int mask = table.length - 1;
+			int hash = node * 0x9E3779B9;
+			int i = (hash ^ (hash >>> 16)) & mask;
+			while (table[i] != EMPTY) {
+				if (table[i] == node)
+					return false;
+				i = (i + 1) & mask;
+			}
+			table[i] = node;
+			// Keeps the table at most half full
+			if (++count * 2 > table.length)
+				rehash();
+			return true;
+		}
+
+		/**
+		 * Removes all nodes from the set.
+		 */
+		void clear() {
+			if (count > 0) {
+				Arrays.fill(table, EMPTY);
+				count = 0;
+			}
+		}
+
+		/**
+		 * Doubles the table and reinserts all nodes.
+		 */
+		private void rehash() {
+			int[] old = table;
+			table = new int[old.length * 2];
+			Arrays.fill(table, EMPTY);
+			count = 0;
+			for (int node : old) {
+				if (node != EMPTY)
+					add(node);
+			}
+		}
+	}
+}
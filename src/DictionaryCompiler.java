@@ -0,0 +1,44 @@
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * This class is a command line tool converting a plain text word
+ * file, with one word per line, into the binary format read by
+ * MappedDictionary. Words are normalized the same way WordList
+ * normalizes them.
+ * @author rpathire
+ *
+ */
+public class DictionaryCompiler {
+	/**
+	 * Converts the word file into a binary dictionary.
+	 *
+	 * @param words plain text word file, cannot be null
+	 * @param output binary dictionary file to write, cannot be null
+	 * @return number of words written
+	 *
+	 * @throws IOException if a file cannot be read or written
+	 */
+	public static int compile(File words, File output) throws IOException {
+		WordList list = new WordList(words);
+		MappedDictionary.write(list.trie(), output);
+		return list.size();
+	}
+
+	/**
+	 * Runs the conversion from the command line. Arguments are the
+	 * plain text word file and the binary dictionary file to write.
+	 * @param args command line arguments
+	 * @throws IOException if a file cannot be read or written.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("usage: DictionaryCompiler <word list> <output.dict>");
+			System.exit(1);
+		}
+		File output = new File(args[1]);
+		int words = compile(new File(args[0]), output);
+		System.out.printf("%d words written to %s (%d bytes)%n",
+				words, output, output.length());
+	}
+}
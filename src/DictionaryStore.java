@@ -0,0 +1,98 @@
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * This class stores several dictionaries over one shared trie, so
+ * words found in many dictionaries, such as a base dictionary and its
+ * house rule variants, are stored once. Each dictionary is a
+ * DictionaryView, which only keeps two bits per node of the shared
+ * trie: whether the node ends a word of the dictionary and whether
+ * some word of the dictionary starts with it. Views are combined with
+ * union, intersect and subtract, which work on the bits alone.
+ *
+ * The shared trie is never compacted, as the nodes number the bits of
+ * every view, and only ever grows. Adding dictionaries is not thread
+ * safe, even with lookups in other views. Once every dictionary has
+ * been added, the views can be read by any number of threads.
+ * @author rpathire
+ *
+ */
+public class DictionaryStore {
+	/** Words of every dictionary added */
+	private final WordTrie words;
+
+	/**
+	 * Constructs an empty store.
+	 */
+	public DictionaryStore() {
+		words = new WordTrie();
+	}
+
+	/**
+	 * Adds the words of the word list to the store.
+	 * @param list word list to add, cannot be null
+	 * @return view of the words of the list.
+	 */
+	public DictionaryView add(WordList list) {
+		WordTrie other = list.trie();
+		words.addAll(other);
+		DictionaryView view = new DictionaryView(this, words.nodeCount());
+		mark(view, other, Lexicon.ROOT, Lexicon.ROOT);
+		view.countWords();
+		return view;
+	}
+
+	/**
+	 * Adds the words of the file to the store.
+	 * @param file file containing a word in each line, cannot be null
+	 * @return view of the words of the file.
+	 * @throws IOException if the file cannot be read
+	 */
+	public DictionaryView load(File file) throws IOException {
+		return add(new WordList(file));
+	}
+
+	/**
+	 * Returns number of distinct words in the store.
+	 * @return number of words of all dictionaries.
+	 */
+	public int size() {
+		return words.size();
+	}
+
+	/**
+	 * Returns number of nodes of the shared trie, which is the number
+	 * of bits of each set of a view.
+	 * @return number of nodes.
+	 */
+	public int nodeCount() {
+		return words.nodeCount();
+	}
+
+	/**
+	 * Returns the shared trie.
+	 * @return trie of every word of the store.
+	 */
+	WordTrie trie() {
+		return words;
+	}
+
+	/**
+	 * Sets the bits of the words below a node of another trie, walking
+	 * the shared trie alongside it.
+	 * @param view view to set the bits of
+	 * @param other trie of the words
+	 * @param from node of the other trie
+	 * @param node node of the shared trie for the same prefix
+	 */
+	private void mark(DictionaryView view, WordTrie other, int from, int node) {
+		if (!other.hasWords(from))
+			return;
+		view.setPrefix(node);
+		if (other.isWord(from))
+			view.setWord(node);
+		for (int n = other.firstChild(from); n != Lexicon.NONE; n = other.nextSibling(n)) {
+			mark(view, other, n, words.child(node, other.label(n)));
+		}
+	}
+}
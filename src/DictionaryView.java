@@ -0,0 +1,288 @@
+/**
+ * This class is a dictionary stored in a DictionaryStore. The words
+ * are nodes of the trie shared by the store, and the view only keeps
+ * which nodes end one of its words and which nodes some of its words
+ * start with, as bits. A view is a Lexicon, so it can be searched by
+ * a BoggleSolver or walked with a PrefixCursor like any word list.
+ *
+ * Views never change. Combining views makes a new view, which costs
+ * two bits per node of the shared trie instead of a copy of the
+ * words. Words are looked up the way WordList looks them up,
+ * ignoring leading and trailing whitespace and comparing letters in
+ * lowercase.
+ * @author rpathire
+ *
+ */
+public class DictionaryView implements Lexicon {
+	/** Store the view belongs to */
+	private final DictionaryStore store;
+
+	/** Nodes of the shared trie ending a word, as bits */
+	private long[] words;
+
+	/** Nodes of the shared trie some word starts with, as bits */
+	private long[] prefixes;
+
+	/** Number of words */
+	private int size;
+
+	/**
+	 * Constructs an empty view over nodes of the store.
+	 * @param store store the view belongs to
+	 * @param nodeCount number of nodes the view can hold
+	 */
+	DictionaryView(DictionaryStore store, int nodeCount) {
+		this.store = store;
+		words = new long[(nodeCount + 63) >>> 6];
+		prefixes = new long[words.length];
+	}
+
+	/**
+	 * Returns number of words of the view.
+	 * @return number of words.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns true if the view contains the word, processed as by
+	 * WordList.containsWord(CharSequence).
+	 * @param word word to check
+	 * @return whether the word is in the view.
+	 */
+	public boolean containsWord(CharSequence word) {
+		int node = WordNormalizer.find(this, word);
+		return node != NONE && isWord(node);
+	}
+
+	/**
+	 * Returns true if some word of the view starts with the prefix,
+	 * processed as by WordList.containsWord(CharSequence).
+	 * @param prefix prefix to check
+	 * @return whether a word of the view starts with the prefix.
+	 */
+	public boolean hasPrefix(CharSequence prefix) {
+		int node = WordNormalizer.find(this, prefix);
+		return node != NONE && hasWords(node);
+	}
+
+	/**
+	 * Returns a new cursor positioned at the empty prefix.
+	 * @return new prefix cursor.
+	 */
+	public PrefixCursor cursor() {
+		return new PrefixCursor(this);
+	}
+
+	/**
+	 * Returns a view of the words of this view or the other.
+	 * @param other view of the same store, cannot be null
+	 * @return new view.
+	 * @throws IllegalArgumentException if the views belong to
+	 * different stores.
+	 */
+	public DictionaryView union(DictionaryView other)
+			throws IllegalArgumentException {
+		DictionaryView view = combine(other);
+		for (int i = 0; i < other.words.length; i++) {
+			view.words[i] |= other.words[i];
+		}
+		return view.finish();
+	}
+
+	/**
+	 * Returns a view of the words found in both this view and the other.
+	 * @param other view of the same store, cannot be null
+	 * @return new view.
+	 * @throws IllegalArgumentException if the views belong to
+	 * different stores.
+	 */
+	public DictionaryView intersect(DictionaryView other)
+			throws IllegalArgumentException {
+		DictionaryView view = combine(other);
+		for (int i = 0; i < view.words.length; i++) {
+			view.words[i] &= i < other.words.length ? other.words[i] : 0;
+		}
+		return view.finish();
+	}
+
+	/**
+	 * Returns a view of the words of this view not in the other, such
+	 * as a dictionary without its banned words.
+	 * @param other view of the same store, cannot be null
+	 * @return new view.
+	 * @throws IllegalArgumentException if the views belong to
+	 * different stores.
+	 */
+	public DictionaryView subtract(DictionaryView other)
+			throws IllegalArgumentException {
+		DictionaryView view = combine(other);
+		for (int i = 0; i < Math.min(view.words.length, other.words.length); i++) {
+			view.words[i] &= ~other.words[i];
+		}
+		return view.finish();
+	}
+
+	/**
+	 * Returns a word list holding a copy of the words of the view, for
+	 * the classes that need one.
+	 * @return new word list.
+	 */
+	public WordList toWordList() {
+		WordList list = new WordList();
+		copy(Lexicon.ROOT, new StringBuilder(), list);
+		return list;
+	}
+
+	/**
+	 * Returns the child of the node in the shared trie, which may
+	 * lead to no word of the view.
+	 * @param node node to step from
+	 * @param c label of the child
+	 * @return child node or NONE if there is no such child.
+	 */
+	public int child(int node, char c) {
+		return store.trie().child(node, c);
+	}
+
+	/**
+	 * Returns the first child of the node in the shared trie.
+	 * @param node parent node
+	 * @return first child or NONE if the node has no children.
+	 */
+	public int firstChild(int node) {
+		return store.trie().firstChild(node);
+	}
+
+	/**
+	 * Returns the next sibling of the node in the shared trie.
+	 * @param node node whose sibling to return
+	 * @return next sibling or NONE if the node is the last child.
+	 */
+	public int nextSibling(int node) {
+		return store.trie().nextSibling(node);
+	}
+
+	/**
+	 * Returns the character labelling the edge into the node.
+	 * @param node node whose label to return
+	 * @return label of the node.
+	 */
+	public char label(int node) {
+		return store.trie().label(node);
+	}
+
+	/**
+	 * Returns whether the node ends a word of the view.
+	 * @param node node to check
+	 * @return whether a word of the view ends at the node.
+	 */
+	public boolean isWord(int node) {
+		return test(words, node);
+	}
+
+	/**
+	 * Returns whether any word of the view passes through or ends at
+	 * the node.
+	 * @param node node to check
+	 * @return whether the node leads to at least one word of the view.
+	 */
+	public boolean hasWords(int node) {
+		return test(prefixes, node);
+	}
+
+	/**
+	 * Marks the node as ending a word.
+	 * @param node node of the shared trie
+	 */
+	void setWord(int node) {
+		words[node >>> 6] |= 1L << node;
+	}
+
+	/**
+	 * Marks the node as a prefix of a word.
+	 * @param node node of the shared trie
+	 */
+	void setPrefix(int node) {
+		prefixes[node >>> 6] |= 1L << node;
+	}
+
+	/**
+	 * Counts the words of the view.
+	 */
+	void countWords() {
+		size = 0;
+		for (long bits : words) {
+			size += Long.bitCount(bits);
+		}
+	}
+
+	/**
+	 * Returns a view holding the words of this view, sized for the
+	 * nodes of both views.
+	 * @param other view to combine with
+	 * @return new view with the words of this view and no prefixes.
+	 * @throws IllegalArgumentException if the views belong to
+	 * different stores.
+	 */
+	private DictionaryView combine(DictionaryView other)
+			throws IllegalArgumentException {
+		if (other.store != store)
+			throw new IllegalArgumentException();
+		DictionaryView view = new DictionaryView(store,
+				64 * Math.max(words.length, other.words.length));
+		System.arraycopy(words, 0, view.words, 0, words.length);
+		return view;
+	}
+
+	/**
+	 * Computes the prefixes and size of a view from its words.
+	 * Children of the shared trie are always created after their
+	 * parent, so walking the nodes backwards sees every child first.
+	 * @return this view.
+	 */
+	private DictionaryView finish() {
+		WordTrie trie = store.trie();
+		for (int node = Math.min(trie.nodeCount(), 64 * words.length) - 1; node >= 0; node--) {
+			boolean prefix = test(words, node);
+			for (int n = trie.firstChild(node); !prefix && n != NONE; n = trie.nextSibling(n)) {
+				prefix = test(prefixes, n);
+			}
+			if (prefix)
+				setPrefix(node);
+		}
+		countWords();
+		return this;
+	}
+
+	/**
+	 * Recursively adds the words below the node to the list.
+	 * @param node node of the shared trie
+	 * @param prefix characters from the root to the node
+	 * @param list list to add the words to
+	 */
+	private void copy(int node, StringBuilder prefix, WordList list) {
+		if (isWord(node))
+			list.addWord(prefix.toString());
+		for (int n = firstChild(node); n != NONE; n = nextSibling(n)) {
+			if (!hasWords(n))
+				continue;
+			prefix.append(label(n));
+			copy(n, prefix, list);
+			prefix.setLength(prefix.length() - 1);
+		}
+	}
+
+	/**
+	 * Returns whether the bit of the node is set. Nodes added to the
+	 * store after the view was made are not in the view.
+	 * @param bits bits of the nodes
+	 * @param node node of the shared trie
+	 * @return whether the bit is set.
+	 */
+	private static boolean test(long[] bits, int node) {
+		int index = node >>> 6;
+		return index < bits.length && (bits[index] >>> node & 1) != 0;
+	}
+}
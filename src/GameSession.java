@@ -0,0 +1,548 @@
+import java.util.Collections;
+import java.util.Locale;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * This class holds the state of a Boggle game independently of any
+ * user interface: the board, the path of selected cells, the words
+ * found so far and the score. Views forward cell selections to the
+ * session and are told through a listener which cells changed state,
+ * so the session can be played headless, by tests, servers or
+ * simulated players.
+ *
+ * A cell is available if it can extend the path, selected if it is
+ * part of the path, and unavailable otherwise. With no cell selected,
+ * every cell is available. Selecting a selected cell drops the cells
+ * selected after it. Each selection only revisits the neighbors of
+ * the previous and new ends of the path.
+ *
+ * If a dictionary is set, a prefix cursor follows the path so the
+ * status of the selected word is known after every selection, and
+ * submitted words are checked and scored. A session is not thread
+ * safe.
+ * @author rpathire
+ *
+ */
+public class GameSession {
+	/** Marker of no cell */
+	public static final int NO_CELL = -1;
+
+	/**
+	 * Possible states of a cell.
+	 * UNAVAILABLE - Cell cannot be selected
+	 * AVAILABLE - Cell is not selected and can be chosen
+	 * SELECTED - Cell is part of the selected path
+	 * @author rpathire
+	 *
+	 */
+	public enum CellState {
+		UNAVAILABLE,
+		AVAILABLE,
+		SELECTED
+	}
+
+	/**
+	 * Possible statuses of the selected word against the dictionary.
+	 * NONE - No dictionary is set or no cell is selected
+	 * PREFIX - Letters are not a word, but some word starts with them
+	 * WORD - Letters form a word long enough to count
+	 * DEAD_END - No word starts with the letters
+	 * @author rpathire
+	 *
+	 */
+	public enum WordStatus {
+		NONE,
+		PREFIX,
+		WORD,
+		DEAD_END
+	}
+
+	/**
+	 * Receives the changes of a session, typically to update a view.
+	 * @author rpathire
+	 *
+	 */
+	public interface Listener {
+		/**
+		 * Called when the state of a cell changes.
+		 * @param cell cell whose state changed
+		 * @param state new state of the cell
+		 */
+		void cellChanged(int cell, CellState state);
+
+		/**
+		 * Called when the selected word changes.
+		 * @param status status of the new selected word
+		 */
+		void wordChanged(WordStatus status);
+
+		/**
+		 * Called when a submitted word is accepted.
+		 * @param word the accepted word, in lowercase
+		 * @param points points scored by the word
+		 */
+		void wordFound(String word, int points);
+
+		/**
+		 * Called when a new board is set, once the states of its
+		 * cells have been reported.
+		 * @param board the new board
+		 */
+		void boardChanged(BoggleBoard board);
+	}
+
+	/** Board being played */
+	private BoggleBoard board;
+
+	/** State of each cell */
+	private CellState[] states;
+
+	/** Selected cells, in order of selection */
+	private PathState path;
+
+	/** Cells dropped from the path by the last selection */
+	private int[] dropped;
+
+	/** Letters of the selected cells, as shown on the board */
+	private final StringBuilder word;
+
+	/** Dictionary words are checked against, or null */
+	private WordList dictionary;
+
+	/** Validator of the words typed on the board, built when needed */
+	private WordPathValidator validator;
+
+	/** Cursor following the selected letters in the dictionary */
+	private PrefixCursor cursor;
+
+	/** Number of selected cells past the last step of the cursor */
+	private int deadSteps;
+
+	/** Status of the selected word */
+	private WordStatus wordStatus;
+
+	/** Words found in the current round */
+	private final SortedSet<String> found;
+
+	/** Score of the current round */
+	private int score;
+
+	/** Listener of the changes, or null */
+	private Listener listener;
+
+	/** Size every board must have, or 0 if any size can be played */
+	private int fixedSize;
+
+	/**
+	 * Constructs a session playing the board without a dictionary.
+	 * @param board board to play, cannot be null
+	 */
+	public GameSession(BoggleBoard board) {
+		this(board, null);
+	}
+
+	/**
+	 * Constructs a session playing the board and checking words
+	 * against the dictionary.
+	 * @param board board to play, cannot be null
+	 * @param dictionary dictionary to check words against, or null
+	 */
+	public GameSession(BoggleBoard board, WordList dictionary) {
+		word = new StringBuilder();
+		found = new TreeSet<String>();
+		wordStatus = WordStatus.NONE;
+		setBoard(board);
+		setDictionary(dictionary);
+	}
+
+	/**
+	 * Sets the listener told about the changes of the session.
+	 * @param listener listener to notify, or null
+	 */
+	public void setListener(Listener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Pins the size of the boards of the session, typically by a view
+	 * with a fixed number of cells. Later boards of another size are
+	 * rejected before anything changes.
+	 * @param size size every board must have, or 0 to allow any size
+	 * @throws IllegalArgumentException if size is negative, or is
+	 * neither 0 nor the size of the current board.
+	 */
+	public void setFixedSize(int size) throws IllegalArgumentException {
+		if (size < 0 || size != 0 && size != board.size())
+			throw new IllegalArgumentException();
+		fixedSize = size;
+	}
+
+	/**
+	 * Returns the size every board of the session must have.
+	 * @return fixed size of the boards, or 0 if any size can be played.
+	 */
+	public int getFixedSize() {
+		return fixedSize;
+	}
+
+	/**
+	 * Starts a new round on the board, with no cell selected, no word
+	 * found and no score. Nothing is allocated if the board has the
+	 * same size as the previous one.
+	 * @param b board to play, cannot be null
+	 * @throws IllegalArgumentException if the size of the session is
+	 * fixed and the board has another size.
+	 */
+	public void setBoard(BoggleBoard b) throws IllegalArgumentException {
+		if (fixedSize != 0 && b.size() != fixedSize)
+			throw new IllegalArgumentException();
+		int cells = b.cellCount();
+		if (states == null || states.length != cells) {
+			states = new CellState[cells];
+			path = new PathState(cells);
+			dropped = new int[cells];
+		}
+		else {
+			// Clears the selection of the previous round
+			path.clear();
+		}
+		board = b;
+		validator = null;
+		resetWord();
+		found.clear();
+		score = 0;
+		for (int cell = 0; cell < cells; cell++) {
+			updateState(cell);
+		}
+		updateWordStatus();
+		if (listener != null)
+			listener.boardChanged(b);
+	}
+
+	/**
+	 * Sets the dictionary the selected word is checked against as it
+	 * is built.
+	 * @param dictionary dictionary to check words against, or null to
+	 * stop checking words
+	 */
+	public void setDictionary(WordList dictionary) {
+		this.dictionary = dictionary;
+		cursor = dictionary == null ? null : dictionary.cursor();
+		deadSteps = 0;
+		// Steps the new cursor through the current path
+		for (int i = 0; i < path.length(); i++) {
+			step(board.getCellCode(path.cell(i)));
+		}
+		updateWordStatus();
+	}
+
+	/**
+	 * Returns the board being played.
+	 * @return board of the session.
+	 */
+	public BoggleBoard getBoard() {
+		return board;
+	}
+
+	/**
+	 * Returns the state of the cell.
+	 * @param cell cell index
+	 * @return state of the cell.
+	 */
+	public CellState getState(int cell) {
+		return states[cell];
+	}
+
+	/**
+	 * Returns number of selected cells.
+	 * @return length of the path.
+	 */
+	public int pathLength() {
+		return path.length();
+	}
+
+	/**
+	 * Returns the selected cell at the position of the path.
+	 * @param index position in the path, 0 being the first selection
+	 * @return cell at the position.
+	 * @throws IndexOutOfBoundsException if index is not in the path.
+	 */
+	public int pathCell(int index) throws IndexOutOfBoundsException {
+		if (index < 0 || index >= path.length())
+			throw new IndexOutOfBoundsException();
+		return path.cell(index);
+	}
+
+	/**
+	 * Returns the last selected cell.
+	 * @return last selected cell or NO_CELL if no cell is selected.
+	 */
+	public int lastCell() {
+		return path.length() == 0 ? NO_CELL : path.last();
+	}
+
+	/**
+	 * Returns the letters of the selected cells, as shown on the
+	 * board. If no cells are selected, empty string is returned.
+	 * @return concatenated letters of the selected cells.
+	 */
+	public String getWord() {
+		return word.toString();
+	}
+
+	/**
+	 * Returns the status of the selected word against the dictionary.
+	 * @return status of the selected word.
+	 */
+	public WordStatus getWordStatus() {
+		return wordStatus;
+	}
+
+	/**
+	 * Returns the words found in the current round.
+	 * @return unmodifiable sorted set of lowercase words.
+	 */
+	public SortedSet<String> getFoundWords() {
+		return Collections.unmodifiableSortedSet(found);
+	}
+
+	/**
+	 * Returns the score of the current round.
+	 * @return total points of the words found.
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * Handles a selection of the cell. An available cell is added to
+	 * the path, and selecting a selected cell drops all cells selected
+	 * after it. Unavailable cells are ignored.
+	 * @param cell selected cell
+	 * @return whether the path changed.
+	 * @throws IndexOutOfBoundsException if cell is not on the board.
+	 */
+	public boolean select(int cell) throws IndexOutOfBoundsException {
+		if (cell < 0 || cell >= states.length)
+			throw new IndexOutOfBoundsException();
+		int previous = lastCell();
+		if (states[cell] == CellState.AVAILABLE) {
+			path.push(cell);
+			word.append(BoggleBoard.codeText(board.getCellCode(cell)));
+			step(board.getCellCode(cell));
+		}
+		else if (states[cell] == CellState.SELECTED && cell != previous) {
+			// Drops the cells selected after the cell
+			int count = 0;
+			while (path.last() != cell) {
+				int c = path.pop();
+				dropped[count++] = c;
+				word.setLength(word.length()
+						- BoggleBoard.codeText(board.getCellCode(c)).length());
+			}
+			for (int i = 0; i < count; i++) {
+				updateState(dropped[i]);
+			}
+			unstep(count);
+		}
+		else {
+			return false;
+		}
+		displayUpdate(previous);
+		updateWordStatus();
+		return true;
+	}
+
+	/**
+	 * Handles a selection of the cell at the location.
+	 * @param x x coordinate of the cell
+	 * @param y y coordinate of the cell
+	 * @return whether the path changed.
+	 * @throws IndexOutOfBoundsException if the location is not on the
+	 * board.
+	 */
+	public boolean select(int x, int y) throws IndexOutOfBoundsException {
+		int size = board.size();
+		if (x < 0 || x >= size || y < 0 || y >= size)
+			throw new IndexOutOfBoundsException();
+		return select(x * size + y);
+	}
+
+	/**
+	 * Clears out all selected cells.
+	 */
+	public void clearSelection() {
+		int previous = lastCell();
+		path.clear();
+		resetWord();
+		displayUpdate(previous);
+		updateWordStatus();
+	}
+
+	/**
+	 * Submits the selected word. The word is accepted if it is in the
+	 * dictionary, long enough and not found before in this round, in
+	 * which case it is scored and the selection is cleared. Otherwise
+	 * the selection is kept.
+	 * @return whether the word was accepted.
+	 */
+	public boolean submitWord() {
+		if (wordStatus != WordStatus.WORD)
+			return false;
+		String w = word.toString().toLowerCase(Locale.ROOT);
+		if (!found.add(w))
+			return false;
+		int points = BoggleSolver.score(w);
+		score += points;
+		clearSelection();
+		if (listener != null)
+			listener.wordFound(w, points);
+		return true;
+	}
+
+	/**
+	 * Submits a typed word instead of the selected one. The word is
+	 * accepted if it is long enough, in the dictionary, can be traced
+	 * on the board and was not found before in this round, in which
+	 * case it is scored. The selection is left as it is.
+	 * @param typed typed word, surrounding whitespace is ignored
+	 * @return whether the word was accepted.
+	 */
+	public boolean submitTypedWord(CharSequence typed) {
+		if (dictionary == null)
+			return false;
+		if (validator == null)
+			validator = new WordPathValidator(board);
+		if (!validator.isValid(typed, dictionary))
+			return false;
+		String w = typed.toString().trim().toLowerCase(Locale.ROOT);
+		if (!found.add(w))
+			return false;
+		int points = BoggleSolver.score(w);
+		score += points;
+		if (listener != null)
+			listener.wordFound(w, points);
+		return true;
+	}
+
+	/**
+	 * Updates the cells whose state may have changed since the last
+	 * selected cell was the previous cell. Only the neighbors of the
+	 * previous and current last cells can change, unless the path
+	 * starts or ends, in which case every cell changes.
+	 * @param previous previously last selected cell, or NO_CELL if no
+	 * cell was selected
+	 */
+	private void displayUpdate(int previous) {
+		int last = lastCell();
+		if (previous == NO_CELL || last == NO_CELL) {
+			for (int cell = 0; cell < states.length; cell++) {
+				updateState(cell);
+			}
+			return;
+		}
+
+		// Neighbors of the previous last cell lose their availability,
+		// neighbors of the new one gain it
+		updateState(previous);
+		for (int neighbor : board.neighbors(previous)) {
+			updateState(neighbor);
+		}
+		updateState(last);
+		for (int neighbor : board.neighbors(last)) {
+			updateState(neighbor);
+		}
+	}
+
+	/**
+	 * Sets the state of the cell from the path and notifies the
+	 * listener if it changed.
+	 * @param cell cell to update
+	 */
+	private void updateState(int cell) {
+		int last = lastCell();
+		CellState state;
+		if (last == NO_CELL)
+			state = CellState.AVAILABLE;
+		else if (path.contains(cell))
+			state = CellState.SELECTED;
+		else if (areNeighbors(cell, last))
+			state = CellState.AVAILABLE;
+		else
+			state = CellState.UNAVAILABLE;
+		if (states[cell] != state) {
+			states[cell] = state;
+			if (listener != null)
+				listener.cellChanged(cell, state);
+		}
+	}
+
+	/**
+	 * Returns whether the cells are neighbors.
+	 * @param c1 first cell to check if it is a neighbor.
+	 * @param c2 second cell to check if it is a neighbor.
+	 * @return whether the cells are neighbors.
+	 */
+	private boolean areNeighbors(int c1, int c2) {
+		int size = board.size();
+		int dx = c1 / size - c2 / size;
+		int dy = c1 % size - c2 % size;
+
+		// Returns whether the cells are neighbors
+		return c1 != c2 && -1 <= dx && dx <= 1 && -1 <= dy && dy <= 1;
+	}
+
+	/**
+	 * Steps the cursor through the letters of a newly selected cell.
+	 * Once no word continues, further cells are only counted.
+	 * @param code letter code of the selected cell
+	 */
+	private void step(int code) {
+		if (cursor == null)
+			return;
+		if (deadSteps > 0 || !cursor.advance(BoggleBoard.codeText(code)))
+			deadSteps++;
+	}
+
+	/**
+	 * Undoes the steps of cells dropped from the path.
+	 * @param steps number of dropped cells
+	 */
+	private void unstep(int steps) {
+		if (cursor == null)
+			return;
+		int dead = Math.min(deadSteps, steps);
+		deadSteps -= dead;
+		for (int i = dead; i < steps; i++) {
+			cursor.retreat();
+		}
+	}
+
+	/**
+	 * Clears the selected word and moves the cursor back to the root.
+	 */
+	private void resetWord() {
+		word.setLength(0);
+		deadSteps = 0;
+		if (cursor != null)
+			cursor.reset();
+	}
+
+	/**
+	 * Computes the status of the selected word and notifies the
+	 * listener that the word changed.
+	 */
+	private void updateWordStatus() {
+		if (cursor == null || path.length() == 0)
+			wordStatus = WordStatus.NONE;
+		else if (deadSteps > 0)
+			wordStatus = WordStatus.DEAD_END;
+		else if (cursor.isWord() && word.length() >= BoggleSolver.MIN_WORD_LENGTH)
+			wordStatus = WordStatus.WORD;
+		else
+			wordStatus = WordStatus.PREFIX;
+		if (listener != null)
+			listener.wordChanged(wordStatus);
+	}
+}
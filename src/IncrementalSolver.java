@@ -0,0 +1,250 @@
+import java.util.Collections;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * This class keeps the words of a board up to date as its cells are
+ * changed one at a time, such as in a puzzle editor. The board is
+ * solved once when it is set, and every change after that only
+ * searches the paths passing through the changed cell: the paths
+ * spelled with the old letter are counted out and the ones spelled
+ * with the new letter counted in. A word is lost when its last path
+ * is counted out and gained when its first path is counted in, so
+ * the change is reported without comparing whole solutions.
+ *
+ * Searching the paths through a cell needs every prefix of the
+ * lexicon indexed backwards, which takes about four times the memory
+ * of the lexicon and a few seconds for the largest word lists. That
+ * only pays off on boards of PathCounter.MIN_CHANGE_CELLS cells, 8x8,
+ * and larger, where a change costs a fifth of a full solve or less.
+ * On smaller boards a change solves the board again and compares the
+ * words, which takes well under a millisecond even with a 270k word
+ * list, and the index is never built.
+ *
+ * Words follow the rules of BoggleSolver. The word list must not
+ * change while the solver is in use. A solver belongs to a single
+ * thread at a time.
+ * @author rpathire
+ *
+ */
+public class IncrementalSolver {
+	/** Paths of the board spelling each word */
+	private final Counter counter;
+
+	/** Words of the board */
+	private final SortedSet<String> words;
+
+	/** Change being made by setCell, or null while the board is set */
+	private Change change;
+
+	/**
+	 * Constructs a solver of the board finding words from the word list.
+	 * @param dictionary word list to find words from, cannot be null
+	 * @param board board to solve, cannot be null
+	 */
+	public IncrementalSolver(WordList dictionary, BoggleBoard board) {
+		this(dictionary.trie(), board);
+	}
+
+	/**
+	 * Constructs a solver of the board finding words from the lexicon.
+	 * Words of the lexicon must be in lowercase.
+	 * @param lexicon lexicon to find words from, cannot be null
+	 * @param board board to solve, cannot be null
+	 */
+	public IncrementalSolver(Lexicon lexicon, BoggleBoard board) {
+		counter = new Counter(lexicon);
+		words = new TreeSet<String>();
+		setBoard(board);
+	}
+
+	/**
+	 * Replaces every cell with the letters of the board and solves it.
+	 * The board is copied, later changes are made to the copy.
+	 * @param board board to solve, cannot be null
+	 */
+	public void setBoard(BoggleBoard board) {
+		byte[] codes = new byte[board.cellCount()];
+		for (int cell = 0; cell < codes.length; cell++) {
+			codes[cell] = (byte) board.getCellCode(cell);
+		}
+		words.clear();
+		change = null;
+		counter.reset(board.size(), codes);
+	}
+
+	/**
+	 * Changes the letter of the cell at position (x, y).
+	 * @param x row of the cell position
+	 * @param y column of the cell position
+	 * @param letter new letter of the cell, as shown on the board
+	 * @return words lost and gained by the board.
+	 * @throws IllegalArgumentException if the position is outside the
+	 * board or the letter is not the text of a cell
+	 */
+	public Change setCell(int x, int y, String letter)
+			throws IllegalArgumentException {
+		int size = counter.size();
+		if (x < 0 || x >= size || y < 0 || y >= size)
+			throw new IllegalArgumentException();
+		return setCell(x * size + y, BoggleBoard.codeOf(letter));
+	}
+
+	/**
+	 * Changes the letter code of the cell at the index.
+	 * @param index index of the cell, x * size + y
+	 * @param code new letter code of the cell, QU for Qu
+	 * @return words lost and gained by the board.
+	 * @throws IllegalArgumentException if the index or code is out of
+	 * range
+	 */
+	public Change setCell(int index, int code) throws IllegalArgumentException {
+		if (index < 0 || index >= counter.cellCount() ||
+				code < 0 || code >= BoggleBoard.CODE_COUNT)
+			throw new IllegalArgumentException();
+		if (counter.cellCount() < PathCounter.MIN_CHANGE_CELLS)
+			return solveAgain(index, code);
+		change = new Change();
+		counter.setCell(index, code);
+		words.removeAll(change.lost);
+		words.addAll(change.gained);
+		Change done = change;
+		change = null;
+		return done;
+	}
+
+	/**
+	 * Changes the letter code of the cell by solving the board again,
+	 * comparing the words before and after.
+	 * @param index index of the cell, x * size + y
+	 * @param code new letter code of the cell
+	 * @return words lost and gained by the board.
+	 */
+	private Change solveAgain(int index, int code) {
+		Change done = new Change();
+		if (counter.getCellCode(index) == code)
+			return done;
+		byte[] codes = new byte[counter.cellCount()];
+		for (int cell = 0; cell < codes.length; cell++) {
+			codes[cell] = (byte) counter.getCellCode(cell);
+		}
+		codes[index] = (byte) code;
+
+		// Collects the new words while keeping the old ones aside
+		done.lost.addAll(words);
+		words.clear();
+		counter.reset(counter.size(), codes);
+		for (String word : words) {
+			if (!done.lost.remove(word))
+				done.gained.add(word);
+		}
+		return done;
+	}
+
+	/**
+	 * Returns letter code of the cell at the index.
+	 * @param index index of the cell, x * size + y
+	 * @return code of the letter in the cell, QU for Qu.
+	 */
+	public int getCellCode(int index) {
+		return counter.getCellCode(index);
+	}
+
+	/**
+	 * Returns the words of the board.
+	 * @return unmodifiable sorted set of the lowercase words, changing
+	 * with the board.
+	 */
+	public SortedSet<String> getWords() {
+		return Collections.unmodifiableSortedSet(words);
+	}
+
+	/**
+	 * Returns total score of the words of the board.
+	 * @return score of the board.
+	 */
+	public int score() {
+		return counter.score();
+	}
+
+	/**
+	 * Returns a board holding the current letters.
+	 * @return new board.
+	 */
+	public BoggleBoard getBoard() {
+		return counter.toBoard();
+	}
+
+	/**
+	 * Words lost and gained by a change of a cell.
+	 * @author rpathire
+	 *
+	 */
+	public static class Change {
+		/** Words no longer on the board */
+		private final SortedSet<String> lost = new TreeSet<String>();
+
+		/** Words newly on the board */
+		private final SortedSet<String> gained = new TreeSet<String>();
+
+		/**
+		 * Returns the words the change took off the board.
+		 * @return unmodifiable sorted set of the lost words.
+		 */
+		public SortedSet<String> getLost() {
+			return Collections.unmodifiableSortedSet(lost);
+		}
+
+		/**
+		 * Returns the words the change put on the board.
+		 * @return unmodifiable sorted set of the gained words.
+		 */
+		public SortedSet<String> getGained() {
+			return Collections.unmodifiableSortedSet(gained);
+		}
+
+		/**
+		 * Returns whether the words of the board stayed the same.
+		 * @return whether no word was lost or gained.
+		 */
+		public boolean isEmpty() {
+			return lost.isEmpty() && gained.isEmpty();
+		}
+	}
+
+	/**
+	 * Path counter recording the words changing their paths.
+	 * @author rpathire
+	 *
+	 */
+	private class Counter extends PathCounter {
+		/**
+		 * Constructs a counter of the words of the lexicon.
+		 * @param lexicon lexicon of lowercase words
+		 */
+		Counter(Lexicon lexicon) {
+			super(lexicon);
+		}
+
+		/**
+		 * Records the word in the change being made, or in the words
+		 * of the board while it is set.
+		 * @param node lexicon node of the word
+		 * @param length number of letters of the word
+		 * @param gained whether the word gained its first path
+		 */
+		@Override
+		void wordChanged(int node, int length, boolean gained) {
+			String word = pathWord();
+			if (change == null)
+				words.add(word);
+			else if (!gained)
+				change.lost.add(word);
+
+			// A word counted out may be counted back in through the
+			// new letter, leaving it on the board
+			else if (!change.lost.remove(word))
+				change.gained.add(word);
+		}
+	}
+}
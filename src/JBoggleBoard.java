@@ -3,7 +3,13 @@ import java.awt.event.ActionListener;
 import java.awt.event.ActionEvent;
 import java.util.ArrayList;
 import javax.swing.JFrame;
+import javax.swing.JLabel;
+import java.awt.BorderLayout;
 import java.awt.GridLayout;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.File;
+import java.io.IOException;
 
 /**
  * The class creates the Boggle UI with a grid of NxN 
@@ -16,54 +22,117 @@ public class JBoggleBoard extends JPanel {
 	/** Dimension of board */
 	private int size;
 	
-	/** Boggle game board instance */
-	private BoggleBoard board;
+	/** Game played on the board, which owns the selection */
+	private GameSession session;
 	
-	/** List of selected Boggle buttons */
-	private ArrayList<JBoggleButton> selectedButtons;
-	
-	/** List of all Boggle buttons */
+	/** List of all Boggle buttons, indexed by board cell */
 	private ArrayList<JBoggleButton> buttons;
 	
+	/** Cell of the button showing the word status, or NO_CELL if none */
+	private int tipCell;
+	
+	/** Status of the selected word last shown */
+	private GameSession.WordStatus wordStatus;
+	
 	/**
-	 * Creates a Boggle board display with the given dimension.
+	 * Creates a Boggle board display with the given dimension,
+	 * showing a random board until another one is set.
 	 * @param size size of the boggle board.
 	 */
 	public JBoggleBoard(int size) {
+		this(new BoggleBoard(size));
+	}
+	
+	/**
+	 * Creates a Boggle board display showing the board, whose size
+	 * every later board must have.
+	 * @param board Boggle board to display.
+	 */
+	public JBoggleBoard(BoggleBoard board) {
 		// Makes the panel a grid layout of size x size
-		super(new GridLayout(size, size));
+		super(new GridLayout(board.size(), board.size()));
 		
-		// Initializes size and board
-		this.size = size;
-		board = new BoggleBoard(size);
+		// Initializes size and the game played on the board
+		this.size = board.size();
+		session = new GameSession(board);
+		session.setFixedSize(size);
+		tipCell = GameSession.NO_CELL;
+		wordStatus = GameSession.WordStatus.NONE;
 		
-		// Creates empty selected button list
-		selectedButtons = new ArrayList<JBoggleButton>();
-		// Creates list to contains all buttons
+		// Creates a button for every cell, labelled with its letter
 		buttons = new ArrayList<JBoggleButton>();
+		createButtons();
+		showBoard(board);
+		session.setListener(new SessionHandler());
+	}
+	
+	/**
+	 * Returns the game played on the board. Selections made and
+	 * boards set on the session are shown by the board, whose size
+	 * the session is fixed to.
+	 * @return game session of the board.
+	 */
+	public GameSession getSession() {
+		return session;
+	}
+	
+	/**
+	 * Sets the dictionary the selected word is checked against as it
+	 * is built. The status of the word is reported by getWordStatus()
+	 * and shown on the last selected button.
+	 * @param dictionary dictionary to check words against, or null to
+	 * stop checking words
+	 */
+	public void setDictionary(WordList dictionary) {
+		session.setDictionary(dictionary);
 	}
 	
+	/**
+	 * Returns the status of the selected word against the dictionary.
+	 * @return status of the selected word.
+	 */
+	public GameSession.WordStatus getWordStatus() {
+		return session.getWordStatus();
+	}
 	
 	/**
-	 * Displays the new Boggle board.
+	 * Displays the new Boggle board and starts a new round with no
+	 * button selected. The buttons are relabelled and reset in place.
 	 * @param b Boggle board to display.
 	 * @throws IllegalArgumentException if sizes of boards don't match.
 	 */
 	public void setBoard(BoggleBoard b) throws IllegalArgumentException {
-		// Throws exception if sizes don't match
-		if (b.size() != size) 
-			throw new IllegalArgumentException();
-		
-		// Updates all the buttons state
-		for (int i = 0; i < b.size(); i++) {
-			for (int j = 0; j < b.size(); j++) {
+		// The session throws the exception if sizes don't match
+		session.setBoard(b);
+	}
+	
+	/**
+	 * Relabels and resets all the buttons in a single pass.
+	 * @param b Boggle board shown by the buttons.
+	 */
+	private void showBoard(BoggleBoard b) {
+		for (int cell = 0; cell < buttons.size(); cell++) {
+			JBoggleButton button = buttons.get(cell);
+			String text = BoggleBoard.codeText(b.getCellCode(cell));
+			if (!text.equals(button.getText()))
+				button.setText(text);
+			button.setState(toButtonState(session.getState(cell)));
+		}
+	}
+	
+	/**
+	 * Creates a button for every cell of the board, all sharing the
+	 * same handler.
+	 */
+	private void createButtons() {
+		BoggleButtonHandler handler = new BoggleButtonHandler();
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
 				// Creates button and customizes it accordingly
 				JBoggleButton button = new JBoggleButton(i, j);
-				button.setText(b.getCell(i, j));
-				button.setState(JBoggleButton.State.AVAILABLE);
 				
 				// Provides action handling and displays button
-				button.addActionListener(new BoggleButtonHandler());
+				button.addActionListener(handler);
 				add(button);
 				
 				// Stores buttons in list
@@ -73,138 +142,127 @@ public class JBoggleBoard extends JPanel {
 	}
 	
 	/**
-	 * Inner class handles Boggle button presses by changing their
-	 * state.
+	 * Inner class handles Boggle button presses by selecting their
+	 * cell in the game.
 	 * @author rpathire
 	 *
 	 */
 	private class BoggleButtonHandler implements ActionListener {
 		
-		// Changes the state of the button when pressed
+		// Selects the cell of the button when pressed
 		public void actionPerformed(ActionEvent e) {
 			Object obj = e.getSource();
 			// Makes sure a boggle button was pressed
 			if (obj instanceof JBoggleButton) {
 				JBoggleButton button = (JBoggleButton) obj;
-				
-				// If button is available, we make it selected 
-				// and update display
-				if (button.getState() == JBoggleButton.State.AVAILABLE) {
-					button.setState(JBoggleButton.State.SELECTED);
-					selectedButtons.add(button);
-					displayUpdate();
-				}
-				// If button is selected, we remove all the selected buttons
-				// past the current one.
-				else if (button.getState() == JBoggleButton.State.SELECTED) {
-					int index = selectedButtons.indexOf(button);
-					// Find list of buttons to remove and removes them
-					selectedButtons.subList(
-							index + 1, selectedButtons.size()).clear();;
-					
-					// Updates display
-					displayUpdate();
-				}
+				session.select(button.getBoardX(), button.getBoardY());
 			}
 		}
 	}
 	
 	/**
-	 * Updates all the buttons states. If no buttons are selected,
-	 * we set all of them available. Else, make buttons only adjacent
-	 * to the last selected button available.
+	 * Inner class shows the changes of the game on the buttons.
+	 * @author rpathire
+	 *
 	 */
-	private void displayUpdate() {
-		// If no buttons are selected, we make all of the available
-		if (selectedButtons.isEmpty()) {
-			for (JBoggleButton b : buttons) {
-				b.setState(JBoggleButton.State.AVAILABLE);
-			}
+	private class SessionHandler implements GameSession.Listener {
+		
+		// Changes the state of the button of the cell
+		public void cellChanged(int cell, GameSession.CellState state) {
+			buttons.get(cell).setState(toButtonState(state));
 		}
-		else {
-			// First make all the buttons unavailable
-			for (JBoggleButton b : buttons) {
-				b.setState(JBoggleButton.State.UNAVAILABLE);
-			}
-			
-			// Changes state of selected buttons
-			for (JBoggleButton b : selectedButtons) {
-				b.setState(JBoggleButton.State.SELECTED);
-			}
+		
+		// Moves the word status to the last selected button
+		public void wordChanged(GameSession.WordStatus status) {
+			if (tipCell != GameSession.NO_CELL)
+				buttons.get(tipCell).setWordStatus(GameSession.WordStatus.NONE);
+			tipCell = session.lastCell();
+			if (tipCell != GameSession.NO_CELL)
+				buttons.get(tipCell).setWordStatus(status);
 			
-			// Sets neighbors of last button to be available
-			JBoggleButton lastButton = 
-					selectedButtons.get(selectedButtons.size() - 1);
-			for (JBoggleButton b : buttons) {
-				// The neighbor must be unavailable and neighbor the last
-				// button
-				if (b.getState() == JBoggleButton.State.UNAVAILABLE &&
-						areNeighbors(lastButton, b)) {
-					b.setState(JBoggleButton.State.AVAILABLE);
-				}
-			}
+			GameSession.WordStatus old = wordStatus;
+			wordStatus = status;
+			firePropertyChange("wordStatus", old, status);
+		}
+		
+		// Tells listeners of the panel about the new score
+		public void wordFound(String word, int points) {
+			firePropertyChange("score", session.getScore() - points,
+					session.getScore());
+		}
+		
+		// Relabels the buttons with the letters of the new board
+		public void boardChanged(BoggleBoard board) {
+			showBoard(board);
 		}
 	}
 	
 	/**
-	 * Returns whether the buttons are neighbors.
-	 * @param b1 first button to check if it is a neighbor.
-	 * @param b2 second button to check if it is a neighbor.
-	 * @return whether the buttons are neighbors.
+	 * Returns the button state showing the state of a cell.
+	 * @param state state of the cell
+	 * @return state of the button.
 	 */
-	private boolean areNeighbors(JBoggleButton b1, JBoggleButton b2) {
-		int x = b1.getBoardX();
-		int y = b1.getBoardY();
-		int neighborX = b2.getBoardX();
-		int neighborY = b2.getBoardY();
-		
-		// Returns whether the buttons are neighbors
-		return (x - 1 <= neighborX && neighborX <= x + 1 &&
-				y - 1 <= neighborY && neighborY <= y + 1);
+	private static JBoggleButton.State toButtonState(GameSession.CellState state) {
+		switch (state) {
+			case SELECTED:
+				return JBoggleButton.State.SELECTED;
+			case UNAVAILABLE:
+				return JBoggleButton.State.UNAVAILABLE;
+			default:
+				return JBoggleButton.State.AVAILABLE;
+		}
 	}
 	
 	/**
 	 * Clears out all selected buttons and updates display.
 	 */
 	public void clearSelections() {
-		selectedButtons.clear();
-		displayUpdate();
+		session.clearSelection();
 	}
 	
 	/**
-	 * Iterates through all the selected buttons and returns a
-	 * concatenated word from all the letters. If no letters are 
-	 * selected, empty string is returned.
+	 * Returns the word made of the letters of the selected buttons.
+	 * If no letters are selected, empty string is returned.
 	 * 
 	 * @return concatenated word from letters selected or empty string if
 	 * no words are selected.
 	 */
 	public String getWord() {
-		String word = "";
-		for (JBoggleButton but : selectedButtons) {
-			word += but.getText();
-		}
-		return word;
+		return session.getWord();
 	}
 	
 	/**
-	 * Simple main method to test our GUI.
-	 * @param args
+	 * Simple main method to test our GUI. The only optional argument
+	 * is a word list file to check the selected words against.
+	 * @param args command line arguments
+	 * @throws IOException if the word list cannot be loaded.
 	 */
-	public static void main(String[] args) {
-        javax.swing.SwingUtilities.invokeLater(new Runnable() {
-            public void run() {
-              JFrame f = new JFrame("BoggleTest");
-              f.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+	public static void main(String[] args) throws IOException {
+		final WordList dictionary = args.length > 0 ?
+				new WordList(new File(args[0])) : null;
+		javax.swing.SwingUtilities.invokeLater(new Runnable() {
+			public void run() {
+				JFrame f = new JFrame("BoggleTest");
+				f.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
-              JBoggleBoard boardGUI = new JBoggleBoard(BoggleBoard.DEFAULT_SIZE);
-              f.add(boardGUI);
+				final JBoggleBoard boardGUI = new JBoggleBoard(new BoggleBoard());
+				boardGUI.setDictionary(dictionary);
+				f.add(boardGUI);
 
-              f.pack();
-              f.setVisible(true);
-              f.setSize(300, 300);
+				// Shows the selected word and its status below the board
+				final JLabel status = new JLabel(" ");
+				boardGUI.addPropertyChangeListener("wordStatus",
+						new PropertyChangeListener() {
+					public void propertyChange(PropertyChangeEvent e) {
+						status.setText(boardGUI.getWord() + " " + e.getNewValue());
+					}
+				});
+				f.add(status, BorderLayout.SOUTH);
 
-              boardGUI.setBoard(new BoggleBoard());
-            }
-        });
-    }}
+				f.pack();
+				f.setVisible(true);
+				f.setSize(300, 330);
+			}
+		});
+	}
+}
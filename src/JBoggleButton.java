@@ -34,6 +34,13 @@ public class JBoggleButton extends JButton {
 			BorderFactory.createLineBorder(Color.green, LINE_BORDER_SIZE);
 	private static final Border SELECTED_BORDER = 
 			BorderFactory.createLineBorder(Color.red, LINE_BORDER_SIZE);
+	private static final Border WORD_BORDER = 
+			BorderFactory.createLineBorder(Color.blue, LINE_BORDER_SIZE);
+	private static final Border DEAD_END_BORDER = 
+			BorderFactory.createLineBorder(Color.orange, LINE_BORDER_SIZE);
+	
+	/** Status of the selected word, shown if this button ends it */
+	private GameSession.WordStatus wordStatus = GameSession.WordStatus.NONE;
 	
 	/**
 	 * Possible states of Boggle button.
@@ -103,9 +110,13 @@ public class JBoggleButton extends JButton {
 	 * UNAVAILABLE state disables button and creates a gray border
 	 * AVAILABLE state enables button and creates a green border
 	 * SELECTED state enables button and creates a red border
+	 * Does nothing if the button is already in the state, so no
+	 * repaint is triggered.
 	 * @param state the new state for the button.
 	 */
 	public void setState(State state) {
+		if (state == buttonState)
+			return;
 		buttonState = state;
 		switch (state) {
 			// Disables button
@@ -118,14 +129,45 @@ public class JBoggleButton extends JButton {
 				setEnabled(true);
 				setBorder(AVAILABLE_BORDER);
 				break;
-			// Enables button with red border
+			// Enables button with red border, or the border of the
+			// word status if the button ends the selected word
 			case SELECTED:
 				setEnabled(true);
-				setBorder(SELECTED_BORDER);
+				setBorder(selectedBorder());
 				break;
 			// Should never come here
 			default:
 				break;
 		}
 	}
+	
+	/**
+	 * Sets the status of the selected word shown by the button. Only
+	 * the last selected button shows the status, which is NONE for
+	 * every other button. A selected button ending a word gets a blue
+	 * border, and one no word continues from gets an orange border.
+	 * @param status status of the word ending with this button
+	 */
+	public void setWordStatus(GameSession.WordStatus status) {
+		if (status == wordStatus)
+			return;
+		wordStatus = status;
+		if (buttonState == State.SELECTED)
+			setBorder(selectedBorder());
+	}
+	
+	/**
+	 * Returns the border of the button when selected.
+	 * @return border for the word status of the button.
+	 */
+	private Border selectedBorder() {
+		switch (wordStatus) {
+			case WORD:
+				return WORD_BORDER;
+			case DEAD_END:
+				return DEAD_END_BORDER;
+			default:
+				return SELECTED_BORDER;
+		}
+	}
 }
@@ -0,0 +1,320 @@
+import javax.swing.JComponent;
+import javax.swing.JFrame;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+/**
+ * This class displays a Boggle board as a single component that
+ * paints the whole grid itself, as a lighter alternative to
+ * JBoggleBoard for large boards. Cells behave like the buttons of
+ * JBoggleBoard: they are available, selected or unavailable, and
+ * clicking a cell selects it or drops the selected cells after it.
+ * The selection is owned by a GameSession the grid is a view of.
+ *
+ * No component is created per cell. Clicks are mapped to cells from
+ * their position and only cells whose state changed are repainted.
+ * @author rpathire
+ *
+ */
+public class JBoggleGrid extends JComponent {
+	/** Preferred width and height of a cell, in pixels */
+	private static final int PREFERRED_CELL_SIZE = 60;
+
+	/** Width of the border of a cell, in pixels */
+	private static final int LINE_BORDER_SIZE = 3;
+
+	/** Font of the letters, resized to the cells when painting */
+	private static final Font LETTER_FONT = new Font(Font.SANS_SERIF, Font.BOLD, 40);
+
+	/** Border colors of the cell states, indexed by state */
+	private static final Color[] BORDER_COLORS = {Color.gray, Color.green, Color.red};
+
+	/** Border color of a last selected cell ending a word */
+	private static final Color WORD_COLOR = Color.blue;
+
+	/** Border color of a last selected cell no word continues from */
+	private static final Color DEAD_END_COLOR = Color.orange;
+
+	/** Dimension of board */
+	private final int size;
+
+	/** Game played on the grid, which owns the selection */
+	private final GameSession session;
+
+	/** Cell showing the word status, or NO_CELL if none */
+	private int tipCell;
+
+	/** Font used for the current cell size */
+	private Font font;
+
+	/** Cell size the font was sized for */
+	private int fontCellSize;
+
+	/**
+	 * Creates a Boggle board display with the given dimension.
+	 * @param size size of the boggle board.
+	 * @throws IllegalArgumentException if size is not positive.
+	 */
+	public JBoggleGrid(int size) throws IllegalArgumentException {
+		if (size <= 0)
+			throw new IllegalArgumentException();
+		this.size = size;
+		tipCell = GameSession.NO_CELL;
+		session = new GameSession(new BoggleBoard(size));
+		session.setFixedSize(size);
+		session.setListener(new SessionHandler());
+		setOpaque(true);
+		setBackground(Color.white);
+		setPreferredSize(new Dimension(size * PREFERRED_CELL_SIZE,
+				size * PREFERRED_CELL_SIZE));
+
+		// Selects the cell under the mouse when pressed
+		addMouseListener(new MouseAdapter() {
+			public void mousePressed(MouseEvent e) {
+				int cell = cellAt(e.getX(), e.getY());
+				if (cell != GameSession.NO_CELL)
+					click(cell);
+			}
+		});
+	}
+
+	/**
+	 * Returns the game played on the grid. Selections made and boards
+	 * set on the session are shown by the grid, whose size the session
+	 * is fixed to.
+	 * @return game session of the grid.
+	 */
+	public GameSession getSession() {
+		return session;
+	}
+
+	/**
+	 * Displays the new Boggle board, with no cell selected.
+	 * @param b Boggle board to display.
+	 * @throws IllegalArgumentException if sizes of boards don't match.
+	 */
+	public void setBoard(BoggleBoard b) throws IllegalArgumentException {
+		// The session throws the exception if sizes don't match
+		session.setBoard(b);
+	}
+
+	/**
+	 * Sets the dictionary the selected word is checked against as it
+	 * is built.
+	 * @param dictionary dictionary to check words against, or null to
+	 * stop checking words
+	 */
+	public void setDictionary(WordList dictionary) {
+		session.setDictionary(dictionary);
+	}
+
+	/**
+	 * Returns the state of the cell at the location.
+	 * @param x x coordinate of the cell
+	 * @param y y coordinate of the cell
+	 * @return state of the cell.
+	 */
+	public GameSession.CellState getState(int x, int y) {
+		return session.getState(x * size + y);
+	}
+
+	/**
+	 * Returns the cell under the point of the component, or NO_CELL
+	 * if the point is outside the grid.
+	 * @param px x position of the point, in pixels
+	 * @param py y position of the point, in pixels
+	 * @return cell under the point.
+	 */
+	int cellAt(int px, int py) {
+		int cellSize = cellSize();
+		if (cellSize == 0 || px < 0 || py < 0)
+			return GameSession.NO_CELL;
+		// Rows go down the component, columns across it
+		int x = py / cellSize;
+		int y = px / cellSize;
+		if (x >= size || y >= size)
+			return GameSession.NO_CELL;
+		return x * size + y;
+	}
+
+	/**
+	 * Handles a click on the cell. An available cell is selected, and
+	 * clicking a selected cell drops all cells selected after it.
+	 * @param cell clicked cell
+	 */
+	void click(int cell) {
+		session.select(cell);
+	}
+
+	/**
+	 * Clears out all selected cells and updates display.
+	 */
+	public void clearSelections() {
+		session.clearSelection();
+	}
+
+	/**
+	 * Returns the word made of the letters of the selected cells, or
+	 * an empty string if no cells are selected.
+	 * @return concatenated word from letters selected or empty string if
+	 * no cells are selected.
+	 */
+	public String getWord() {
+		return session.getWord();
+	}
+
+	/**
+	 * Inner class repaints the cells changed by the game.
+	 * @author rpathire
+	 *
+	 */
+	private class SessionHandler implements GameSession.Listener {
+
+		// Repaints the cell with its new state
+		public void cellChanged(int cell, GameSession.CellState state) {
+			repaint(cellBounds(cell));
+		}
+
+		// Repaints the previous and new last selected cells
+		public void wordChanged(GameSession.WordStatus status) {
+			if (tipCell != GameSession.NO_CELL)
+				repaint(cellBounds(tipCell));
+			tipCell = session.lastCell();
+			if (tipCell != GameSession.NO_CELL)
+				repaint(cellBounds(tipCell));
+		}
+
+		// Found words do not change the grid
+		public void wordFound(String word, int points) {
+		}
+
+		// Repaints every cell with the letters of the new board
+		public void boardChanged(BoggleBoard board) {
+			repaint();
+		}
+	}
+
+	/**
+	 * Returns the width and height of a cell for the current size of
+	 * the component.
+	 * @return size of a cell in pixels.
+	 */
+	private int cellSize() {
+		return Math.min(getWidth(), getHeight()) / size;
+	}
+
+	/**
+	 * Returns the area of the component covered by the cell.
+	 * @param cell cell to locate
+	 * @return bounds of the cell.
+	 */
+	private Rectangle cellBounds(int cell) {
+		int cellSize = cellSize();
+		return new Rectangle(cell % size * cellSize, cell / size * cellSize,
+				cellSize, cellSize);
+	}
+
+	/**
+	 * Paints the cells intersecting the area to repaint.
+	 * @param g graphics to paint with
+	 */
+	protected void paintComponent(Graphics g) {
+		Rectangle clip = g.getClipBounds();
+		if (clip == null)
+			clip = new Rectangle(0, 0, getWidth(), getHeight());
+		g.setColor(getBackground());
+		g.fillRect(clip.x, clip.y, clip.width, clip.height);
+		int cellSize = cellSize();
+		if (cellSize == 0)
+			return;
+		BoggleBoard board = session.getBoard();
+
+		// Sizes the font to the cells once per cell size
+		if (font == null || fontCellSize != cellSize) {
+			font = LETTER_FONT.deriveFont(cellSize * 0.5f);
+			fontCellSize = cellSize;
+		}
+		g.setFont(font);
+		FontMetrics metrics = g.getFontMetrics();
+
+		// Only paints the rows and columns inside the clip
+		int firstRow = Math.max(0, clip.y / cellSize);
+		int lastRow = Math.min(size - 1, (clip.y + clip.height - 1) / cellSize);
+		int firstColumn = Math.max(0, clip.x / cellSize);
+		int lastColumn = Math.min(size - 1, (clip.x + clip.width - 1) / cellSize);
+		for (int x = firstRow; x <= lastRow; x++) {
+			for (int y = firstColumn; y <= lastColumn; y++) {
+				int cell = x * size + y;
+				int left = y * cellSize;
+				int top = x * cellSize;
+				GameSession.CellState state = session.getState(cell);
+
+				// Draws the border of the state, or of the word status
+				// for the last selected cell
+				g.setColor(borderColor(cell, state));
+				for (int i = 0; i < LINE_BORDER_SIZE; i++) {
+					g.drawRect(left + i, top + i,
+							cellSize - 2 * i - 1, cellSize - 2 * i - 1);
+				}
+
+				// Draws the letters centered, grayed out if unavailable
+				String text = BoggleBoard.codeText(board.getCellCode(cell));
+				g.setColor(state == GameSession.CellState.UNAVAILABLE ?
+						Color.gray : getForeground());
+				g.drawString(text,
+						left + (cellSize - metrics.stringWidth(text)) / 2,
+						top + (cellSize - metrics.getHeight()) / 2 + metrics.getAscent());
+			}
+		}
+	}
+
+	/**
+	 * Returns the border color of the cell.
+	 * @param cell cell to paint
+	 * @param state state of the cell
+	 * @return color of the border.
+	 */
+	private Color borderColor(int cell, GameSession.CellState state) {
+		if (cell == session.lastCell()) {
+			switch (session.getWordStatus()) {
+				case WORD:
+					return WORD_COLOR;
+				case DEAD_END:
+					return DEAD_END_COLOR;
+				default:
+					break;
+			}
+		}
+		return BORDER_COLORS[state.ordinal()];
+	}
+
+	/**
+	 * Simple main method to test our GUI. The only optional argument
+	 * is the size of the board.
+	 * @param args command line arguments
+	 */
+	public static void main(final String[] args) {
+		javax.swing.SwingUtilities.invokeLater(new Runnable() {
+			public void run() {
+				int size = args.length > 0 ?
+						Integer.parseInt(args[0]) : BoggleBoard.DEFAULT_SIZE;
+				JFrame f = new JFrame("BoggleTest");
+				f.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+
+				JBoggleGrid grid = new JBoggleGrid(size);
+				grid.setBoard(new BoggleBoard(size));
+				f.add(grid);
+
+				f.pack();
+				f.setVisible(true);
+			}
+		});
+	}
+}
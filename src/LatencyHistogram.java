@@ -0,0 +1,142 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class records latencies in buckets of roughly equal relative
+ * width, like HdrHistogram: values below 32 ns have a bucket each and
+ * every larger power of two is split into 16 buckets, so a percentile
+ * is off by at most 1/16th of its value. Every bucket is a LongAdder,
+ * so threads recording at the same time do not contend. Latencies of
+ * more than 2^40 ns, about 18 minutes, are recorded as 2^40 ns.
+ * @author rpathire
+ *
+ */
+final class LatencyHistogram {
+	/** Number of buckets each power of two is split into, as bits */
+	private static final int SUB_BITS = 4;
+
+	/** Largest recorded value, as a power of two */
+	private static final int MAX_BITS = 40;
+
+	/** Number of buckets */
+	private static final int BUCKETS = bucket(1L << MAX_BITS) + 1;
+
+	/** Number of values recorded in each bucket */
+	private final LongAdder[] buckets;
+
+	/** Number of values recorded */
+	private final LongAdder count;
+
+	/** Sum of the values recorded */
+	private final LongAdder sum;
+
+	/**
+	 * Constructs an empty histogram.
+	 */
+	LatencyHistogram() {
+		buckets = new LongAdder[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets[i] = new LongAdder();
+		}
+		count = new LongAdder();
+		sum = new LongAdder();
+	}
+
+	/**
+	 * Records a latency.
+	 * @param nanos latency in nanoseconds, negative values count as 0
+	 */
+	void record(long nanos) {
+		long value = Math.min(Math.max(nanos, 0), 1L << MAX_BITS);
+		buckets[bucket(value)].increment();
+		count.increment();
+		sum.add(value);
+	}
+
+	/**
+	 * Records the time elapsed since the start.
+	 * @param start value of System.nanoTime() when the timed work started
+	 */
+	void recordSince(long start) {
+		record(System.nanoTime() - start);
+	}
+
+	/**
+	 * Returns number of values recorded.
+	 * @return number of values.
+	 */
+	long count() {
+		return count.sum();
+	}
+
+	/**
+	 * Returns the mean of the values recorded.
+	 * @return mean in nanoseconds, 0 if nothing was recorded.
+	 */
+	double mean() {
+		long n = count.sum();
+		return n == 0 ? 0 : (double) sum.sum() / n;
+	}
+
+	/**
+	 * Returns the value below which the fraction of the values
+	 * recorded fall, rounded up to the top of its bucket.
+	 * @param fraction fraction of the values, between 0 and 1
+	 * @return percentile in nanoseconds, 0 if nothing was recorded.
+	 */
+	long percentile(double fraction) {
+		// Buckets may change while they are summed, so the total is
+		// taken from the buckets themselves
+		long[] counts = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets[i].sum();
+			total += counts[i];
+		}
+		if (total == 0)
+			return 0;
+		long rank = Math.max(1, (long) Math.ceil(fraction * total));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank)
+				return lowest(i + 1) - 1;
+		}
+		return 1L << MAX_BITS;
+	}
+
+	/**
+	 * Removes every value recorded. Values recorded at the same time
+	 * may be partly kept.
+	 */
+	void reset() {
+		for (LongAdder bucket : buckets) {
+			bucket.reset();
+		}
+		count.reset();
+		sum.reset();
+	}
+
+	/**
+	 * Returns the bucket of the value.
+	 * @param value non negative value
+	 * @return index of the bucket.
+	 */
+	private static int bucket(long value) {
+		// Keeps the top SUB_BITS + 1 bits of the value
+		int magnitude = 63 - Long.numberOfLeadingZeros(value);
+		int shift = Math.max(0, magnitude - SUB_BITS);
+		return (shift << SUB_BITS) + (int) (value >>> shift);
+	}
+
+	/**
+	 * Returns the lowest value of the bucket.
+	 * @param bucket index of the bucket
+	 * @return lowest value falling in the bucket.
+	 */
+	private static long lowest(int bucket) {
+		if (bucket < 2 << SUB_BITS)
+			return bucket;
+		int shift = (bucket >>> SUB_BITS) - 1;
+		return (long) (bucket - (shift << SUB_BITS)) << shift;
+	}
+}
@@ -0,0 +1,59 @@
+/**
+ * This interface describes a set of words stored as a tree of
+ * characters, where each node stands for a prefix and can be
+ * navigated one character at a time. Nodes are plain integers,
+ * so walking a lexicon does not allocate.
+ * @author rpathire
+ *
+ */
+public interface Lexicon {
+	/** Node of the empty prefix */
+	int ROOT = 0;
+
+	/** Value returned when a node does not exist */
+	int NONE = -1;
+
+	/**
+	 * Returns the child of the node reached through the given character.
+	 * @param node node to step from
+	 * @param c label of the child
+	 * @return child node or NONE if there is no such child.
+	 */
+	int child(int node, char c);
+
+	/**
+	 * Returns the first child of the node. Children are ordered by
+	 * increasing label.
+	 * @param node parent node
+	 * @return first child or NONE if the node has no children.
+	 */
+	int firstChild(int node);
+
+	/**
+	 * Returns the next sibling of the node.
+	 * @param node node whose sibling to return
+	 * @return next sibling or NONE if the node is the last child.
+	 */
+	int nextSibling(int node);
+
+	/**
+	 * Returns the character labelling the edge into the node.
+	 * @param node node whose label to return
+	 * @return label of the node.
+	 */
+	char label(int node);
+
+	/**
+	 * Returns whether the node ends a word.
+	 * @param node node to check
+	 * @return whether a word ends at the node.
+	 */
+	boolean isWord(int node);
+
+	/**
+	 * Returns whether any word passes through or ends at the node.
+	 * @param node node to check
+	 * @return whether the node leads to at least one word.
+	 */
+	boolean hasWords(int node);
+}
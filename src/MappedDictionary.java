@@ -0,0 +1,307 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * This class reads a precompiled binary dictionary through a memory
+ * mapped file. Opening a dictionary only maps the file, and lookups
+ * walk the mapped bytes directly, so no word is ever copied onto the
+ * heap. Dictionaries are written by DictionaryCompiler.
+ *
+ * The file is a header followed by one fixed size record per node of
+ * a trie, numbered in breadth first order so the children of a node
+ * are consecutive records sorted by label:
+ * <pre>
+ * header: int magic, int version, int node count, int word count
+ * record: int first child, char label, char flags
+ * flags:  bit 15 ends a word, bit 14 last child, bits 0-13 child count
+ * </pre>
+ * All values are big endian. Only nodes leading to words are stored.
+ * @author rpathire
+ *
+ */
+public class MappedDictionary implements Lexicon {
+	/** First int of every dictionary file, "BGDC" in ASCII */
+	public static final int MAGIC = 0x42474443;
+
+	/** Version of the file format */
+	public static final int VERSION = 1;
+
+	/** Number of bytes before the first record */
+	private static final int HEADER_SIZE = 16;
+
+	/** Number of bytes of a record */
+	private static final int RECORD_SIZE = 8;
+
+	/** Offset of the first child in a record */
+	private static final int FIRST_CHILD = 0;
+
+	/** Offset of the label in a record */
+	private static final int LABEL = 4;
+
+	/** Offset of the flags in a record */
+	private static final int FLAGS = 6;
+
+	/** Flag set on nodes ending a word */
+	private static final int TERMINAL = 0x8000;
+
+	/** Flag set on the last child of a node */
+	private static final int LAST = 0x4000;
+
+	/** Bits of the flags holding the number of children */
+	private static final int CHILD_COUNT_MASK = 0x3FFF;
+
+	/** Mapped contents of the file */
+	private final ByteBuffer buffer;
+
+	/** Number of nodes in the file */
+	private final int nodeCount;
+
+	/** Number of words in the file */
+	private final int wordCount;
+
+	/**
+	 * Opens the dictionary stored in the file.
+	 *
+	 * @param file file written by DictionaryCompiler, cannot be null
+	 *
+	 * @throws IOException if the file cannot be mapped or is not a
+	 * dictionary
+	 */
+	public MappedDictionary(File file) throws IOException {
+		// The mapping stays valid after the channel is closed
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = in.getChannel();
+			if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE)
+				throw new IOException("not a dictionary file: " + file);
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		finally {
+			in.close();
+		}
+
+		// Checks the header against the size of the file
+		if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+			throw new IOException("not a dictionary file: " + file);
+		nodeCount = buffer.getInt(8);
+		wordCount = buffer.getInt(12);
+		if (nodeCount < 1 ||
+				buffer.capacity() != HEADER_SIZE + (long) nodeCount * RECORD_SIZE)
+			throw new IOException("truncated dictionary file: " + file);
+	}
+
+	/**
+	 * Returns number of words in the dictionary.
+	 * @return number of words in the dictionary.
+	 */
+	public int size() {
+		return wordCount;
+	}
+
+	/**
+	 * Returns true if the dictionary contains the specified word.
+	 * Leading and trailing whitespace is ignored and letters are
+	 * compared in lowercase.
+	 *
+	 * @param word word to check in dictionary
+	 *
+	 * @return whether the word is in the dictionary
+	 */
+	public boolean containsWord(CharSequence word) {
+		int node = WordNormalizer.find(this, word);
+		return node != NONE && isWord(node);
+	}
+
+	/**
+	 * Returns true if some word in the dictionary starts with the
+	 * specified prefix. Leading and trailing whitespace is ignored
+	 * and letters are compared in lowercase.
+	 *
+	 * @param prefix prefix to check in dictionary
+	 *
+	 * @return whether a word in the dictionary starts with the prefix
+	 */
+	public boolean hasPrefix(CharSequence prefix) {
+		int node = WordNormalizer.find(this, prefix);
+		return node != NONE && hasWords(node);
+	}
+
+	/**
+	 * Returns a new cursor positioned at the empty prefix.
+	 *
+	 * @return new prefix cursor over the dictionary
+	 */
+	public PrefixCursor cursor() {
+		return new PrefixCursor(this);
+	}
+
+	/**
+	 * Returns the child of the node reached through the given
+	 * character, using a binary search over its children.
+	 * @param node node to step from
+	 * @param c label of the child
+	 * @return child node or NONE if there is no such child.
+	 */
+	public int child(int node, char c) {
+		int low = buffer.getInt(offset(node) + FIRST_CHILD);
+		int high = low + (flags(node) & CHILD_COUNT_MASK) - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			char label = label(middle);
+			if (label < c)
+				low = middle + 1;
+			else if (label > c)
+				high = middle - 1;
+			else
+				return middle;
+		}
+		return NONE;
+	}
+
+	/**
+	 * Returns the first child of the node.
+	 * @param node parent node
+	 * @return first child or NONE if the node has no children.
+	 */
+	public int firstChild(int node) {
+		if ((flags(node) & CHILD_COUNT_MASK) == 0)
+			return NONE;
+		return buffer.getInt(offset(node) + FIRST_CHILD);
+	}
+
+	/**
+	 * Returns the next sibling of the node.
+	 * @param node node whose sibling to return
+	 * @return next sibling or NONE if the node is the last child.
+	 */
+	public int nextSibling(int node) {
+		return (flags(node) & LAST) != 0 ? NONE : node + 1;
+	}
+
+	/**
+	 * Returns the character labelling the edge into the node.
+	 * @param node node whose label to return
+	 * @return label of the node.
+	 */
+	public char label(int node) {
+		return buffer.getChar(offset(node) + LABEL);
+	}
+
+	/**
+	 * Returns whether the node ends a word.
+	 * @param node node to check
+	 * @return whether a word ends at the node.
+	 */
+	public boolean isWord(int node) {
+		return (flags(node) & TERMINAL) != 0;
+	}
+
+	/**
+	 * Returns whether any word passes through or ends at the node.
+	 * Only nodes leading to words are stored, so this is only false
+	 * for the root of an empty dictionary.
+	 * @param node node to check
+	 * @return whether the node leads to at least one word.
+	 */
+	public boolean hasWords(int node) {
+		return (flags(node) & (TERMINAL | CHILD_COUNT_MASK)) != 0;
+	}
+
+	/**
+	 * Returns the flags of the node.
+	 * @param node node whose flags to return
+	 * @return flags of the node.
+	 */
+	private int flags(int node) {
+		return buffer.getChar(offset(node) + FLAGS);
+	}
+
+	/**
+	 * Returns the position of the record of the node in the file.
+	 * @param node node whose record to find
+	 * @return offset of the record.
+	 */
+	private static int offset(int node) {
+		return HEADER_SIZE + node * RECORD_SIZE;
+	}
+
+	/**
+	 * Writes the words of the lexicon to the file in the format read
+	 * by this class.
+	 *
+	 * @param lexicon words to write, cannot be null
+	 * @param file file to write to, cannot be null
+	 *
+	 * @throws IOException if the file cannot be written
+	 * @throws IllegalArgumentException if a node has more children
+	 * than the format allows.
+	 */
+	public static void write(Lexicon lexicon, File file)
+			throws IOException, IllegalArgumentException {
+		// Numbers the nodes leading to words in breadth first order,
+		// recording the first child and number of children of each
+		int[] order = new int[1024];
+		int[] firstChild = new int[1024];
+		int[] childCount = new int[1024];
+		boolean[] last = new boolean[1024];
+		int count = 0;
+		order[count++] = ROOT;
+		last[ROOT] = true;
+		for (int head = 0; head < count; head++) {
+			firstChild[head] = count;
+			for (int n = lexicon.firstChild(order[head]); n != NONE;
+					n = lexicon.nextSibling(n)) {
+				if (!lexicon.hasWords(n))
+					continue;
+				if (count == order.length) {
+					order = Arrays.copyOf(order, count * 2);
+					firstChild = Arrays.copyOf(firstChild, count * 2);
+					childCount = Arrays.copyOf(childCount, count * 2);
+					last = Arrays.copyOf(last, count * 2);
+				}
+				order[count++] = n;
+			}
+			childCount[head] = count - firstChild[head];
+			if (childCount[head] > CHILD_COUNT_MASK)
+				throw new IllegalArgumentException();
+			if (childCount[head] > 0)
+				last[count - 1] = true;
+		}
+
+		// Counts the words
+		int words = 0;
+		for (int i = 0; i < count; i++) {
+			if (lexicon.isWord(order[i]))
+				words++;
+		}
+
+		DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(count);
+			out.writeInt(words);
+			for (int i = 0; i < count; i++) {
+				int flags = childCount[i];
+				if (lexicon.isWord(order[i]))
+					flags |= TERMINAL;
+				if (last[i])
+					flags |= LAST;
+				out.writeInt(childCount[i] == 0 ? NONE : firstChild[i]);
+				out.writeChar(i == 0 ? '\0' : lexicon.label(order[i]));
+				out.writeChar(flags);
+			}
+		}
+		finally {
+			out.close();
+		}
+	}
+}
@@ -0,0 +1,268 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+
+/**
+ * This class holds counters and latency histograms of the dictionary,
+ * the boards and the solver. Metrics are only recorded when the
+ * system property boggle.metrics is true. Otherwise ENABLED is a
+ * false constant and the JIT compiler drops the code recording them,
+ * so they cost nothing on the lookup path.
+ *
+ * Metrics can be read as text with dump() and over JMX once
+ * register() has been called, where every counter is an attribute
+ * and every histogram has count, mean, p50, p99 and p999 attributes,
+ * all latencies being in microseconds.
+ * @author rpathire
+ *
+ */
+public final class Metrics {
+	/** Whether metrics are recorded */
+	public static final boolean ENABLED = Boolean.getBoolean("boggle.metrics");
+
+	/** Name the metrics are registered with over JMX */
+	public static final String OBJECT_NAME = "boggle:type=Metrics";
+
+	/** Counters by name, in the order they were created */
+	private static final Map<String, LongAdder> COUNTERS =
+			new LinkedHashMap<String, LongAdder>();
+
+	/** Histograms by name, in the order they were created */
+	private static final Map<String, LatencyHistogram> HISTOGRAMS =
+			new LinkedHashMap<String, LatencyHistogram>();
+
+	/** Words looked up in word lists */
+	static final LongAdder LOOKUPS = counter("wordlist.lookups");
+
+	/** Prefixes checked in word lists */
+	static final LongAdder PREFIX_CHECKS = counter("wordlist.prefixChecks");
+
+	/** Time taken to load word lists from files */
+	static final LatencyHistogram LOADS = histogram("wordlist.load");
+
+	/** Time taken to generate random boards */
+	static final LatencyHistogram BOARDS = histogram("board.generate");
+
+	/** Time taken to solve boards */
+	static final LatencyHistogram SOLVES = histogram("solver.solve");
+
+	/** Paths followed by the solver, one per cell added to a path */
+	static final LongAdder SOLVE_NODES = counter("solver.nodes");
+
+	/** Names of the statistics of each histogram */
+	private static final String[] STATISTICS = {"count", "mean", "p50", "p99", "p999"};
+
+	/**
+	 * Not instantiable.
+	 */
+	private Metrics() {
+	}
+
+	/**
+	 * Creates a counter.
+	 * @param name name of the counter
+	 * @return new counter.
+	 */
+	private static LongAdder counter(String name) {
+		LongAdder counter = new LongAdder();
+		COUNTERS.put(name, counter);
+		return counter;
+	}
+
+	/**
+	 * Creates a histogram.
+	 * @param name name of the histogram
+	 * @return new histogram.
+	 */
+	private static LatencyHistogram histogram(String name) {
+		LatencyHistogram histogram = new LatencyHistogram();
+		HISTOGRAMS.put(name, histogram);
+		return histogram;
+	}
+
+	/**
+	 * Returns the metrics as text, one line per counter or histogram,
+	 * with histogram latencies in microseconds.
+	 * @return text of the metrics.
+	 */
+	public static String dump() {
+		StringBuilder text = new StringBuilder();
+		for (Map.Entry<String, LongAdder> e : COUNTERS.entrySet()) {
+			text.append(e.getKey()).append(' ').append(e.getValue().sum()).append('\n');
+		}
+		for (Map.Entry<String, LatencyHistogram> e : HISTOGRAMS.entrySet()) {
+			text.append(e.getKey());
+			for (String statistic : STATISTICS) {
+				text.append(' ').append(statistic).append('=');
+				text.append(format(statistic(e.getValue(), statistic)));
+			}
+			text.append('\n');
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Clears every counter and histogram.
+	 */
+	public static void reset() {
+		for (LongAdder counter : COUNTERS.values()) {
+			counter.reset();
+		}
+		for (LatencyHistogram histogram : HISTOGRAMS.values()) {
+			histogram.reset();
+		}
+	}
+
+	/**
+	 * Registers the metrics with the platform MBean server under
+	 * OBJECT_NAME. Does nothing if they are already registered.
+	 * @throws JMException if the metrics cannot be registered
+	 */
+	public static void register() throws JMException {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(
+					new Bean(), new ObjectName(OBJECT_NAME));
+		}
+		catch (InstanceAlreadyExistsException e) {
+		}
+	}
+
+	/**
+	 * Returns the value of a counter or of a statistic of a histogram,
+	 * named like "solver.solve.p99".
+	 * @param name name of the value
+	 * @return value of the counter or statistic, null if there is none.
+	 */
+	static Number value(String name) {
+		LongAdder counter = COUNTERS.get(name);
+		if (counter != null)
+			return counter.sum();
+		int dot = name.lastIndexOf('.');
+		LatencyHistogram histogram = dot < 0 ? null : HISTOGRAMS.get(name.substring(0, dot));
+		return histogram == null ? null : statistic(histogram, name.substring(dot + 1));
+	}
+
+	/**
+	 * Returns a statistic of a histogram.
+	 * @param histogram histogram
+	 * @param statistic one of STATISTICS
+	 * @return number of values, or latency in microseconds, null if
+	 * the statistic does not exist.
+	 */
+	private static Number statistic(LatencyHistogram histogram, String statistic) {
+		if (statistic.equals("count"))
+			return histogram.count();
+		if (statistic.equals("mean"))
+			return histogram.mean() / 1e3;
+		if (statistic.equals("p50"))
+			return histogram.percentile(0.50) / 1e3;
+		if (statistic.equals("p99"))
+			return histogram.percentile(0.99) / 1e3;
+		if (statistic.equals("p999"))
+			return histogram.percentile(0.999) / 1e3;
+		return null;
+	}
+
+	/**
+	 * Formats a value of the dump.
+	 * @param value count or latency
+	 * @return text of the value.
+	 */
+	private static String format(Number value) {
+		if (value instanceof Double)
+			return String.format("%.1f", value.doubleValue());
+		return value.toString();
+	}
+
+	/**
+	 * MBean exposing every counter and histogram statistic as a read
+	 * only attribute, with dump and reset operations.
+	 * @author rpathire
+	 *
+	 */
+	private static class Bean implements DynamicMBean {
+		/**
+		 * Returns names of every attribute.
+		 * @return names of the counters and histogram statistics.
+		 */
+		private List<String> names() {
+			List<String> names = new ArrayList<String>(COUNTERS.keySet());
+			for (String histogram : HISTOGRAMS.keySet()) {
+				for (String statistic : STATISTICS) {
+					names.add(histogram + "." + statistic);
+				}
+			}
+			return names;
+		}
+
+		public Object getAttribute(String attribute) throws AttributeNotFoundException {
+			Number value = value(attribute);
+			if (value == null)
+				throw new AttributeNotFoundException(attribute);
+			return value;
+		}
+
+		public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+			throw new AttributeNotFoundException(attribute.getName());
+		}
+
+		public AttributeList getAttributes(String[] attributes) {
+			AttributeList list = new AttributeList();
+			for (String name : attributes) {
+				Number value = value(name);
+				if (value != null)
+					list.add(new Attribute(name, value));
+			}
+			return list;
+		}
+
+		public AttributeList setAttributes(AttributeList attributes) {
+			return new AttributeList();
+		}
+
+		public Object invoke(String action, Object[] params, String[] signature)
+				throws ReflectionException {
+			if (action.equals("dump"))
+				return dump();
+			if (action.equals("reset")) {
+				reset();
+				return null;
+			}
+			throw new ReflectionException(new NoSuchMethodException(action));
+		}
+
+		public MBeanInfo getMBeanInfo() {
+			List<String> names = names();
+			MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[names.size()];
+			for (int i = 0; i < attributes.length; i++) {
+				String name = names.get(i);
+				String type = COUNTERS.containsKey(name) || name.endsWith(".count") ?
+						"java.lang.Long" : "java.lang.Double";
+				attributes[i] = new MBeanAttributeInfo(name, type, name, true, false, false);
+			}
+			MBeanOperationInfo[] operations = {
+				new MBeanOperationInfo("dump", "Returns the metrics as text", null,
+						"java.lang.String", MBeanOperationInfo.INFO),
+				new MBeanOperationInfo("reset", "Clears every metric", null,
+						"void", MBeanOperationInfo.ACTION)
+			};
+			return new MBeanInfo(Metrics.class.getName(), "Boggle metrics",
+					attributes, null, operations, null);
+		}
+	}
+}
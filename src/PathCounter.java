@@ -0,0 +1,449 @@
+import java.util.Arrays;
+
+/**
+ * This class counts the paths of a board spelling each word of a
+ * lexicon, which lets the words and score of the board be kept up to
+ * date as single cells change. A word is on the board as long as at
+ * least one path spells it, so changing a cell only needs the paths
+ * through that cell to be counted out on the old letter and counted
+ * in on the new one. Those paths are found from the cell itself:
+ * the part of the word before the cell is read backwards through a
+ * ReversePrefixTrie, and the rest of the word forwards through the
+ * lexicon, so no path missing the cell is ever followed. The
+ * ReversePrefixTrie takes about four times the memory of the lexicon
+ * and is only built when the first cell changes.
+ *
+ * Words follow the rules of BoggleSolver: at least MIN_WORD_LENGTH
+ * letters, the Qu cell contributing two. Subclasses are told about
+ * every word gaining or losing its paths through wordChanged. A
+ * counter belongs to a single thread at a time.
+ * @author rpathire
+ *
+ */
+class PathCounter {
+	/**
+	 * Fewest cells of a board on which setCell is worth its index.
+	 * Below 8x8 a change costs about as much as counting the board
+	 * again with reset, at most a third less, so callers should reset
+	 * instead and never build the index.
+	 */
+	static final int MIN_CHANGE_CELLS = 64;
+
+	/** Lexicon of the words counted, in lowercase */
+	private final Lexicon lexicon;
+
+	/** Prefixes of the words read backwards, built by the first change */
+	private ReversePrefixTrie prefixes;
+
+	/** Number of paths spelling each lexicon node */
+	private int[] counts;
+
+	/** Nodes whose count became positive since the last reset */
+	private int[] gained;
+
+	/** Number of nodes in gained, some of them more than once */
+	private int gainedCount;
+
+	/** Dimension of the board */
+	private int size;
+
+	/** Letter codes of the cells, row by row */
+	private byte[] cells;
+
+	/** Neighbors of each cell */
+	private int[][] neighbors;
+
+	/** Letter codes found among the neighbors of each cell, as bits */
+	private int[] neighborCodes;
+
+	/** Cells of the current path */
+	private PathState path;
+
+	/** Number of cells at the start of path read backwards */
+	private int backward;
+
+	/** Added to the count of every path found, 1 or -1 */
+	private int sign;
+
+	/** Number of words with at least one path */
+	private int words;
+
+	/** Total score of the words with at least one path */
+	private int score;
+
+	/**
+	 * Constructs a counter of the words of the lexicon. The lexicon
+	 * must not change while the counter is in use.
+	 * @param lexicon lexicon of lowercase words, cannot be null
+	 */
+	PathCounter(Lexicon lexicon) {
+		this.lexicon = lexicon;
+		counts = new int[64];
+		gained = new int[64];
+	}
+
+	/**
+	 * Counts every path of a board holding the letter codes. The
+	 * codes are copied, and the words of the previous board are
+	 * dropped without being reported to wordChanged.
+	 * @param size size of the board
+	 * @param codes letter codes of the cells, row by row
+	 */
+	void reset(int size, byte[] codes) {
+		// Only clears the counts of nodes found since the last reset,
+		// which is much cheaper than clearing every lexicon node
+		for (int i = 0; i < gainedCount; i++) {
+			counts[gained[i]] = 0;
+		}
+		gainedCount = 0;
+		words = 0;
+		score = 0;
+		int cellCount = size * size;
+		if (cells == null || cells.length != cellCount) {
+			cells = new byte[cellCount];
+			neighborCodes = new int[cellCount];
+			path = new PathState(cellCount);
+			neighbors = BoggleBoard.neighborTable(size);
+		}
+		this.size = size;
+		System.arraycopy(codes, 0, cells, 0, cellCount);
+		for (int cell = 0; cell < cellCount; cell++) {
+			updateNeighborCodes(cell);
+		}
+		countAll();
+	}
+
+	/**
+	 * Changes the letter of a cell, counting out the paths through
+	 * the cell before and counting in the ones after.
+	 * @param cell cell to change
+	 * @param code new letter code of the cell
+	 */
+	void setCell(int cell, int code) {
+		if (cells[cell] == code)
+			return;
+		countThrough(cell, -1);
+		cells[cell] = (byte) code;
+		updateNeighborCodes(cell);
+		for (int neighbor : neighbors[cell]) {
+			updateNeighborCodes(neighbor);
+		}
+		countThrough(cell, 1);
+	}
+
+	/**
+	 * Returns the letter code of the cell.
+	 * @param cell cell index
+	 * @return letter code of the cell.
+	 */
+	int getCellCode(int cell) {
+		return cells[cell];
+	}
+
+	/**
+	 * Returns size of the board.
+	 * @return dimension of the board.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Returns number of cells of the board.
+	 * @return number of cells.
+	 */
+	int cellCount() {
+		return cells.length;
+	}
+
+	/**
+	 * Returns number of distinct words on the board.
+	 * @return number of words.
+	 */
+	int words() {
+		return words;
+	}
+
+	/**
+	 * Returns total score of the words on the board.
+	 * @return score of the board.
+	 */
+	int score() {
+		return score;
+	}
+
+	/**
+	 * Returns a board holding the current letters.
+	 * @return new board.
+	 */
+	BoggleBoard toBoard() {
+		return new BoggleBoard(size, cells);
+	}
+
+	/**
+	 * Returns the word spelled by the path being counted, which is the
+	 * word passed to wordChanged while it runs.
+	 * @return lowercase letters of the cells of the path.
+	 */
+	String pathWord() {
+		// The cells read backwards come first on the path
+		StringBuilder word = new StringBuilder(path.length() + 1);
+		for (int i = backward - 1; i >= 0; i--) {
+			appendCell(word, path.cell(i));
+		}
+		for (int i = backward; i < path.length(); i++) {
+			appendCell(word, path.cell(i));
+		}
+		return word.toString();
+	}
+
+	/**
+	 * Called when a word gains its first path or loses its last one.
+	 * Does nothing by default.
+	 * @param node lexicon node of the word
+	 * @param length number of letters of the word
+	 * @param gained whether the word gained its first path
+	 */
+	void wordChanged(int node, int length, boolean gained) {
+	}
+
+	/**
+	 * Counts in every path of the board.
+	 */
+	private void countAll() {
+		sign = 1;
+		backward = 0;
+		path.clear();
+		for (int cell = 0; cell < cells.length; cell++) {
+			int code = cells[cell];
+			int node;
+			if (code == BoggleBoard.QU) {
+				node = lexicon.child(Lexicon.ROOT, 'q');
+				if (node != Lexicon.NONE)
+					node = lexicon.child(node, 'u');
+			}
+			else {
+				node = lexicon.child(Lexicon.ROOT, (char) ('a' + code));
+			}
+			if (node != Lexicon.NONE && lexicon.hasWords(node))
+				search(cell, node, letters(code));
+		}
+	}
+
+	/**
+	 * Adds the sign to the count of every path passing through the
+	 * cell.
+	 * @param cell cell the paths pass through
+	 * @param sign 1 to count paths in, -1 to count them out
+	 */
+	private void countThrough(int cell, int sign) {
+		this.sign = sign;
+
+		// Boards that are only counted whole never need the prefixes
+		if (prefixes == null)
+			prefixes = new ReversePrefixTrie(lexicon);
+		int code = cells[cell];
+		int reversed = prefixes.child(Lexicon.ROOT, code);
+		if (reversed == Lexicon.NONE)
+			return;
+		path.clear();
+		path.push(cell);
+		searchBackward(cell, reversed, letters(code));
+		path.pop();
+	}
+
+	/**
+	 * Counts the paths whose letters before the changed cell are the
+	 * current path read backwards, then extends the path backwards
+	 * with every free neighbor of its earliest cell.
+	 * @param cell earliest cell of the word, last cell of the path
+	 * @param reversed node of the letters of the path read backwards
+	 * @param length number of letters of the path
+	 */
+	private void searchBackward(int cell, int reversed, int length) {
+		// Follows the rest of the word forwards from the changed cell
+		// once the path starts a word
+		int node = prefixes.prefix(reversed);
+		if (node != Lexicon.NONE) {
+			backward = path.length();
+			visit(path.cell(0), node, length);
+		}
+
+		// Continues the path backwards through the children of the node
+		int codes = neighborCodes[cell];
+		for (int child = prefixes.firstChild(reversed); child != Lexicon.NONE;
+				child = prefixes.nextSibling(child)) {
+			int letter = prefixes.label(child) - 'a';
+			if ((codes >>> letter & 1) != 0)
+				extendBackward(cell, letter, child, length + 1);
+
+			// A u child followed by q may continue through a Qu neighbor
+			if (letter == 'u' - 'a' && (codes >>> BoggleBoard.QU & 1) != 0) {
+				int q = prefixes.child(child, 'q');
+				if (q != Lexicon.NONE)
+					extendBackward(cell, BoggleBoard.QU, q, length + 2);
+			}
+		}
+	}
+
+	/**
+	 * Counts the paths extended backwards through every unvisited
+	 * neighbor of the cell holding the letter code.
+	 * @param cell earliest cell of the word
+	 * @param code letter code of the neighbors to follow
+	 * @param reversed node of the letters read backwards, including
+	 * the neighbor
+	 * @param length number of letters including the neighbor
+	 */
+	private void extendBackward(int cell, int code, int reversed, int length) {
+		for (int neighbor : neighbors[cell]) {
+			if (cells[neighbor] == code && !path.contains(neighbor)) {
+				path.push(neighbor);
+				searchBackward(neighbor, reversed, length);
+				path.pop();
+			}
+		}
+	}
+
+	/**
+	 * Extends the current path with the cell and counts every path
+	 * continuing from it.
+	 * @param cell cell to extend the path with
+	 * @param node lexicon node of the path including the cell
+	 * @param length number of letters of the path including the cell
+	 */
+	private void search(int cell, int node, int length) {
+		path.push(cell);
+		visit(cell, node, length);
+		path.pop();
+	}
+
+	/**
+	 * Counts the path if it spells a word, and every path continuing
+	 * from the cell.
+	 * @param cell cell the path continues from
+	 * @param node lexicon node of the path
+	 * @param length number of letters of the path
+	 */
+	private void visit(int cell, int node, int length) {
+		if (length >= BoggleSolver.MIN_WORD_LENGTH && lexicon.isWord(node))
+			add(node, length);
+
+		// Continues the path through the children of the node
+		int codes = neighborCodes[cell];
+		for (int child = lexicon.firstChild(node); child != Lexicon.NONE;
+				child = lexicon.nextSibling(child)) {
+			int letter = lexicon.label(child) - 'a';
+			if (letter < 0 || letter >= 26)
+				continue;
+			if ((codes >>> letter & 1) != 0 && lexicon.hasWords(child))
+				extend(cell, letter, child, length + 1);
+
+			// A q child may continue through a Qu neighbor
+			if (letter == 'q' - 'a' && (codes >>> BoggleBoard.QU & 1) != 0) {
+				int u = lexicon.child(child, 'u');
+				if (u != Lexicon.NONE && lexicon.hasWords(u))
+					extend(cell, BoggleBoard.QU, u, length + 2);
+			}
+		}
+	}
+
+	/**
+	 * Counts the paths continuing through every unvisited neighbor of
+	 * the cell holding the letter code.
+	 * @param cell last cell of the path
+	 * @param code letter code of the neighbors to follow
+	 * @param node lexicon node of the path including the neighbor
+	 * @param length number of letters of the path including the neighbor
+	 */
+	private void extend(int cell, int code, int node, int length) {
+		for (int neighbor : neighbors[cell]) {
+			if (cells[neighbor] == code && !path.contains(neighbor))
+				search(neighbor, node, length);
+		}
+	}
+
+	/**
+	 * Adds the sign to the count of the word, keeping the number of
+	 * words and the score up to date.
+	 * @param node lexicon node of the word
+	 * @param length number of letters of the word
+	 */
+	private void add(int node, int length) {
+		if (node >= counts.length)
+			counts = Arrays.copyOf(counts, Math.max(node + 1, 2 * counts.length));
+		int before = counts[node];
+		counts[node] = before + sign;
+		if (before == 0) {
+			if (gainedCount == gained.length)
+				growGained();
+			gained[gainedCount++] = node;
+			words++;
+			score += BoggleSolver.score(length);
+			wordChanged(node, length, true);
+		}
+		else if (before + sign == 0) {
+			words--;
+			score -= BoggleSolver.score(length);
+			wordChanged(node, length, false);
+		}
+	}
+
+	/**
+	 * Makes room in the nodes gained since the last reset. Nodes
+	 * counted out since and nodes listed more than once are dropped
+	 * first, so the list stays bounded by the words on the board
+	 * however many cells are changed.
+	 */
+	private void growGained() {
+		// Negates the counts of the nodes kept to skip their repeats
+		int kept = 0;
+		for (int i = 0; i < gainedCount; i++) {
+			int node = gained[i];
+			if (counts[node] > 0) {
+				counts[node] = -counts[node];
+				gained[kept++] = node;
+			}
+		}
+		for (int i = 0; i < kept; i++) {
+			counts[gained[i]] = -counts[gained[i]];
+		}
+		gainedCount = kept;
+		if (gainedCount > gained.length / 2)
+			gained = Arrays.copyOf(gained, gained.length * 2);
+	}
+
+	/**
+	 * Recomputes the letter codes found among the neighbors of the cell.
+	 * @param cell cell to update
+	 */
+	private void updateNeighborCodes(int cell) {
+		int codes = 0;
+		for (int neighbor : neighbors[cell]) {
+			codes |= 1 << cells[neighbor];
+		}
+		neighborCodes[cell] = codes;
+	}
+
+	/**
+	 * Appends the lowercase letters of the cell to the word.
+	 * @param word word to append to
+	 * @param cell cell of the board
+	 */
+	private void appendCell(StringBuilder word, int cell) {
+		int code = cells[cell];
+		if (code == BoggleBoard.QU)
+			word.append("qu");
+		else
+			word.append((char) ('a' + code));
+	}
+
+	/**
+	 * Returns number of letters of a cell holding the code.
+	 * @param code letter code
+	 * @return 2 for the Qu cell, 1 otherwise.
+	 */
+	private static int letters(int code) {
+		return code == BoggleBoard.QU ? 2 : 1;
+	}
+}
@@ -0,0 +1,151 @@
+/**
+ * This class holds a path of cells on a board: the cells in order as
+ * a stack, and the set of cells on the path as bits. Boards of up to
+ * 64 cells, 8x8, keep the set in a single long, larger boards in an
+ * array of longs. Pushing, popping and checking whether a cell is on
+ * the path take constant time and allocate nothing, so the path can
+ * be used on every step of a search.
+ *
+ * Cells are not checked, so callers must only push cells of the
+ * board that are not on the path yet.
+ * @author rpathire
+ *
+ */
+final class PathState {
+	/** Largest number of cells kept in a single long */
+	static final int MASK_CELLS = 64;
+
+	/** Returned by last() when the path is empty */
+	static final int NO_CELL = -1;
+
+	/** Cells on the path as bits, for boards of up to MASK_CELLS cells */
+	private long mask;
+
+	/** Cells on the path as bits, for larger boards, or null */
+	private long[] bits;
+
+	/** Cells of the path, in order */
+	private int[] cells;
+
+	/** Number of cells on the path */
+	private int length;
+
+	/**
+	 * Constructs an empty path on a board with the number of cells.
+	 * @param cellCount number of cells of the board
+	 */
+	PathState(int cellCount) {
+		reset(cellCount);
+	}
+
+	/**
+	 * Empties the path and makes it fit a board with the number of
+	 * cells. Nothing is allocated if the number of cells has not
+	 * changed.
+	 * @param cellCount number of cells of the board
+	 */
+	void reset(int cellCount) {
+		if (cells == null || cells.length != cellCount) {
+			cells = new int[cellCount];
+			bits = cellCount <= MASK_CELLS ? null : new long[(cellCount + 63) >>> 6];
+			mask = 0;
+			length = 0;
+		}
+		else {
+			clear();
+		}
+	}
+
+	/**
+	 * Returns number of cells of the board the path is on.
+	 * @return number of cells.
+	 */
+	int cellCount() {
+		return cells.length;
+	}
+
+	/**
+	 * Returns number of cells on the path.
+	 * @return length of the path.
+	 */
+	int length() {
+		return length;
+	}
+
+	/**
+	 * Returns the cell at the position of the path.
+	 * @param index position in the path, 0 being the first cell
+	 * @return cell at the position.
+	 */
+	int cell(int index) {
+		return cells[index];
+	}
+
+	/**
+	 * Returns the last cell of the path.
+	 * @return last cell or NO_CELL if the path is empty.
+	 */
+	int last() {
+		return length == 0 ? NO_CELL : cells[length - 1];
+	}
+
+	/**
+	 * Returns whether the cell is on the path.
+	 * @param cell cell of the board
+	 * @return whether the cell is on the path.
+	 */
+	boolean contains(int cell) {
+		// Shifts only use the low 6 bits of the cell
+		if (bits == null)
+			return (mask >>> cell & 1) != 0;
+		return (bits[cell >>> 6] >>> cell & 1) != 0;
+	}
+
+	/**
+	 * Adds the cell at the end of the path.
+	 * @param cell cell of the board not on the path
+	 */
+	void push(int cell) {
+		cells[length++] = cell;
+		if (bits == null)
+			mask |= 1L << cell;
+		else
+			bits[cell >>> 6] |= 1L << cell;
+	}
+
+	/**
+	 * Removes the last cell of the path.
+	 * @return removed cell.
+	 */
+	int pop() {
+		int cell = cells[--length];
+		if (bits == null)
+			mask &= ~(1L << cell);
+		else
+			bits[cell >>> 6] &= ~(1L << cell);
+		return cell;
+	}
+
+	/**
+	 * Removes the cells after the first cells of the path.
+	 * @param newLength number of cells to keep
+	 */
+	void truncate(int newLength) {
+		while (length > newLength) {
+			pop();
+		}
+	}
+
+	/**
+	 * Removes every cell of the path.
+	 */
+	void clear() {
+		if (bits == null) {
+			mask = 0;
+			length = 0;
+		}
+		else {
+			truncate(0);
+		}
+	}
+}
@@ -0,0 +1,131 @@
+import java.util.Arrays;
+
+/**
+ * This class walks a lexicon one step at a time, which lets a
+ * caller build a word letter by letter and learn after each step
+ * whether the letters so far form a word and whether any word
+ * continues from them. A step may consist of several characters,
+ * such as the "Qu" cell of a Boggle board, and can be undone with
+ * retreat().
+ *
+ * Letters are converted to lowercase as they are stepped through.
+ * Stepping and retreating do not allocate once the cursor has
+ * reached its deepest depth.
+ * @author rpathire
+ *
+ */
+public class PrefixCursor {
+	/** Initial number of steps the cursor can hold */
+	private static final int INITIAL_DEPTH = 16;
+
+	/** Lexicon being walked */
+	private final Lexicon lexicon;
+
+	/** Node reached after each step, the root being at index 0 */
+	private int[] path;
+
+	/** Number of steps taken */
+	private int depth;
+
+	/**
+	 * Constructs a cursor positioned at the root of the lexicon.
+	 * @param lexicon lexicon to walk, cannot be null
+	 */
+	public PrefixCursor(Lexicon lexicon) {
+		this.lexicon = lexicon;
+		path = new int[INITIAL_DEPTH + 1];
+		path[0] = Lexicon.ROOT;
+	}
+
+	/**
+	 * Steps through the character. The step is only taken if some
+	 * word starts with the resulting prefix.
+	 * @param c character to step through
+	 * @return whether the step was taken.
+	 */
+	public boolean advance(char c) {
+		int node = lexicon.child(path[depth], Character.toLowerCase(c));
+		if (node == Lexicon.NONE || !lexicon.hasWords(node))
+			return false;
+		push(node);
+		return true;
+	}
+
+	/**
+	 * Steps through all characters of the letters as a single step.
+	 * The step is only taken if some word starts with the resulting
+	 * prefix. Otherwise the cursor is left unchanged.
+	 * @param letters characters to step through, cannot be empty
+	 * @return whether the step was taken.
+	 */
+	public boolean advance(CharSequence letters) {
+		int node = path[depth];
+		for (int i = 0; i < letters.length() && node != Lexicon.NONE; i++) {
+			node = lexicon.child(node, Character.toLowerCase(letters.charAt(i)));
+		}
+		if (node == Lexicon.NONE || !lexicon.hasWords(node))
+			return false;
+		push(node);
+		return true;
+	}
+
+	/**
+	 * Undoes the last step taken.
+	 * @throws IllegalStateException if no step has been taken.
+	 */
+	public void retreat() throws IllegalStateException {
+		if (depth == 0)
+			throw new IllegalStateException();
+		depth--;
+	}
+
+	/**
+	 * Moves the cursor back to the root.
+	 */
+	public void reset() {
+		depth = 0;
+	}
+
+	/**
+	 * Returns number of steps taken since the root.
+	 * @return number of steps taken.
+	 */
+	public int depth() {
+		return depth;
+	}
+
+	/**
+	 * Returns whether the letters stepped through form a word.
+	 * @return whether the current prefix is a word.
+	 */
+	public boolean isWord() {
+		return lexicon.isWord(path[depth]);
+	}
+
+	/**
+	 * Returns whether some word starts with the letters stepped
+	 * through, the current prefix being a word included.
+	 * @return whether the current prefix leads to a word.
+	 */
+	public boolean hasWords() {
+		return lexicon.hasWords(path[depth]);
+	}
+
+	/**
+	 * Returns the lexicon node the cursor is positioned at.
+	 * @return current lexicon node.
+	 */
+	public int node() {
+		return path[depth];
+	}
+
+	/**
+	 * Records a step to the node.
+	 * @param node node reached by the step
+	 */
+	private void push(int node) {
+		if (depth + 1 == path.length)
+			path = Arrays.copyOf(path, path.length * 2);
+		path[++depth] = node;
+	}
+}
@@ -0,0 +1,150 @@
+import java.util.Arrays;
+
+/**
+ * This class holds every prefix of the words of a lexicon read
+ * backwards, from its last letter to its first. Walking it from a
+ * cell of a board towards the start of a word finds the paths that
+ * spell a prefix ending at that cell without trying every starting
+ * cell, and the node of the prefix in the lexicon is kept so the rest
+ * of the word can be followed forwards from the same cell.
+ *
+ * Every string read backwards from a prefix is a node, so the trie
+ * holds about four times as many nodes as the lexicon. Only letters
+ * from 'a' to 'z' are indexed. The trie never changes once built and
+ * can be read by any number of threads.
+ * @author rpathire
+ *
+ */
+final class ReversePrefixTrie {
+	/** Prefixes read backwards */
+	private final WordTrie trie;
+
+	/** Lexicon node of the prefix spelled by each node, or NONE */
+	private final int[] prefixes;
+
+	/**
+	 * Constructs the trie of the prefixes of the lexicon leading to
+	 * at least one word.
+	 * @param lexicon lexicon of lowercase words, cannot be null
+	 */
+	ReversePrefixTrie(Lexicon lexicon) {
+		trie = new WordTrie();
+		index(lexicon, Lexicon.ROOT, new char[64], 0, null);
+
+		// Compacting renumbers the nodes, so the prefixes are only
+		// linked to their lexicon nodes afterwards
+		trie.compact();
+		prefixes = new int[trie.nodeCount()];
+		Arrays.fill(prefixes, Lexicon.NONE);
+		index(lexicon, Lexicon.ROOT, new char[64], 0, prefixes);
+	}
+
+	/**
+	 * Returns the node reached by reading the letters of a cell
+	 * backwards, "u" then "q" for the Qu cell.
+	 * @param node node of the letters read so far
+	 * @param code letter code of the cell
+	 * @return child node or NONE if no prefix ends with the letters.
+	 */
+	int child(int node, int code) {
+		if (code == BoggleBoard.QU) {
+			node = trie.child(node, 'u');
+			return node == Lexicon.NONE ? node : trie.child(node, 'q');
+		}
+		return trie.child(node, (char) ('a' + code));
+	}
+
+	/**
+	 * Returns the node reached by reading one more letter backwards.
+	 * @param node node of the letters read so far
+	 * @param c letter read
+	 * @return child node or NONE if no prefix ends with the letters.
+	 */
+	int child(int node, char c) {
+		return trie.child(node, c);
+	}
+
+	/**
+	 * Returns the first child of the node, the one with the smallest
+	 * letter.
+	 * @param node parent node
+	 * @return first child or NONE if the node has no children.
+	 */
+	int firstChild(int node) {
+		return trie.firstChild(node);
+	}
+
+	/**
+	 * Returns the next sibling of the node.
+	 * @param node node whose sibling to return
+	 * @return next sibling or NONE if the node is the last child.
+	 */
+	int nextSibling(int node) {
+		return trie.nextSibling(node);
+	}
+
+	/**
+	 * Returns the letter read to reach the node.
+	 * @param node node whose letter to return
+	 * @return letter of the node.
+	 */
+	char label(int node) {
+		return trie.label(node);
+	}
+
+	/**
+	 * Returns the lexicon node of the prefix whose letters, read
+	 * backwards, lead to the node.
+	 * @param node node of the letters read
+	 * @return lexicon node of the prefix, or NONE if the letters read
+	 * are not a whole prefix.
+	 */
+	int prefix(int node) {
+		// Only the reversed prefixes themselves were added as words
+		return trie.isWord(node) ? prefixes[node] : Lexicon.NONE;
+	}
+
+	/**
+	 * Adds the prefixes of the lexicon node and every node below it,
+	 * or links them to their lexicon nodes if prefixes is not null.
+	 * @param lexicon lexicon of the words
+	 * @param node lexicon node of the prefix
+	 * @param letters letters of the prefix, backwards from the end of
+	 * the array
+	 * @param length number of letters of the prefix
+	 * @param prefixes lexicon node of each node, or null while adding
+	 */
+	private void index(Lexicon lexicon, int node, char[] letters, int length,
+			int[] prefixes) {
+		if (length > 0) {
+			int start = letters.length - length;
+			if (prefixes == null) {
+				trie.add(letters, start, length);
+			}
+			else {
+				int n = Lexicon.ROOT;
+				for (int i = start; i < letters.length; i++) {
+					n = trie.child(n, letters[i]);
+				}
+				prefixes[n] = node;
+			}
+		}
+		for (int child = lexicon.firstChild(node); child != Lexicon.NONE;
+				child = lexicon.nextSibling(child)) {
+			char c = lexicon.label(child);
+			if (c < 'a' || c > 'z' || !lexicon.hasWords(child))
+				continue;
+			if (length == letters.length) {
+				// Keeps the letters at the end of a larger array
+				char[] larger = new char[2 * letters.length];
+				System.arraycopy(letters, 0, larger, letters.length, length);
+				letters = larger;
+			}
+
+			// The last letter of the prefix is read first, so it goes
+			// before the letters of the parent
+			letters[letters.length - length - 1] = c;
+			index(lexicon, child, letters, length + 1, prefixes);
+		}
+	}
+}
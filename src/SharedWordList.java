@@ -0,0 +1,252 @@
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * This class is a word list shared between threads, where readers
+ * never block. Readers look words up in a frozen snapshot of the
+ * list, and changes are made to a copy of the current snapshot which
+ * then replaces it, so readers keep using the snapshot they started
+ * with while a change is made. A whole new dictionary can be loaded
+ * the same way while lookups keep running.
+ *
+ * Writers take a lock so changes are not lost, but readers only read
+ * a volatile field. Every change copies the whole list, so changes
+ * are best made in batches with addWordList, subtract and intersect.
+ * @author rpathire
+ *
+ */
+public class SharedWordList {
+	/** Current snapshot, replaced as a whole by every change */
+	private volatile Snapshot current;
+
+	/** Lock serializing the writers */
+	private final Object writeLock;
+
+	/**
+	 * Constructs an empty shared word list.
+	 */
+	public SharedWordList() {
+		this(new WordList().freeze());
+	}
+
+	/**
+	 * Constructs a shared word list containing the words of the word
+	 * list. A frozen list is shared as it is, other lists are copied.
+	 *
+	 * @param words initial words, cannot be null
+	 */
+	public SharedWordList(WordList words) {
+		writeLock = new Object();
+		current = new Snapshot(frozen(words), 1);
+	}
+
+	/**
+	 * Returns the current words. The snapshot is frozen and does not
+	 * see later changes, so it can be used for a series of lookups or
+	 * to build a solver.
+	 *
+	 * @return frozen word list of the current words
+	 */
+	public WordList snapshot() {
+		return current.words;
+	}
+
+	/**
+	 * Returns the version of the current words, which grows by one
+	 * with every change.
+	 *
+	 * @return version of the current snapshot
+	 */
+	public long version() {
+		return current.version;
+	}
+
+	/**
+	 * Returns number of words in the current snapshot.
+	 *
+	 * @return number of words
+	 */
+	public int size() {
+		return current.words.size();
+	}
+
+	/**
+	 * Returns true if the current snapshot contains the word, as
+	 * checked by WordList.containsWord(CharSequence).
+	 *
+	 * @param word word to check
+	 *
+	 * @return whether the word is in the list
+	 */
+	public boolean containsWord(CharSequence word) {
+		return current.words.containsWord(word);
+	}
+
+	/**
+	 * Returns true if the current snapshot contains the word made of
+	 * a range of characters, as checked by
+	 * WordList.containsWord(char[], int, int).
+	 *
+	 * @param chars array holding the word
+	 * @param offset index of the first character of the word
+	 * @param length number of characters in the word
+	 *
+	 * @return whether the word is in the list
+	 *
+	 * @throws IndexOutOfBoundsException if the range is outside the array
+	 */
+	public boolean containsWord(char[] chars, int offset, int length)
+			throws IndexOutOfBoundsException {
+		return current.words.containsWord(chars, offset, length);
+	}
+
+	/**
+	 * Returns true if some word of the current snapshot starts with
+	 * the prefix, as checked by WordList.hasPrefix(CharSequence).
+	 *
+	 * @param prefix prefix to check
+	 *
+	 * @return whether a word in the list starts with the prefix
+	 */
+	public boolean hasPrefix(CharSequence prefix) {
+		return current.words.hasPrefix(prefix);
+	}
+
+	/**
+	 * Returns a new cursor over the current snapshot. The cursor
+	 * keeps walking that snapshot after later changes.
+	 *
+	 * @return new prefix cursor
+	 */
+	public PrefixCursor cursor() {
+		return current.words.cursor();
+	}
+
+	/**
+	 * Adds the word to the list, processed as by WordList.addWord.
+	 *
+	 * @param word word to add
+	 */
+	public void addWord(String word) {
+		synchronized (writeLock) {
+			WordList words = new WordList(current.words);
+			words.addWord(word);
+			publish(words);
+		}
+	}
+
+	/**
+	 * Adds all words of the word list to the list.
+	 *
+	 * @param other word list to add words from
+	 */
+	public void addWordList(WordList other) {
+		synchronized (writeLock) {
+			WordList words = new WordList(current.words);
+			words.addWordList(other);
+			publish(words);
+		}
+	}
+
+	/**
+	 * Removes all words of the word list from the list.
+	 *
+	 * @param other word list of the words to remove
+	 */
+	public void subtract(WordList other) {
+		synchronized (writeLock) {
+			WordList words = new WordList(current.words);
+			words.subtract(other);
+			publish(words);
+		}
+	}
+
+	/**
+	 * Removes all words not in the word list from the list.
+	 *
+	 * @param other word list of the words to keep
+	 */
+	public void intersect(WordList other) {
+		synchronized (writeLock) {
+			WordList words = new WordList(current.words);
+			words.intersect(other);
+			publish(words);
+		}
+	}
+
+	/**
+	 * Replaces all words of the list. A frozen list is shared as it
+	 * is, other lists are copied.
+	 *
+	 * @param words new words, cannot be null
+	 */
+	public void replace(WordList words) {
+		WordList replacement = frozen(words);
+		synchronized (writeLock) {
+			publish(replacement);
+		}
+	}
+
+	/**
+	 * Replaces all words of the list with the words of the file.
+	 * The file is loaded before the words are replaced, so lookups
+	 * keep using the previous words until it has been read.
+	 *
+	 * @param file file containing a word in each line, cannot be null
+	 *
+	 * @throws IOException if the file cannot be read, in which case
+	 * the words are unchanged
+	 */
+	public void reload(File file) throws IOException {
+		replace(new WordList(file).freeze());
+	}
+
+	/**
+	 * Compacts and freezes the words and makes them the current
+	 * snapshot. Must be called holding the write lock.
+	 *
+	 * @param words new words of the list
+	 */
+	private void publish(WordList words) {
+		if (!words.isFrozen()) {
+			words.trie().compact();
+			words.freeze();
+		}
+		current = new Snapshot(words, current.version + 1);
+	}
+
+	/**
+	 * Returns the list if it is frozen or a frozen copy of it.
+	 *
+	 * @param words list to freeze
+	 * @return frozen list of the words.
+	 */
+	private static WordList frozen(WordList words) {
+		if (words.isFrozen())
+			return words;
+		WordList copy = new WordList(words);
+		copy.trie().compact();
+		return copy.freeze();
+	}
+
+	/**
+	 * Frozen words with their version, published together.
+	 * @author rpathire
+	 *
+	 */
+	private static class Snapshot {
+		/** Frozen words */
+		final WordList words;
+
+		/** Version of the words */
+		final long version;
+
+		/**
+		 * Constructs a snapshot.
+		 */
+		Snapshot(WordList words, long version) {
+			this.words = words;
+			this.version = version;
+		}
+	}
+}
@@ -0,0 +1,439 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * This class caches the words of solved boards, so boards played
+ * again are not solved again. Entries are keyed by the canonical
+ * letter codes of the board together with the fingerprint of the
+ * words it was solved with, so rotations and reflections of a board
+ * share an entry, and entries solved with other words are never
+ * returned after the shared word list changes.
+ *
+ * At most a given number of boards are kept in memory, the least
+ * recently used being evicted first. If a store directory is given,
+ * evicted entries are written to it, one file per entry named after
+ * a 128 bit digest of the board, and boards missing from memory are
+ * looked up there before being solved, so solutions survive
+ * restarts. flush() writes the entries still in memory.
+ *
+ * A cache can be used by many threads. Boards are solved outside the
+ * lock of the cache, so two threads missing the same board at the
+ * same time both solve it.
+ * @author rpathire
+ *
+ */
+public class SolutionCache {
+	/** First int of every store file, "BGSC" in ASCII */
+	private static final int MAGIC = 0x42475343;
+
+	/** Suffix of the store files */
+	private static final String SUFFIX = ".sol";
+
+	/** Number of bytes of the digest naming a store file */
+	private static final int DIGEST_BYTES = 16;
+
+	/** Word list boards are solved with */
+	private final SharedWordList dictionary;
+
+	/** Maximum number of entries kept in memory */
+	private final int maxEntries;
+
+	/** Directory evicted entries are written to, or null */
+	private final File store;
+
+	/** Entries in memory, least recently used first */
+	private final LinkedHashMap<Key, SortedSet<String>> entries;
+
+	/** Words and solver of the snapshot last solved with, per thread */
+	private final ThreadLocal<Solver> solvers;
+
+	/** Fingerprint of the snapshot last solved with */
+	private volatile Fingerprint fingerprint;
+
+	/** Entry evicted by the last put, to write out after unlocking */
+	private Map.Entry<Key, SortedSet<String>> evicted;
+
+	/** Number of boards found in memory */
+	private long hits;
+
+	/** Number of boards found in the store */
+	private long storeHits;
+
+	/** Number of boards solved */
+	private long misses;
+
+	/** Number of entries evicted from memory */
+	private long evictions;
+
+	/**
+	 * Constructs a cache keeping solutions in memory only.
+	 * @param dictionary word list to solve boards with, cannot be null
+	 * @param maxEntries maximum number of boards kept in memory
+	 * @throws IllegalArgumentException if maxEntries is not positive.
+	 */
+	public SolutionCache(SharedWordList dictionary, int maxEntries)
+			throws IllegalArgumentException {
+		this(dictionary, maxEntries, null);
+	}
+
+	/**
+	 * Constructs a cache writing evicted solutions to the store.
+	 * @param dictionary word list to solve boards with, cannot be null
+	 * @param maxEntries maximum number of boards kept in memory
+	 * @param store directory to write evicted solutions to, created
+	 * if needed, or null to keep solutions in memory only
+	 * @throws IllegalArgumentException if maxEntries is not positive.
+	 */
+	public SolutionCache(SharedWordList dictionary, int maxEntries, File store)
+			throws IllegalArgumentException {
+		if (maxEntries <= 0)
+			throw new IllegalArgumentException();
+		this.dictionary = dictionary;
+		this.maxEntries = maxEntries;
+		this.store = store;
+		if (store != null)
+			store.mkdirs();
+		solvers = new ThreadLocal<Solver>();
+
+		// Access order makes the eldest entry the least recently used
+		entries = new LinkedHashMap<Key, SortedSet<String>>(16, 0.75f, true) {
+			protected boolean removeEldestEntry(Map.Entry<Key, SortedSet<String>> e) {
+				if (size() <= SolutionCache.this.maxEntries)
+					return false;
+				evicted = e;
+				evictions++;
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Returns the words that can be traced on the board with the
+	 * current words of the dictionary, solving the board only if it
+	 * is not cached.
+	 * @param board board to solve, cannot be null
+	 * @return unmodifiable sorted set of the lowercase words found.
+	 */
+	public SortedSet<String> solve(BoggleBoard board) {
+		WordList words = dictionary.snapshot();
+		Key key = new Key(fingerprint(words), board);
+		synchronized (this) {
+			SortedSet<String> found = entries.get(key);
+			if (found != null) {
+				hits++;
+				return found;
+			}
+		}
+
+		// Looks in the store, then solves the board
+		SortedSet<String> found = read(key);
+		boolean stored = found != null;
+		if (!stored)
+			found = Collections.unmodifiableSortedSet(solver(words).solve(board));
+		Map.Entry<Key, SortedSet<String>> spilled;
+		synchronized (this) {
+			if (stored)
+				storeHits++;
+			else
+				misses++;
+			entries.put(key, found);
+			spilled = evicted;
+			evicted = null;
+		}
+		if (spilled != null)
+			write(spilled.getKey(), spilled.getValue());
+		return found;
+	}
+
+	/**
+	 * Writes every entry in memory to the store, so they can be read
+	 * back after a restart. Does nothing without a store.
+	 */
+	public void flush() {
+		if (store == null)
+			return;
+		Map<Key, SortedSet<String>> copy;
+		synchronized (this) {
+			copy = new HashMap<Key, SortedSet<String>>(entries);
+		}
+		for (Map.Entry<Key, SortedSet<String>> e : copy.entrySet()) {
+			write(e.getKey(), e.getValue());
+		}
+	}
+
+	/**
+	 * Removes every entry from memory. The store is left as it is.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Returns number of boards in memory.
+	 * @return number of entries in memory.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Returns number of boards found in memory.
+	 * @return number of memory hits.
+	 */
+	public synchronized long hits() {
+		return hits;
+	}
+
+	/**
+	 * Returns number of boards found in the store.
+	 * @return number of store hits.
+	 */
+	public synchronized long storeHits() {
+		return storeHits;
+	}
+
+	/**
+	 * Returns number of boards that had to be solved.
+	 * @return number of misses.
+	 */
+	public synchronized long misses() {
+		return misses;
+	}
+
+	/**
+	 * Returns number of entries evicted from memory.
+	 * @return number of evictions.
+	 */
+	public synchronized long evictions() {
+		return evictions;
+	}
+
+	/**
+	 * Returns the fingerprint of the snapshot, computing it the first
+	 * time the snapshot is seen.
+	 * @param words snapshot of the dictionary
+	 * @return fingerprint of the snapshot.
+	 */
+	private long fingerprint(WordList words) {
+		Fingerprint f = fingerprint;
+		if (f == null || f.words != words) {
+			f = new Fingerprint(words, words.fingerprint());
+			fingerprint = f;
+		}
+		return f.value;
+	}
+
+	/**
+	 * Returns the solver of the calling thread for the snapshot,
+	 * building it the first time the thread sees the snapshot.
+	 * @param words snapshot of the dictionary
+	 * @return solver finding words of the snapshot.
+	 */
+	private BoggleSolver solver(WordList words) {
+		Solver s = solvers.get();
+		if (s == null || s.words != words) {
+			s = new Solver(words);
+			solvers.set(s);
+		}
+		return s.solver;
+	}
+
+	/**
+	 * Returns the store file of the entry, named after the fingerprint
+	 * and the digest of the canonical codes. Unlike the 32 bit hash
+	 * of the key, the digest is long enough for boards never to share
+	 * a file in practice.
+	 * @param key key of the entry
+	 * @return file of the entry.
+	 */
+	private File file(Key key) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException e) {
+			// Every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+		byte[] sum = digest.digest(key.codes);
+		StringBuilder name = new StringBuilder(String.format("%016x-", key.dictionary));
+		for (int i = 0; i < DIGEST_BYTES; i++) {
+			name.append(Character.forDigit(sum[i] >> 4 & 0xf, 16));
+			name.append(Character.forDigit(sum[i] & 0xf, 16));
+		}
+		return new File(store, name.append(SUFFIX).toString());
+	}
+
+	/**
+	 * Writes the entry to the store. Entries that cannot be written
+	 * are dropped, as they can be solved again.
+	 * @param key key of the entry
+	 * @param found words of the entry
+	 */
+	private void write(Key key, SortedSet<String> found) {
+		if (store == null)
+			return;
+		// Writes a temporary file first so readers never see half of it
+		File target = file(key);
+		File temp = new File(store, target.getName() + "." +
+				Thread.currentThread().getId() + ".tmp");
+		try {
+			DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(new FileOutputStream(temp)));
+			try {
+				out.writeInt(MAGIC);
+				out.writeLong(key.dictionary);
+				out.writeInt(key.codes.length);
+				out.write(key.codes);
+				out.writeInt(found.size());
+				for (String w : found) {
+					out.writeUTF(w);
+				}
+			}
+			finally {
+				out.close();
+			}
+			if (!temp.renameTo(target)) {
+				target.delete();
+				temp.renameTo(target);
+			}
+		}
+		catch (IOException e) {
+			temp.delete();
+		}
+	}
+
+	/**
+	 * Reads the entry from the store.
+	 * @param key key of the entry
+	 * @return words of the entry, or null if it is not in the store.
+	 */
+	private SortedSet<String> read(Key key) {
+		if (store == null)
+			return null;
+		File f = file(key);
+		if (!f.isFile())
+			return null;
+		try {
+			DataInputStream in = new DataInputStream(
+					new BufferedInputStream(new FileInputStream(f)));
+			try {
+				// Files of other boards with the same digest are ignored
+				if (in.readInt() != MAGIC || in.readLong() != key.dictionary ||
+						in.readInt() != key.codes.length)
+					return null;
+				byte[] codes = new byte[key.codes.length];
+				in.readFully(codes);
+				if (!Arrays.equals(codes, key.codes))
+					return null;
+				SortedSet<String> found = new TreeSet<String>();
+				for (int i = in.readInt(); i > 0; i--) {
+					found.add(in.readUTF());
+				}
+				return Collections.unmodifiableSortedSet(found);
+			}
+			finally {
+				in.close();
+			}
+		}
+		catch (IOException e) {
+			// Unreadable entries are solved again
+			return null;
+		}
+	}
+
+	/**
+	 * Key of a solved board: its canonical codes and the fingerprint
+	 * of the words it was solved with.
+	 * @author rpathire
+	 *
+	 */
+	private static class Key {
+		/** Fingerprint of the words */
+		final long dictionary;
+
+		/** Canonical letter codes of the board */
+		final byte[] codes;
+
+		/** Hash of the key */
+		private final int hash;
+
+		/**
+		 * Constructs the key of the board.
+		 */
+		Key(long dictionary, BoggleBoard board) {
+			this.dictionary = dictionary;
+			codes = board.canonicalCodes();
+			hash = 31 * Long.hashCode(dictionary) + Arrays.hashCode(codes);
+		}
+
+		public int hashCode() {
+			return hash;
+		}
+
+		public boolean equals(Object o) {
+			if (!(o instanceof Key))
+				return false;
+			Key k = (Key) o;
+			return hash == k.hash && dictionary == k.dictionary &&
+					Arrays.equals(codes, k.codes);
+		}
+	}
+
+	/**
+	 * Fingerprint of a snapshot of the dictionary.
+	 * @author rpathire
+	 *
+	 */
+	private static class Fingerprint {
+		/** Snapshot of the dictionary */
+		final WordList words;
+
+		/** Fingerprint of the snapshot */
+		final long value;
+
+		/**
+		 * Constructs a fingerprint.
+		 */
+		Fingerprint(WordList words, long value) {
+			this.words = words;
+			this.value = value;
+		}
+	}
+
+	/**
+	 * Solver of a snapshot of the dictionary.
+	 * @author rpathire
+	 *
+	 */
+	private static class Solver {
+		/** Snapshot of the dictionary */
+		final WordList words;
+
+		/** Solver finding words of the snapshot */
+		final BoggleSolver solver;
+
+		/**
+		 * Constructs a solver of the snapshot.
+		 */
+		Solver(WordList words) {
+			this.words = words;
+			solver = new BoggleSolver(words);
+		}
+	}
+}
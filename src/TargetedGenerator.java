@@ -0,0 +1,385 @@
+import java.io.File;
+import java.util.SortedSet;
+import java.util.SplittableRandom;
+
+/**
+ * This class generates boards meeting targets for the number of
+ * words, the score and the ratio of vowels, instead of drawing
+ * boards and solving each one until one is good enough.
+ *
+ * Boards are drawn from the Loggle distribution and their vowels
+ * are fixed up first, as that needs no solving. The closest of a few
+ * boards to the targets is then improved one cell at a time: a cell
+ * is given another letter drawn from the distribution, and the change
+ * is kept unless it takes the board further from its targets.
+ * Changes breaking the vowel ratio are rejected before anything is
+ * counted. A board still short of its targets after a number of
+ * changes is dropped for a new one.
+ *
+ * On boards smaller than 8x8 a change is scored by counting the whole
+ * board again, which costs about as much as recounting the paths
+ * through the changed cell. With 100 words wanted on 4x4 boards, the
+ * generator returns about 300 boards/s with the 20k word fixture and
+ * about 1400 boards/s with a 270k word list, on which most drawn
+ * boards already meet the target. On 8x8 boards and larger only the
+ * paths through the changed cell are recounted, twice as fast as a
+ * recount on 8x8 and ten times on 15x15, but that needs every prefix
+ * of the dictionary indexed backwards. The index is built by the first
+ * change on such a board, takes about four times the memory of the
+ * dictionary and a few seconds for the largest word lists, and is kept
+ * for the life of the generator. Reuse one generator for many boards
+ * rather than building one per board.
+ *
+ * The boards are not uniform among the boards meeting the targets,
+ * they lean towards the letters that make many words. A generator
+ * must only be used by one thread at a time, and the dictionary must
+ * not change while it is in use.
+ * @author rpathire
+ *
+ */
+public class TargetedGenerator {
+	/** Default number of changes tried before starting a new board */
+	public static final int DEFAULT_MAX_STEPS = 2000;
+
+	/** Default number of boards started before giving up */
+	public static final int DEFAULT_MAX_RESTARTS = 1000;
+
+	/** Number of fresh boards drawn before climbing from the closest */
+	private static final int DRAWS = 8;
+
+	/** Letter codes of the vowels A, E, I, O and U, as bits */
+	private static final int VOWELS = 1 << 0 | 1 << 4 | 1 << 8 | 1 << 14 | 1 << 20;
+
+	/** Counter of the paths of the current board */
+	private final PathCounter counter;
+
+	/** Source of the random letters and cells */
+	private final SplittableRandom rand;
+
+	/** Letter codes of the Loggle distribution */
+	private final byte[] distribution;
+
+	/** Minimum number of words */
+	private int minWords;
+
+	/** Minimum score */
+	private int minScore;
+
+	/** Minimum ratio of vowels to cells */
+	private double minVowelRatio;
+
+	/** Maximum ratio of vowels to cells */
+	private double maxVowelRatio;
+
+	/** Number of changes tried before starting a new board */
+	private int maxSteps;
+
+	/** Number of boards started before giving up */
+	private int maxRestarts;
+
+	/** Number of boards returned */
+	private long accepted;
+
+	/** Number of boards started */
+	private long started;
+
+	/** Number of changes tried */
+	private long steps;
+
+	/** Number of changes rejected without counting paths */
+	private long earlyRejections;
+
+	/**
+	 * Constructs a generator of boards whose words are found in the
+	 * dictionary. No targets are set, so every board is accepted.
+	 * @param dictionary word list the words are found in, cannot be null
+	 * @param seed seed of the sequence of boards
+	 */
+	public TargetedGenerator(WordList dictionary, long seed) {
+		counter = new PathCounter(dictionary.trie());
+		rand = new SplittableRandom(seed);
+		distribution = BoggleBoard.letterDistribution();
+		maxVowelRatio = 1;
+		maxSteps = DEFAULT_MAX_STEPS;
+		maxRestarts = DEFAULT_MAX_RESTARTS;
+	}
+
+	/**
+	 * Sets the minimum number of distinct words of the boards.
+	 * @param minWords minimum number of words
+	 * @throws IllegalArgumentException if minWords is negative.
+	 */
+	public void setMinWords(int minWords) throws IllegalArgumentException {
+		if (minWords < 0)
+			throw new IllegalArgumentException();
+		this.minWords = minWords;
+	}
+
+	/**
+	 * Sets the minimum total score of the words of the boards.
+	 * @param minScore minimum score
+	 * @throws IllegalArgumentException if minScore is negative.
+	 */
+	public void setMinScore(int minScore) throws IllegalArgumentException {
+		if (minScore < 0)
+			throw new IllegalArgumentException();
+		this.minScore = minScore;
+	}
+
+	/**
+	 * Sets the range of the ratio of vowel cells to all cells of the
+	 * boards. The Qu cell is not a vowel.
+	 * @param min minimum ratio of vowels
+	 * @param max maximum ratio of vowels
+	 * @throws IllegalArgumentException if the range is empty or not
+	 * within [0, 1].
+	 */
+	public void setVowelRatio(double min, double max)
+			throws IllegalArgumentException {
+		if (!(0 <= min && min <= max && max <= 1))
+			throw new IllegalArgumentException();
+		minVowelRatio = min;
+		maxVowelRatio = max;
+	}
+
+	/**
+	 * Sets the number of changes tried on a board before starting a
+	 * new one.
+	 * @param maxSteps number of changes per board
+	 * @throws IllegalArgumentException if maxSteps is negative.
+	 */
+	public void setMaxSteps(int maxSteps) throws IllegalArgumentException {
+		if (maxSteps < 0)
+			throw new IllegalArgumentException();
+		this.maxSteps = maxSteps;
+	}
+
+	/**
+	 * Sets the number of boards started by next() before giving up.
+	 * @param maxRestarts number of boards started
+	 * @throws IllegalArgumentException if maxRestarts is not positive.
+	 */
+	public void setMaxRestarts(int maxRestarts) throws IllegalArgumentException {
+		if (maxRestarts <= 0)
+			throw new IllegalArgumentException();
+		this.maxRestarts = maxRestarts;
+	}
+
+	/**
+	 * Returns a board meeting the targets.
+	 * @param size size of the board
+	 * @return new board of dimension size x size, or null if no board
+	 * meeting the targets was found within the allowed restarts.
+	 * @throws IllegalArgumentException if size is not positive.
+	 */
+	public BoggleBoard next(int size) throws IllegalArgumentException {
+		if (size <= 0)
+			throw new IllegalArgumentException();
+		int cellCount = size * size;
+		int minVowels = (int) Math.ceil(minVowelRatio * cellCount);
+		int maxVowels = (int) Math.floor(maxVowelRatio * cellCount);
+		if (minVowels > maxVowels)
+			return null;
+		byte[] codes = new byte[cellCount];
+		byte[] closest = new byte[cellCount];
+
+		for (int restart = 0; restart < maxRestarts; restart++) {
+			started++;
+
+			// Loose targets are met faster by drawing a few boards, as
+			// counting a fresh board costs about as much as one change
+			int deficit = Integer.MAX_VALUE;
+			int vowels = 0;
+			for (int draw = 0; draw < DRAWS && deficit > 0; draw++) {
+				for (int cell = 0; cell < cellCount; cell++) {
+					codes[cell] = draw();
+				}
+				int v = fixVowels(codes, minVowels, maxVowels);
+				counter.reset(size, codes);
+				int d = deficit();
+				if (d < deficit) {
+					deficit = d;
+					vowels = v;
+					System.arraycopy(codes, 0, closest, 0, cellCount);
+				}
+			}
+			System.arraycopy(closest, 0, codes, 0, cellCount);
+			if (deficit > 0)
+				counter.reset(size, codes);
+
+			// Keeps the changes that do not take the board further away.
+			// The codes always hold the board, small boards are counted
+			// again after each change and may leave the counter behind.
+			boolean incremental = cellCount >= PathCounter.MIN_CHANGE_CELLS;
+			for (int step = 0; deficit > 0 && step < maxSteps; step++) {
+				steps++;
+				int cell = rand.nextInt(cellCount);
+				int old = codes[cell];
+				int code = draw();
+				int v = vowels - (VOWELS >>> old & 1) + (VOWELS >>> code & 1);
+				if (code == old || v < minVowels || v > maxVowels) {
+					earlyRejections++;
+					continue;
+				}
+				codes[cell] = (byte) code;
+				if (incremental)
+					counter.setCell(cell, code);
+				else
+					counter.reset(size, codes);
+				int d = deficit();
+				if (d <= deficit) {
+					deficit = d;
+					vowels = v;
+				}
+				else {
+					codes[cell] = (byte) old;
+					if (incremental)
+						counter.setCell(cell, old);
+				}
+			}
+			if (deficit == 0) {
+				accepted++;
+				return new BoggleBoard(size, codes);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns number of boards returned by next().
+	 * @return number of boards accepted.
+	 */
+	public long accepted() {
+		return accepted;
+	}
+
+	/**
+	 * Returns number of boards started, including the ones dropped
+	 * for falling short of the targets.
+	 * @return number of boards started.
+	 */
+	public long started() {
+		return started;
+	}
+
+	/**
+	 * Returns number of single cell changes tried.
+	 * @return number of changes.
+	 */
+	public long steps() {
+		return steps;
+	}
+
+	/**
+	 * Returns number of changes rejected without counting paths.
+	 * @return number of early rejections.
+	 */
+	public long earlyRejections() {
+		return earlyRejections;
+	}
+
+	/**
+	 * Returns how far the current board is from the word and score
+	 * targets.
+	 * @return missing words plus missing points, 0 if both are met.
+	 */
+	private int deficit() {
+		return Math.max(0, minWords - counter.words()) +
+				Math.max(0, minScore - counter.score());
+	}
+
+	/**
+	 * Draws a letter code from the Loggle distribution.
+	 * @return letter code.
+	 */
+	private byte draw() {
+		return distribution[rand.nextInt(distribution.length)];
+	}
+
+	/**
+	 * Redraws random cells until the number of vowels is in range.
+	 * @param codes letter codes of the board
+	 * @param minVowels minimum number of vowels
+	 * @param maxVowels maximum number of vowels
+	 * @return number of vowels of the board.
+	 */
+	private int fixVowels(byte[] codes, int minVowels, int maxVowels) {
+		int vowels = 0;
+		for (byte code : codes) {
+			vowels += VOWELS >>> code & 1;
+		}
+		while (vowels < minVowels || vowels > maxVowels) {
+			// Replaces a consonant by a vowel or a vowel by a consonant
+			int want = vowels < minVowels ? 0 : 1;
+			int cell = rand.nextInt(codes.length);
+			if ((VOWELS >>> codes[cell] & 1) != want)
+				continue;
+			byte code;
+			do {
+				code = draw();
+			} while ((VOWELS >>> code & 1) == want);
+			codes[cell] = code;
+			vowels += want == 0 ? 1 : -1;
+		}
+		return vowels;
+	}
+
+	/**
+	 * Generates boards meeting the targets and prints how many are
+	 * accepted per second, compared with drawing boards and solving
+	 * each one until one meets the targets.
+	 * @param args word list file, then optionally the size of the
+	 * boards, the minimum number of words, the minimum score and the
+	 * number of boards
+	 * @throws Exception if the word list cannot be read
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.err.println("usage: TargetedGenerator <word list> "
+					+ "[size] [min words] [min score] [boards]");
+			System.exit(1);
+		}
+		int size = args.length > 1 ?
+				Integer.parseInt(args[1]) : BoggleBoard.DEFAULT_SIZE;
+		int minWords = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+		int minScore = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+		int boards = args.length > 4 ? Integer.parseInt(args[4]) : 200;
+		WordList dictionary = new WordList(new File(args[0]));
+
+		TargetedGenerator generator = new TargetedGenerator(dictionary, 1);
+		generator.setMinWords(minWords);
+		generator.setMinScore(minScore);
+		long start = System.nanoTime();
+		for (int i = 0; i < boards; i++) {
+			if (generator.next(size) == null) {
+				System.out.println("targets not met");
+				return;
+			}
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("targeted: %.1f boards/s, %d started, %d changes"
+				+ " (%d rejected early)%n", boards / seconds, generator.started(),
+				generator.steps(), generator.earlyRejections());
+
+		// Draws boards until as many meet the targets or time runs out
+		BoggleSolver solver = new BoggleSolver(dictionary);
+		BoggleBoard.Generator uniform = new BoggleBoard.Generator(1);
+		long drawn = 0;
+		int found = 0;
+		start = System.nanoTime();
+		long limit = start + (long) Math.max(10e9, 2 * seconds * 1e9);
+		while (found < boards && System.nanoTime() < limit) {
+			drawn++;
+			int score = 0;
+			SortedSet<String> words = solver.solve(uniform.next(size));
+			for (String w : words) {
+				score += BoggleSolver.score(w);
+			}
+			if (words.size() >= minWords && score >= minScore)
+				found++;
+		}
+		seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("rejection: %.1f boards/s, %d drawn%n",
+				found / seconds, drawn);
+	}
+}
@@ -1,28 +1,35 @@
-import java.util.HashSet;
 import java.io.File;
-import java.io.FileReader;
-import java.io.BufferedReader;
 import java.io.IOException;
 
 /**
  * This class consists of methods that operate and manage
- * a list of valid words.
+ * a list of valid words. Words are stored in a trie, which allows
+ * prefixes to be checked as well as whole words.
+ *
+ * A word list is not thread safe while it changes. Once frozen it
+ * can no longer change, and can be read by any number of threads
+ * without locking once it has been safely published to them, for
+ * example through SharedWordList.
  * @author rpathire
  * 
  */
 public class WordList {
-	/** Collection to store list of words */
-	private HashSet<String> words;
+	/** Trie to store list of words */
+	private WordTrie words;
+	
+	/** Whether the list can no longer change */
+	private boolean frozen;
 	
 	/**
 	 * Constructs a new empty word list.
 	 */
 	public WordList() {
-		words = new HashSet<String>();
+		words = new WordTrie();
 	}
 	
 	/**
-	 * Constructs a word list from words from the file.
+	 * Constructs a word list from words from the file, which is
+	 * read as UTF-8 and split across threads by WordListLoader.
 	 * 
 	 * @param file File containing list of words in each line, cannot be null
 	 * 
@@ -30,20 +37,29 @@ public class WordList {
 	 * file load
 	 */
 	public WordList(File file) throws IOException {
-		words = new HashSet<String>();
-		
-		// Creates a BufferedReader to read words
-		BufferedReader in  = new BufferedReader(new FileReader(file));
-		
-		// Reads word in each line and adds it to list
-		while (true) {
-			String word = in.readLine();
-			if (word == null)
-				break;
-			addWord(word);
-		}
-		// Closes BufferedReader
-		in.close();
+		long start = Metrics.ENABLED ? System.nanoTime() : 0;
+		words = new WordListLoader().read(file);
+		if (Metrics.ENABLED)
+			Metrics.LOADS.recordSince(start);
+	}
+	
+	/**
+	 * Constructs a word list containing the words of another word
+	 * list. The new list is not frozen.
+	 * 
+	 * @param other word list to copy, cannot be null
+	 */
+	public WordList(WordList other) {
+		words = new WordTrie(other.words);
+	}
+	
+	/**
+	 * Constructs a word list storing its words in the trie.
+	 * 
+	 * @param words trie of the words, cannot be null
+	 */
+	WordList(WordTrie words) {
+		this.words = words;
 	}
 	
 	/**
@@ -62,8 +78,11 @@ public class WordList {
 	 * nothing.
 	 * 
 	 * @param word word to be added to the set
+	 * 
+	 * @throws IllegalStateException if the list is frozen
 	 */
-	public void addWord(String word) {
+	public void addWord(String word) throws IllegalStateException {
+		checkNotFrozen();
 		word = processWord(word);
 		if (word.length() != 0) {
 			words.add(word);
@@ -79,15 +98,167 @@ public class WordList {
 	 * @return whether the word is in the list
 	 */
 	public boolean containsWord(String word) {
-		return words.contains(processWord(word));
+		return containsWord((CharSequence) word);
+	}
+	
+	/**
+	 * Returns true if the list contains the specified word. Leading
+	 * and trailing whitespace is skipped and letters are converted to
+	 * lowercase while the word is looked up, so nothing is allocated.
+	 * 
+	 * @param word word to check in list
+	 * 
+	 * @return whether the word is in the list
+	 */
+	public boolean containsWord(CharSequence word) {
+		if (Metrics.ENABLED)
+			Metrics.LOOKUPS.increment();
+		int node = WordNormalizer.find(words, word);
+		return node != WordTrie.NONE && words.isWord(node);
+	}
+	
+	/**
+	 * Returns true if the list contains the word made of a range of
+	 * characters, processed as by containsWord(CharSequence).
+	 * 
+	 * @param chars array holding the word
+	 * @param offset index of the first character of the word
+	 * @param length number of characters in the word
+	 * 
+	 * @return whether the word is in the list
+	 * 
+	 * @throws IndexOutOfBoundsException if the range is outside the array
+	 */
+	public boolean containsWord(char[] chars, int offset, int length)
+			throws IndexOutOfBoundsException {
+		if (Metrics.ENABLED)
+			Metrics.LOOKUPS.increment();
+		int node = WordNormalizer.find(words, chars, offset, length);
+		return node != WordTrie.NONE && words.isWord(node);
+	}
+	
+	/**
+	 * Returns true if some word in the list starts with the
+	 * specified prefix. Before checking, method processes the argument.
+	 * 
+	 * @param prefix prefix to check in list
+	 * 
+	 * @return whether a word in the list starts with the prefix
+	 */
+	public boolean hasPrefix(String prefix) {
+		return hasPrefix((CharSequence) prefix);
 	}
 	
 	/**
-	 * Adds all words from another word list to this word list.
+	 * Returns true if some word in the list starts with the specified
+	 * prefix, processed as by containsWord(CharSequence).
+	 * 
+	 * @param prefix prefix to check in list
+	 * 
+	 * @return whether a word in the list starts with the prefix
+	 */
+	public boolean hasPrefix(CharSequence prefix) {
+		if (Metrics.ENABLED)
+			Metrics.PREFIX_CHECKS.increment();
+		int node = WordNormalizer.find(words, prefix);
+		return node != WordTrie.NONE && words.hasWords(node);
+	}
+	
+	/**
+	 * Returns true if some word in the list starts with the prefix
+	 * made of a range of characters, processed as by
+	 * containsWord(CharSequence).
+	 * 
+	 * @param chars array holding the prefix
+	 * @param offset index of the first character of the prefix
+	 * @param length number of characters in the prefix
+	 * 
+	 * @return whether a word in the list starts with the prefix
+	 * 
+	 * @throws IndexOutOfBoundsException if the range is outside the array
+	 */
+	public boolean hasPrefix(char[] chars, int offset, int length)
+			throws IndexOutOfBoundsException {
+		if (Metrics.ENABLED)
+			Metrics.PREFIX_CHECKS.increment();
+		int node = WordNormalizer.find(words, chars, offset, length);
+		return node != WordTrie.NONE && words.hasWords(node);
+	}
+	
+	/**
+	 * Returns a new cursor positioned at the empty prefix, which
+	 * can be stepped one letter (or Boggle cell) at a time.
+	 * The cursor sees later changes made to the list.
+	 * 
+	 * @return new prefix cursor over the list
+	 */
+	public PrefixCursor cursor() {
+		return new PrefixCursor(words);
+	}
+	
+	/**
+	 * Returns a 64 bit hash of the words of the list. Lists with the
+	 * same words have the same fingerprint, in this process or any
+	 * other, so it can tell whether results computed with a list are
+	 * still valid. The whole list is read to compute it.
+	 * 
+	 * @return fingerprint of the words
+	 */
+	public long fingerprint() {
+		// FNV-1a over the sorted words, each followed by a separator
+		final long[] hash = {0xcbf29ce484222325L};
+		words.forEachWord(new WordTrie.WordVisitor() {
+			public void visit(String word) {
+				long h = hash[0];
+				for (int i = 0; i < word.length(); i++) {
+					h = (h ^ word.charAt(i)) * 0x100000001b3L;
+				}
+				hash[0] = (h ^ '\n') * 0x100000001b3L;
+			}
+		});
+		return hash[0];
+	}
+	
+	/**
+	 * Makes the list read only. Later attempts to change it fail,
+	 * so it can be shared between threads without locking.
+	 * 
+	 * @return this word list
+	 */
+	public WordList freeze() {
+		frozen = true;
+		return this;
+	}
+	
+	/**
+	 * Returns whether the list is read only.
+	 * 
+	 * @return whether the list is frozen
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+	
+	/**
+	 * Returns the trie storing the words of the list.
+	 * 
+	 * @return trie of the list
+	 */
+	WordTrie trie() {
+		return words;
+	}
+	
+	/**
+	 * Adds all words from another word list to this word list. Words
+	 * of both lists are already processed, so the tries are merged
+	 * directly.
 	 * 
 	 * @param other word list to add words from
+	 * 
+	 * @throws IllegalStateException if the list is frozen
 	 */
-	public void addWordList(WordList other) {
+	public void addWordList(WordList other) throws IllegalStateException {
+		checkNotFrozen();
 		words.addAll(other.words);
 	}
 	
@@ -97,26 +268,53 @@ public class WordList {
 	 * other word list.
 	 * 
 	 * @param other word list to compute set difference
+	 * 
+	 * @throws IllegalStateException if the list is frozen
 	 */
-	public void subtract(WordList other) {
-		for (String w : other.words) {
-			// If the word appears in our list, we remove it
-			if (containsWord(w)) {
-				words.remove(w);
-			}
-		}
+	public void subtract(WordList other) throws IllegalStateException {
+		checkNotFrozen();
+		words.removeAll(other.words);
+	}
+	
+	/**
+	 * Computes the set intersection between the word lists. In other
+	 * words, this word list will only contain words also in the
+	 * other word list.
+	 * 
+	 * @param other word list to compute set intersection
+	 * 
+	 * @throws IllegalStateException if the list is frozen
+	 */
+	public void intersect(WordList other) throws IllegalStateException {
+		checkNotFrozen();
+		words.retainAll(other.words);
+	}
+	
+	/**
+	 * Checks that the list can still change.
+	 * 
+	 * @throws IllegalStateException if the list is frozen
+	 */
+	private void checkNotFrozen() throws IllegalStateException {
+		if (frozen)
+			throw new IllegalStateException();
 	}
 	
 	/**
 	 * Removes leading and trailing whitespace from word and returns
-	 * lower-case version of the word.
+	 * lower-case version of the word. Letters are converted one at a
+	 * time, the same way lookups convert them.
 	 * 
 	 * @param word word to be processed
 	 * 
 	 * @return new processed string
 	 */
 	private String processWord(String word) {
-		return word.trim().toLowerCase();
+		char[] chars = word.trim().toCharArray();
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = Character.toLowerCase(chars[i]);
+		}
+		return new String(chars);
 	}
 
 }
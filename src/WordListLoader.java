@@ -0,0 +1,393 @@
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class loads word files, with one word per line, into word
+ * lists. The file is read in chunks through a file channel and each
+ * chunk is cut after its last line break, so no line spans two chunks.
+ * Worker threads decode the chunks as UTF-8, normalize the words in
+ * place in the decoded characters and add them to a trie of their
+ * own. The tries are merged once the whole file has been read.
+ *
+ * Words are normalized as WordList.addWord does: leading and trailing
+ * whitespace is removed and letters are converted to lowercase. Lines
+ * may end with "\n", "\r\n" or "\r". A byte order mark at the start of
+ * the file is skipped and malformed bytes are replaced by U+FFFD.
+ *
+ * Only a few chunks are queued at a time, so memory use does not grow
+ * with the size of the file. A loader keeps the statistics of the last
+ * file it read and is not thread safe.
+ * @author rpathire
+ *
+ */
+public class WordListLoader {
+	/** Default number of bytes read at a time */
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+	/** Number of chunks that can wait for a worker, per worker */
+	private static final int QUEUED_PER_WORKER = 2;
+
+	/** Chunk telling a worker the file has been read */
+	private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+	/** UTF-8 byte order mark */
+	private static final byte[] BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+	/** Maximum number of worker threads */
+	private final int threads;
+
+	/** Number of bytes read at a time */
+	private final int chunkSize;
+
+	/** Number of lines in the last file read */
+	private long lines;
+
+	/** Number of distinct words in the last file read */
+	private int words;
+
+	/** Time taken to load the last file, in nanoseconds */
+	private long elapsed;
+
+	/**
+	 * Constructs a loader using a worker per processor.
+	 */
+	public WordListLoader() {
+		this(Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Constructs a loader.
+	 * @param threads maximum number of worker threads
+	 * @param chunkSize number of bytes read at a time
+	 * @throws IllegalArgumentException if threads or chunkSize is not
+	 * positive.
+	 */
+	public WordListLoader(int threads, int chunkSize)
+			throws IllegalArgumentException {
+		if (threads <= 0 || chunkSize <= 0)
+			throw new IllegalArgumentException();
+		this.threads = threads;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Loads the words of the file into a new word list.
+	 *
+	 * @param file file containing a word in each line, cannot be null
+	 * @return word list of the words of the file.
+	 *
+	 * @throws IOException if the file cannot be read
+	 */
+	public WordList load(File file) throws IOException {
+		return new WordList(read(file));
+	}
+
+	/**
+	 * Returns number of lines in the last file read, empty lines
+	 * included.
+	 * @return number of lines read.
+	 */
+	public long lines() {
+		return lines;
+	}
+
+	/**
+	 * Returns number of distinct words in the last file read.
+	 * @return number of words read.
+	 */
+	public int words() {
+		return words;
+	}
+
+	/**
+	 * Returns number of lines read per second from the last file.
+	 * @return lines read per second.
+	 */
+	public double linesPerSecond() {
+		return elapsed == 0 ? 0 : lines / (elapsed / 1e9);
+	}
+
+	/**
+	 * Reads the words of the file into a compacted trie.
+	 * @param file file containing a word in each line
+	 * @return trie of the words of the file.
+	 * @throws IOException if the file cannot be read
+	 */
+	WordTrie read(File file) throws IOException {
+		long start = System.nanoTime();
+		FileInputStream in = new FileInputStream(file);
+		try {
+			FileChannel channel = in.getChannel();
+
+			// Small files do not need all the workers
+			int workers = (int) Math.min(threads, channel.size() / chunkSize + 1);
+			BlockingQueue<ByteBuffer> chunks =
+					new ArrayBlockingQueue<ByteBuffer>(workers * QUEUED_PER_WORKER);
+			AtomicLong lineCount = new AtomicLong();
+			ExecutorService pool = Executors.newFixedThreadPool(workers);
+			List<Future<WordTrie>> results = new ArrayList<Future<WordTrie>>();
+			for (int i = 0; i < workers; i++) {
+				results.add(pool.submit(new Worker(chunks, lineCount)));
+			}
+			pool.shutdown();
+
+			try {
+				readChunks(channel, chunks, results);
+				for (int i = 0; i < workers; i++) {
+					put(chunks, END, results);
+				}
+
+				// Merges the tries of all workers into the first one
+				WordTrie trie = results.get(0).get();
+				for (int i = 1; i < workers; i++) {
+					trie.addAll(results.get(i).get());
+				}
+				trie.compact();
+
+				lines = lineCount.get();
+				words = trie.size();
+				elapsed = System.nanoTime() - start;
+				return trie;
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException();
+			}
+			catch (ExecutionException e) {
+				if (e.getCause() instanceof IOException)
+					throw (IOException) e.getCause();
+				throw new RuntimeException(e.getCause());
+			}
+			finally {
+				pool.shutdownNow();
+			}
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Reads the channel into chunks ending after a line break, "\n",
+	 * "\r" or "\r\n", and queues them for the workers. Lines longer than a chunk make
+	 * the chunk grow until the line fits.
+	 * @param channel channel to read
+	 * @param chunks queue of the workers
+	 * @param results results of the workers
+	 * @throws IOException if the channel cannot be read
+	 * @throws InterruptedException if interrupted while queueing
+	 * @throws ExecutionException if a worker failed
+	 */
+	private void readChunks(FileChannel channel, BlockingQueue<ByteBuffer> chunks,
+			List<Future<WordTrie>> results)
+			throws IOException, InterruptedException, ExecutionException {
+		ByteBuffer buffer = ByteBuffer.allocate(chunkSize);
+		boolean first = true;
+		while (channel.read(buffer) != -1) {
+			if (buffer.hasRemaining())
+				continue;
+
+			// Finds the end of the last complete line. A "\r" at the
+			// end of the buffer stays with the next chunk, as it may
+			// be followed by the "\n" of the same line break
+			int end = buffer.position();
+			while (end > 0 && !(buffer.get(end - 1) == '\n' ||
+					buffer.get(end - 1) == '\r' && end < buffer.position()))
+				end--;
+			if (end == 0) {
+				ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+				buffer.flip();
+				buffer = larger.put(buffer);
+				continue;
+			}
+
+			// Moves the partial line at the end to the next chunk
+			ByteBuffer next = ByteBuffer.allocate(buffer.capacity());
+			buffer.flip();
+			buffer.position(end);
+			next.put(buffer);
+			buffer.position(0);
+			buffer.limit(end);
+			if (first)
+				skipBom(buffer);
+			first = false;
+			put(chunks, buffer, results);
+			buffer = next;
+		}
+
+		// Queues the rest of the file, which may lack a final line break
+		buffer.flip();
+		if (first)
+			skipBom(buffer);
+		if (buffer.hasRemaining())
+			put(chunks, buffer, results);
+	}
+
+	/**
+	 * Moves the chunk past a byte order mark at its start.
+	 * @param chunk first chunk of the file
+	 */
+	private static void skipBom(ByteBuffer chunk) {
+		if (chunk.remaining() < BOM.length)
+			return;
+		for (int i = 0; i < BOM.length; i++) {
+			if (chunk.get(i) != BOM[i])
+				return;
+		}
+		chunk.position(BOM.length);
+	}
+
+	/**
+	 * Queues the chunk, giving up if a worker stopped early, which
+	 * only happens if it failed.
+	 * @param chunks queue of the workers
+	 * @param chunk chunk to queue
+	 * @param results results of the workers
+	 * @throws InterruptedException if interrupted while queueing
+	 * @throws ExecutionException if a worker failed
+	 */
+	private static void put(BlockingQueue<ByteBuffer> chunks, ByteBuffer chunk,
+			List<Future<WordTrie>> results)
+			throws InterruptedException, ExecutionException {
+		while (!chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+			for (Future<WordTrie> f : results) {
+				if (f.isDone())
+					f.get();
+			}
+		}
+	}
+
+	/**
+	 * Normalizes the lines of the characters in place and adds their
+	 * words to the trie.
+	 * @param trie trie to add words to
+	 * @param chars decoded characters of a chunk
+	 * @param length number of decoded characters
+	 * @return number of lines in the characters.
+	 */
+	static long addLines(WordTrie trie, char[] chars, int length) {
+		long lines = 0;
+		int start = 0;
+		for (int i = 0; i < length; i++) {
+			char c = chars[i];
+			if (c != '\n' && c != '\r')
+				continue;
+			addLine(trie, chars, start, i);
+			lines++;
+			// A "\r\n" pair ends a single line
+			if (c == '\r' && i + 1 < length && chars[i + 1] == '\n')
+				i++;
+			start = i + 1;
+		}
+		// The last line of the file may lack a line break
+		if (start < length) {
+			addLine(trie, chars, start, length);
+			lines++;
+		}
+		return lines;
+	}
+
+	/**
+	 * Normalizes the line in place and adds its word to the trie if
+	 * it is not empty.
+	 * @param trie trie to add the word to
+	 * @param chars decoded characters of a chunk
+	 * @param start index of the first character of the line
+	 * @param end index after the last character of the line
+	 */
+	private static void addLine(WordTrie trie, char[] chars, int start, int end) {
+		// Skips whitespace the same way String.trim() does
+		while (start < end && chars[start] <= ' ')
+			start++;
+		while (end > start && chars[end - 1] <= ' ')
+			end--;
+		for (int i = start; i < end; i++) {
+			chars[i] = Character.toLowerCase(chars[i]);
+		}
+		if (start < end)
+			trie.add(chars, start, end - start);
+	}
+
+	/**
+	 * Worker decoding chunks and adding their words to its own trie.
+	 * @author rpathire
+	 *
+	 */
+	private class Worker implements Callable<WordTrie> {
+		/** Chunks waiting to be decoded */
+		private final BlockingQueue<ByteBuffer> chunks;
+
+		/** Number of lines read by all workers */
+		private final AtomicLong lines;
+
+		/**
+		 * Constructs a worker.
+		 */
+		Worker(BlockingQueue<ByteBuffer> chunks, AtomicLong lines) {
+			this.chunks = chunks;
+			this.lines = lines;
+		}
+
+		/**
+		 * Decodes chunks until the end of the file is reached.
+		 */
+		public WordTrie call() throws InterruptedException {
+			CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+					.onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+			CharBuffer chars = CharBuffer.allocate(chunkSize);
+			WordTrie trie = new WordTrie();
+			for (ByteBuffer chunk = chunks.take(); chunk != END;
+					chunk = chunks.take()) {
+				// UTF-8 never needs more chars than bytes
+				if (chars.capacity() < chunk.remaining())
+					chars = CharBuffer.allocate(chunk.remaining());
+				chars.clear();
+				decoder.reset();
+				decoder.decode(chunk, chars, true);
+				decoder.flush(chars);
+				lines.addAndGet(addLines(trie, chars.array(), chars.position()));
+			}
+			return trie;
+		}
+	}
+
+	/**
+	 * Loads a word file from the command line and reports how fast
+	 * it was read. Arguments are the word file and optionally the
+	 * number of threads.
+	 * @param args command line arguments
+	 * @throws IOException if the file cannot be read.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("usage: WordListLoader <word list> [threads]");
+			System.exit(1);
+		}
+		int threads = args.length > 1 ?
+				Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		WordListLoader loader = new WordListLoader(threads, DEFAULT_CHUNK_SIZE);
+		loader.read(new File(args[0]));
+		System.out.printf("%d lines, %d words on %d threads: %.0f lines/s%n",
+				loader.lines(), loader.words(), threads, loader.linesPerSecond());
+	}
+}
@@ -0,0 +1,71 @@
+/**
+ * This class looks up words in a lexicon the way word lists normalize
+ * them, ignoring leading and trailing whitespace and comparing letters
+ * in lowercase. The characters are normalized one at a time while the
+ * lexicon is walked, so a lookup never allocates.
+ *
+ * Whitespace is anything String.trim() removes, and letters are
+ * converted with Character.toLowerCase(char).
+ * @author rpathire
+ *
+ */
+final class WordNormalizer {
+	/**
+	 * Not instantiable.
+	 */
+	private WordNormalizer() {
+	}
+
+	/**
+	 * Returns the node reached by following the normalized characters
+	 * of the sequence from the root.
+	 * @param lexicon lexicon to walk
+	 * @param s characters to follow
+	 * @return node for the characters or NONE if no such node exists.
+	 */
+	static int find(Lexicon lexicon, CharSequence s) {
+		// Skips whitespace the same way String.trim() does
+		int start = 0;
+		int end = s.length();
+		while (start < end && s.charAt(start) <= ' ')
+			start++;
+		while (end > start && s.charAt(end - 1) <= ' ')
+			end--;
+
+		int node = Lexicon.ROOT;
+		for (int i = start; i < end && node != Lexicon.NONE; i++) {
+			node = lexicon.child(node, Character.toLowerCase(s.charAt(i)));
+		}
+		return node;
+	}
+
+	/**
+	 * Returns the node reached by following the normalized characters
+	 * of the range from the root.
+	 * @param lexicon lexicon to walk
+	 * @param chars array holding the characters
+	 * @param offset index of the first character
+	 * @param length number of characters
+	 * @return node for the characters or NONE if no such node exists.
+	 * @throws IndexOutOfBoundsException if the range is outside the array.
+	 */
+	static int find(Lexicon lexicon, char[] chars, int offset, int length)
+			throws IndexOutOfBoundsException {
+		if (offset < 0 || length < 0 || offset + length > chars.length)
+			throw new IndexOutOfBoundsException();
+
+		// Skips whitespace the same way String.trim() does
+		int start = offset;
+		int end = offset + length;
+		while (start < end && chars[start] <= ' ')
+			start++;
+		while (end > start && chars[end - 1] <= ' ')
+			end--;
+
+		int node = Lexicon.ROOT;
+		for (int i = start; i < end && node != Lexicon.NONE; i++) {
+			node = lexicon.child(node, Character.toLowerCase(chars[i]));
+		}
+		return node;
+	}
+}
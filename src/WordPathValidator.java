@@ -0,0 +1,210 @@
+import java.util.Arrays;
+
+/**
+ * This class checks whether typed words can be traced on a board,
+ * moving between neighboring cells without using a cell twice. Words
+ * are normalized like word lists do, ignoring leading and trailing
+ * whitespace and comparing letters in lowercase. The letters "qu" can
+ * be traced through the Qu cell as well as through Q and U cells.
+ *
+ * The cells holding each letter are indexed when the validator is
+ * built, so a word is only traced from the cells holding its first
+ * letter, and is rejected without any search if it uses a letter more
+ * often than the board holds it. Checking a word allocates nothing. A
+ * validator belongs to a single thread at a time, build one per thread
+ * to check words of the same board concurrently.
+ * @author rpathire
+ *
+ */
+public class WordPathValidator {
+	/** Board words are traced on */
+	private final BoggleBoard board;
+
+	/** Cells holding each letter code, as ranges of positionCells */
+	private final int[] positionStart;
+
+	/** Cells of the board ordered by letter code */
+	private final int[] positionCells;
+
+	/** Letter codes of the word being traced */
+	private int[] codes;
+
+	/** Number of times each letter code is used by the word */
+	private final int[] needed;
+
+	/** Cells of the current path */
+	private final PathState path;
+
+	/**
+	 * Constructs a validator of words traced on the board.
+	 * @param board board to trace words on, cannot be null
+	 */
+	public WordPathValidator(BoggleBoard board) {
+		this.board = board;
+		int cells = board.cellCount();
+
+		// Counts the cells of each code, then fills the ranges
+		positionStart = new int[BoggleBoard.CODE_COUNT + 1];
+		for (int cell = 0; cell < cells; cell++) {
+			positionStart[board.getCellCode(cell) + 1]++;
+		}
+		for (int code = 0; code < BoggleBoard.CODE_COUNT; code++) {
+			positionStart[code + 1] += positionStart[code];
+		}
+		positionCells = new int[cells];
+		int[] next = positionStart.clone();
+		for (int cell = 0; cell < cells; cell++) {
+			positionCells[next[board.getCellCode(cell)]++] = cell;
+		}
+		codes = new int[16];
+		needed = new int[BoggleBoard.CODE_COUNT];
+		path = new PathState(cells);
+	}
+
+	/**
+	 * Returns the board words are traced on.
+	 * @return board of the validator.
+	 */
+	public BoggleBoard getBoard() {
+		return board;
+	}
+
+	/**
+	 * Returns whether the word can be traced on the board. Words with
+	 * characters other than letters cannot.
+	 * @param word word to trace
+	 * @return whether some path of the board spells the word.
+	 */
+	public boolean canTrace(CharSequence word) {
+		// Skips whitespace the same way String.trim() does
+		int start = 0;
+		int end = word.length();
+		while (start < end && word.charAt(start) <= ' ')
+			start++;
+		while (end > start && word.charAt(end - 1) <= ' ')
+			end--;
+		int length = end - start;
+		if (length == 0 || length > 2 * board.cellCount())
+			return false;
+		if (codes.length < length)
+			codes = new int[Math.max(length, 2 * codes.length)];
+
+		// Converts the letters to codes
+		for (int i = 0; i < length; i++) {
+			int code = Character.toLowerCase(word.charAt(start + i)) - 'a';
+			if (code < 0 || code >= 26)
+				return false;
+			codes[i] = code;
+		}
+
+		// Rejects words with a letter on fewer cells than it is used,
+		// q and u being checked once the pairs are counted
+		Arrays.fill(needed, 0);
+		int pairs = 0;
+		for (int i = 0; i < length; i++) {
+			int code = codes[i];
+			if (code == 'u' - 'a' && i > 0 && codes[i - 1] == 'q' - 'a')
+				pairs++;
+			if (++needed[code] > cellCount(code) &&
+					code != 'q' - 'a' && code != 'u' - 'a')
+				return false;
+		}
+
+		// Each Qu cell can stand in for the q and the u of one "qu"
+		int viaQu = Math.min(pairs, cellCount(BoggleBoard.QU));
+		if (needed['q' - 'a'] - viaQu > cellCount('q' - 'a') ||
+				needed['u' - 'a'] - viaQu > cellCount('u' - 'a'))
+			return false;
+
+		// Traces the word from every cell holding its first letter
+		path.clear();
+		return traceFrom(0, length, -1);
+	}
+
+	/**
+	 * Returns whether the word is valid on the board: at least
+	 * MIN_WORD_LENGTH letters long, in the dictionary and traceable.
+	 * @param word word to check
+	 * @param dictionary dictionary the word must be in, cannot be null
+	 * @return whether the word is valid.
+	 */
+	public boolean isValid(CharSequence word, WordList dictionary) {
+		int letters = 0;
+		for (int i = 0; i < word.length(); i++) {
+			if (word.charAt(i) > ' ')
+				letters++;
+		}
+		return letters >= BoggleSolver.MIN_WORD_LENGTH &&
+				dictionary.containsWord(word) && canTrace(word);
+	}
+
+	/**
+	 * Returns number of cells of the board holding the letter code.
+	 * @param code letter code
+	 * @return number of cells with the code.
+	 */
+	private int cellCount(int code) {
+		return positionStart[code + 1] - positionStart[code];
+	}
+
+	/**
+	 * Returns whether the letters of the word from the index can be
+	 * traced, starting from a cell next to the last cell of the path,
+	 * or from any cell if the path is empty.
+	 * @param index index of the next letter to trace
+	 * @param length number of letters of the word
+	 * @param last last cell of the path, or -1 if it is empty
+	 * @return whether the rest of the word can be traced.
+	 */
+	private boolean traceFrom(int index, int length, int last) {
+		if (index == length)
+			return true;
+		int code = codes[index];
+
+		// "qu" may go through a Qu cell
+		if (code == 'q' - 'a' && index + 1 < length && codes[index + 1] == 'u' - 'a' &&
+				traceCode(BoggleBoard.QU, index + 2, length, last))
+			return true;
+		return traceCode(code, index + 1, length, last);
+	}
+
+	/**
+	 * Returns whether a free cell holding the code, next to the last
+	 * cell of the path, continues into the rest of the word.
+	 * @param code letter code of the cell to add to the path
+	 * @param next index of the letter after the cell
+	 * @param length number of letters of the word
+	 * @param last last cell of the path, or -1 if it is empty
+	 * @return whether the rest of the word can be traced.
+	 */
+	private boolean traceCode(int code, int next, int length, int last) {
+		if (last < 0) {
+			// Starts from the indexed cells of the code
+			for (int i = positionStart[code]; i < positionStart[code + 1]; i++) {
+				if (traceCell(positionCells[i], next, length))
+					return true;
+			}
+			return false;
+		}
+		for (int neighbor : board.neighbors(last)) {
+			if (board.getCellCode(neighbor) == code && !path.contains(neighbor) &&
+					traceCell(neighbor, next, length))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Adds the cell to the path and traces the rest of the word.
+	 * @param cell cell to add to the path
+	 * @param next index of the letter after the cell
+	 * @param length number of letters of the word
+	 * @return whether the rest of the word can be traced.
+	 */
+	private boolean traceCell(int cell, int next, int length) {
+		path.push(cell);
+		boolean traced = traceFrom(next, length, cell);
+		path.pop();
+		return traced;
+	}
+}
@@ -0,0 +1,555 @@
+import java.util.Arrays;
+
+/**
+ * This class is a compact character trie used to store the words
+ * of a word list. Nodes are kept as fixed size records in a single
+ * primitive array instead of objects, so a node is only an index into
+ * that array and all fields of a node share a cache line. The
+ * children of a node form a linked list of siblings sorted by their
+ * label, which keeps memory small while still allowing words and
+ * prefixes to be looked up one character at a time.
+ *
+ * Words are stored exactly as given. Any normalization is the
+ * responsibility of the caller.
+ * @author rpathire
+ *
+ */
+public class WordTrie implements Lexicon {
+	/** Initial number of nodes allocated */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/** Number of ints in the record of a node */
+	private static final int STRIDE = 4;
+
+	/** Offset of the first (smallest labelled) child of a node */
+	private static final int FIRST_CHILD = 0;
+
+	/** Offset of the next sibling of a node, with a larger label */
+	private static final int NEXT_SIBLING = 1;
+
+	/** Offset of the label and terminal flag of a node */
+	private static final int LABEL = 2;
+
+	/** Offset of the number of words in the subtree of a node */
+	private static final int WORD_COUNT = 3;
+
+	/** Bits of the label field holding the label character */
+	private static final int LABEL_MASK = 0xFFFF;
+
+	/** Bit of the label field set when the node ends a word */
+	private static final int TERMINAL = 0x10000;
+
+	/** Records of all nodes */
+	private int[] nodes;
+
+	/** Number of nodes in use */
+	private int nodeCount;
+
+	/**
+	 * Constructs a trie containing no words.
+	 */
+	public WordTrie() {
+		nodes = new int[INITIAL_CAPACITY * STRIDE];
+		newNode('\0');
+	}
+
+	/**
+	 * Constructs a trie containing the same words as another trie,
+	 * with its nodes numbered the same way.
+	 * @param other trie to copy, cannot be null
+	 */
+	public WordTrie(WordTrie other) {
+		nodes = Arrays.copyOf(other.nodes, other.nodeCount * STRIDE);
+		nodeCount = other.nodeCount;
+	}
+
+	/**
+	 * Returns number of words in the trie.
+	 * @return number of words in the trie.
+	 */
+	public int size() {
+		return nodes[ROOT * STRIDE + WORD_COUNT];
+	}
+
+	/**
+	 * Returns number of nodes allocated by the trie, including nodes
+	 * left behind by removed words.
+	 * @return number of nodes in the trie.
+	 */
+	public int nodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Returns the child of the node reached through the given character.
+	 * @param node node to step from
+	 * @param c label of the child
+	 * @return child node or NONE if there is no such child.
+	 */
+	public int child(int node, char c) {
+		int n = nodes[node * STRIDE + FIRST_CHILD];
+		// Siblings are sorted, so we can stop at the first larger label
+		while (n != NONE) {
+			int label = nodes[n * STRIDE + LABEL] & LABEL_MASK;
+			if (label >= c)
+				return label == c ? n : NONE;
+			n = nodes[n * STRIDE + NEXT_SIBLING];
+		}
+		return NONE;
+	}
+
+	/**
+	 * Returns the first child of the node. Children are linked in
+	 * increasing order of their label.
+	 * @param node parent node
+	 * @return first child or NONE if the node has no children.
+	 */
+	public int firstChild(int node) {
+		return nodes[node * STRIDE + FIRST_CHILD];
+	}
+
+	/**
+	 * Returns the next sibling of the node.
+	 * @param node node whose sibling to return
+	 * @return next sibling or NONE if the node is the last child.
+	 */
+	public int nextSibling(int node) {
+		return nodes[node * STRIDE + NEXT_SIBLING];
+	}
+
+	/**
+	 * Returns the character labelling the edge into the node.
+	 * @param node node whose label to return
+	 * @return label of the node.
+	 */
+	public char label(int node) {
+		return (char) (nodes[node * STRIDE + LABEL] & LABEL_MASK);
+	}
+
+	/**
+	 * Returns whether the node ends a word.
+	 * @param node node to check
+	 * @return whether a word ends at the node.
+	 */
+	public boolean isWord(int node) {
+		return (nodes[node * STRIDE + LABEL] & TERMINAL) != 0;
+	}
+
+	/**
+	 * Returns whether any word passes through or ends at the node. In
+	 * other words, whether the prefix represented by the node is a
+	 * prefix of some word.
+	 * @param node node to check
+	 * @return whether the node leads to at least one word.
+	 */
+	public boolean hasWords(int node) {
+		return nodes[node * STRIDE + WORD_COUNT] != 0;
+	}
+
+	/**
+	 * Returns the node reached by following every character of the
+	 * string from the root.
+	 * @param s string to follow
+	 * @return node for the string or NONE if no such node exists.
+	 */
+	public int find(CharSequence s) {
+		int node = ROOT;
+		for (int i = 0; i < s.length() && node != NONE; i++) {
+			node = child(node, s.charAt(i));
+		}
+		return node;
+	}
+
+	/**
+	 * Returns whether the trie contains the word.
+	 * @param word word to look for
+	 * @return whether the word is in the trie.
+	 */
+	public boolean contains(CharSequence word) {
+		int node = find(word);
+		return node != NONE && isWord(node);
+	}
+
+	/**
+	 * Adds the word to the trie if not already present.
+	 * @param word word to add
+	 * @return whether the word was added.
+	 */
+	public boolean add(CharSequence word) {
+		// Walks down the trie, creating missing nodes on the way
+		int node = ROOT;
+		for (int i = 0; i < word.length(); i++) {
+			node = childOrCreate(node, word.charAt(i));
+		}
+		if (isWord(node))
+			return false;
+		nodes[node * STRIDE + LABEL] |= TERMINAL;
+
+		// Updates word counts along the path
+		node = ROOT;
+		nodes[node * STRIDE + WORD_COUNT]++;
+		for (int i = 0; i < word.length(); i++) {
+			node = child(node, word.charAt(i));
+			nodes[node * STRIDE + WORD_COUNT]++;
+		}
+		return true;
+	}
+
+	/**
+	 * Adds the word made of a range of characters to the trie if not
+	 * already present, without copying the characters.
+	 * @param chars array holding the word
+	 * @param offset index of the first character of the word
+	 * @param length number of characters in the word
+	 * @return whether the word was added.
+	 */
+	public boolean add(char[] chars, int offset, int length) {
+		// Walks down the trie, creating missing nodes on the way
+		int node = ROOT;
+		for (int i = offset; i < offset + length; i++) {
+			node = childOrCreate(node, chars[i]);
+		}
+		if (isWord(node))
+			return false;
+		nodes[node * STRIDE + LABEL] |= TERMINAL;
+
+		// Updates word counts along the path
+		node = ROOT;
+		nodes[node * STRIDE + WORD_COUNT]++;
+		for (int i = offset; i < offset + length; i++) {
+			node = child(node, chars[i]);
+			nodes[node * STRIDE + WORD_COUNT]++;
+		}
+		return true;
+	}
+
+	/**
+	 * Adds every word of another trie to this trie. Both tries are
+	 * walked side by side, so no word is built as a string, and the
+	 * nodes are allocated up front for the larger of the two tries.
+	 * @param other trie to add words from
+	 * @return number of words added.
+	 */
+	public int addAll(WordTrie other) {
+		if (other == this)
+			return 0;
+		ensureCapacity(Math.max(nodeCount, other.nodeCount));
+		return merge(ROOT, other, ROOT);
+	}
+
+	/**
+	 * Removes every word of another trie from this trie. Only the
+	 * branches found in both tries are walked.
+	 * @param other trie of the words to remove
+	 * @return number of words removed.
+	 */
+	public int removeAll(WordTrie other) {
+		if (other == this)
+			return retain(ROOT, other, NONE);
+		return remove(ROOT, other, ROOT);
+	}
+
+	/**
+	 * Removes every word of this trie not found in another trie.
+	 * @param other trie of the words to keep
+	 * @return number of words removed.
+	 */
+	public int retainAll(WordTrie other) {
+		if (other == this)
+			return 0;
+		return retain(ROOT, other, ROOT);
+	}
+
+	/**
+	 * Makes room for at least the given number of nodes.
+	 * @param capacity minimum number of nodes
+	 */
+	public void ensureCapacity(int capacity) {
+		if (capacity * STRIDE > nodes.length)
+			grow(capacity);
+	}
+
+	/**
+	 * Removes the word from the trie. Nodes of a removed word are
+	 * kept so they can be reused if the word is added again.
+	 * @param word word to remove
+	 * @return whether the word was removed.
+	 */
+	public boolean remove(CharSequence word) {
+		int node = find(word);
+		if (node == NONE || !isWord(node))
+			return false;
+		nodes[node * STRIDE + LABEL] &= ~TERMINAL;
+
+		// Updates word counts along the path
+		node = ROOT;
+		nodes[node * STRIDE + WORD_COUNT]--;
+		for (int i = 0; i < word.length(); i++) {
+			node = child(node, word.charAt(i));
+			nodes[node * STRIDE + WORD_COUNT]--;
+		}
+		return true;
+	}
+
+	/**
+	 * Releases capacity allocated for nodes that are not in use.
+	 * Useful once a large batch of words has been added.
+	 */
+	public void trimToSize() {
+		if (nodeCount * STRIDE < nodes.length)
+			nodes = Arrays.copyOf(nodes, nodeCount * STRIDE);
+	}
+
+	/**
+	 * Renumbers the nodes in breadth first order, so the children of
+	 * every node are stored next to each other, and drops nodes left
+	 * behind by removed words. Walking the trie is faster afterwards
+	 * as siblings share cache lines. Nodes obtained before compacting,
+	 * including those held by cursors, are no longer valid.
+	 */
+	public void compact() {
+		// Assigns new numbers to the nodes still leading to words
+		int[] order = new int[nodeCount];
+		int[] renumbered = new int[nodeCount];
+		int count = 0;
+		order[count++] = ROOT;
+		for (int head = 0; head < count; head++) {
+			for (int n = firstChild(order[head]); n != NONE; n = nextSibling(n)) {
+				if (hasWords(n)) {
+					renumbered[n] = count;
+					order[count++] = n;
+				}
+			}
+		}
+
+		// Copies the records in their new order
+		int[] packed = new int[count * STRIDE];
+		for (int i = 0; i < count; i++) {
+			packed[i * STRIDE + FIRST_CHILD] = NONE;
+			packed[i * STRIDE + NEXT_SIBLING] = NONE;
+		}
+		for (int i = 0; i < count; i++) {
+			int old = order[i];
+			packed[i * STRIDE + LABEL] = nodes[old * STRIDE + LABEL];
+			packed[i * STRIDE + WORD_COUNT] = nodes[old * STRIDE + WORD_COUNT];
+
+			// Links the children, which are now consecutive
+			int previous = NONE;
+			for (int n = firstChild(old); n != NONE; n = nextSibling(n)) {
+				if (!hasWords(n))
+					continue;
+				if (previous == NONE)
+					packed[i * STRIDE + FIRST_CHILD] = renumbered[n];
+				else
+					packed[previous * STRIDE + NEXT_SIBLING] = renumbered[n];
+				previous = renumbered[n];
+			}
+		}
+		nodes = packed;
+		nodeCount = count;
+	}
+
+	/**
+	 * Calls the visitor with every word of the trie in sorted order.
+	 * @param visitor visitor to call with each word
+	 */
+	public void forEachWord(WordVisitor visitor) {
+		visit(ROOT, new StringBuilder(), visitor);
+	}
+
+	/**
+	 * Recursively visits the words below the node.
+	 * @param node node to visit
+	 * @param prefix characters from the root to the node
+	 * @param visitor visitor to call with each word
+	 */
+	private void visit(int node, StringBuilder prefix, WordVisitor visitor) {
+		if (isWord(node))
+			visitor.visit(prefix.toString());
+		for (int n = firstChild(node); n != NONE; n = nextSibling(n)) {
+			// Skips branches without words left in them
+			if (!hasWords(n))
+				continue;
+			prefix.append(label(n));
+			visit(n, prefix, visitor);
+			prefix.setLength(prefix.length() - 1);
+		}
+	}
+
+	/**
+	 * Recursively adds the words below a node of another trie below
+	 * a node of this trie, updating word counts on the way back up.
+	 * @param node node of this trie
+	 * @param other trie to add words from
+	 * @param from node of the other trie for the same prefix
+	 * @return number of words added below the node.
+	 */
+	private int merge(int node, WordTrie other, int from) {
+		int added = 0;
+		if (other.isWord(from) && !isWord(node)) {
+			nodes[node * STRIDE + LABEL] |= TERMINAL;
+			added++;
+		}
+
+		// Both sibling lists are sorted, so each is walked only once
+		int prev = NONE;
+		int n = firstChild(node);
+		for (int o = other.firstChild(from); o != NONE; o = other.nextSibling(o)) {
+			// Skips branches without words left in them
+			if (!other.hasWords(o))
+				continue;
+			char c = other.label(o);
+			while (n != NONE && label(n) < c) {
+				prev = n;
+				n = nextSibling(n);
+			}
+			if (n == NONE || label(n) != c)
+				n = insertChild(node, prev, n, c);
+			added += merge(n, other, o);
+			prev = n;
+			n = nextSibling(n);
+		}
+		nodes[node * STRIDE + WORD_COUNT] += added;
+		return added;
+	}
+
+	/**
+	 * Recursively removes the words below a node of another trie from
+	 * below a node of this trie, updating word counts on the way back
+	 * up.
+	 * @param node node of this trie
+	 * @param other trie of the words to remove
+	 * @param from node of the other trie for the same prefix
+	 * @return number of words removed below the node.
+	 */
+	private int remove(int node, WordTrie other, int from) {
+		int removed = 0;
+		if (isWord(node) && other.isWord(from)) {
+			nodes[node * STRIDE + LABEL] &= ~TERMINAL;
+			removed++;
+		}
+
+		// Only follows the labels both nodes have children for
+		int n = firstChild(node);
+		for (int o = other.firstChild(from); o != NONE && n != NONE;
+				o = other.nextSibling(o)) {
+			if (!other.hasWords(o))
+				continue;
+			char c = other.label(o);
+			while (n != NONE && label(n) < c)
+				n = nextSibling(n);
+			if (n != NONE && label(n) == c && hasWords(n))
+				removed += remove(n, other, o);
+		}
+		nodes[node * STRIDE + WORD_COUNT] -= removed;
+		return removed;
+	}
+
+	/**
+	 * Recursively removes the words below a node of this trie that are
+	 * not below a node of another trie, updating word counts on the
+	 * way back up.
+	 * @param node node of this trie
+	 * @param other trie of the words to keep
+	 * @param from node of the other trie for the same prefix, or NONE
+	 * to remove every word below the node
+	 * @return number of words removed below the node.
+	 */
+	private int retain(int node, WordTrie other, int from) {
+		int removed = 0;
+		if (isWord(node) && (from == NONE || !other.isWord(from))) {
+			nodes[node * STRIDE + LABEL] &= ~TERMINAL;
+			removed++;
+		}
+
+		int o = from == NONE ? NONE : other.firstChild(from);
+		for (int n = firstChild(node); n != NONE; n = nextSibling(n)) {
+			if (!hasWords(n))
+				continue;
+			char c = label(n);
+			while (o != NONE && other.label(o) < c)
+				o = other.nextSibling(o);
+			boolean kept = o != NONE && other.label(o) == c && other.hasWords(o);
+			removed += retain(n, other, kept ? o : NONE);
+		}
+		nodes[node * STRIDE + WORD_COUNT] -= removed;
+		return removed;
+	}
+
+	/**
+	 * Returns the child of the node reached through the given
+	 * character, creating it if needed.
+	 * @param node node to step from
+	 * @param c label of the child
+	 * @return child node.
+	 */
+	private int childOrCreate(int node, char c) {
+		// Finds the position of the child in the sorted sibling list
+		int prev = NONE;
+		int n = firstChild(node);
+		while (n != NONE && label(n) < c) {
+			prev = n;
+			n = nextSibling(n);
+		}
+		if (n != NONE && label(n) == c)
+			return n;
+		return insertChild(node, prev, n, c);
+	}
+
+	/**
+	 * Links a new child of the node between two of its children.
+	 * @param node parent node
+	 * @param prev child before the new one, or NONE if it comes first
+	 * @param next child after the new one, or NONE if it comes last
+	 * @param c label of the new child
+	 * @return the new child.
+	 */
+	private int insertChild(int node, int prev, int next, char c) {
+		int created = newNode(c);
+		nodes[created * STRIDE + NEXT_SIBLING] = next;
+		if (prev == NONE)
+			nodes[node * STRIDE + FIRST_CHILD] = created;
+		else
+			nodes[prev * STRIDE + NEXT_SIBLING] = created;
+		return created;
+	}
+
+	/**
+	 * Allocates a new node without any children.
+	 * @param c label of the node
+	 * @return the new node.
+	 */
+	private int newNode(char c) {
+		if ((nodeCount + 1) * STRIDE > nodes.length)
+			grow(nodeCount + 1);
+		int node = nodeCount++;
+		nodes[node * STRIDE + FIRST_CHILD] = NONE;
+		nodes[node * STRIDE + NEXT_SIBLING] = NONE;
+		nodes[node * STRIDE + LABEL] = c;
+		nodes[node * STRIDE + WORD_COUNT] = 0;
+		return node;
+	}
+
+	/**
+	 * Grows the node array to hold at least the given number of nodes.
+	 * @param capacity minimum number of nodes
+	 */
+	private void grow(int capacity) {
+		int current = nodes.length / STRIDE;
+		int newCapacity = Math.max(capacity, current + (current >> 1));
+		nodes = Arrays.copyOf(nodes, newCapacity * STRIDE);
+	}
+
+	/**
+	 * Callback used to iterate over the words of a trie.
+	 * @author rpathire
+	 *
+	 */
+	public interface WordVisitor {
+		/**
+		 * Called once for every word.
+		 * @param word the visited word
+		 */
+		void visit(String word);
+	}
+}
@@ -0,0 +1,78 @@
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import org.testng.annotations.*;
+
+/**
+ * Tests the Boggle batch class functionality
+ * @author rpathire
+ *
+ */
+public class TestBoggleBatch {
+	/**
+	 * Tests that a batch writes a header and one line per board.
+	 * @throws Exception if the batch fails
+	 */
+	@Test(groups = {"basic"})
+	public void testRun() throws Exception {
+		WordList list = new WordList();
+		list.addWord("cat");
+		BoggleBatch batch = new BoggleBatch(list, 4, 3);
+		StringWriter out = new StringWriter();
+		batch.run(100, out);
+		
+		// Checks the header and the number of columns of every line
+		String[] lines = out.toString().split("\n");
+		assert lines.length == 101;
+		assert lines[0].equals(BoggleBatch.HEADER);
+		for (int i = 1; i < lines.length; i++) {
+			assert lines[i].split(",", -1).length == 5;
+		}
+	}
+	
+	/**
+	 * Tests that batches with the same seed write the same lines.
+	 * @throws Exception if the batch fails
+	 */
+	@Test(groups = {"basic"})
+	public void testRunSeeded() throws Exception {
+		WordList list = new WordList();
+		list.addWord("tea");
+		list.addWord("eat");
+		StringWriter out1 = new StringWriter();
+		StringWriter out2 = new StringWriter();
+		new BoggleBatch(list, 4, 1, 99).run(50, out1);
+		new BoggleBatch(list, 4, 3, 99).run(50, out2);
+		
+		// Lines may come out in another order with several threads
+		TreeSet<String> lines1 = new TreeSet<String>(
+				Arrays.asList(out1.toString().split("\n")));
+		TreeSet<String> lines2 = new TreeSet<String>(
+				Arrays.asList(out2.toString().split("\n")));
+		assert lines1.size() == 51;
+		assert lines1.equals(lines2);
+	}
+	
+	/**
+	 * Tests the statistics line of a known board.
+	 */
+	@Test(groups = {"basic"})
+	public void testAppendStats() {
+		String[][] letters = {{"C", "A"}, {"T", "Qu"}};
+		TreeSet<String> words = new TreeSet<String>(Arrays.asList(
+				"cat", "quat", "taqu"));
+		StringBuilder line = new StringBuilder();
+		BoggleBatch.appendStats(line, 7, new BoggleBoard(letters), words);
+		assert line.toString().equals("7,CATQu,3,3,quat\n");
+	}
+	
+	/**
+	 * Tests that a batch needs at least one thread.
+	 */
+	@Test(groups = {"basic"}, expectedExceptions = {IllegalArgumentException.class})
+	public void testNoThreads() {
+		new BoggleBatch(new WordList(), 4, 0);
+	}
+
+}
@@ -29,6 +29,170 @@ public class TestBoggleBoard {
 		assert validBoard(board);
 	}
 	
+	/**
+	 * Tests constructing a board from given letters.
+	 */
+	@Test(groups = {"basic"})
+	public void testLettersConstructor() {
+		String[][] letters = {{"A", "B"}, {"Qu", "D"}};
+		BoggleBoard board = new BoggleBoard(letters);
+		// Changing the array does not change the board
+		letters[0][0] = "Z";
+		assert board.size() == 2;
+		assert board.getCell(0, 0).equals("A");
+		assert board.getCell(1, 0).equals("Qu");
+		assert validBoard(board);
+	}
+	
+	/**
+	 * Tests constructing a board from a grid that is not square.
+	 */
+	@Test(groups = {"basic"}, expectedExceptions = {IllegalArgumentException.class})
+	public void testLettersConstructorNotSquare() {
+		String[][] letters = {{"A", "B"}, {"C"}};
+		new BoggleBoard(letters);
+	}
+	
+	/**
+	 * Tests that cell codes agree with the cell strings.
+	 */
+	@Test(groups = {"basic"})
+	public void testCellCodes() {
+		String[][] letters = {{"A", "b"}, {"QU", "Z"}};
+		BoggleBoard board = new BoggleBoard(letters);
+		assert board.cellCount() == 4;
+		assert board.getCellCode(0) == 0;
+		assert board.getCellCode(1) == 'B' - 'A';
+		assert board.getCellCode(2) == BoggleBoard.QU;
+		assert board.getCellCode(3) == 'Z' - 'A';
+		// Cells are displayed in their board format
+		assert board.getCell(0, 1).equals("B");
+		assert board.getCell(1, 0).equals("Qu");
+		assert BoggleBoard.codeText(BoggleBoard.QU).equals("Qu");
+	}
+	
+	/**
+	 * Tests constructing a board from cells that are not letters.
+	 */
+	@Test(groups = {"basic"}, expectedExceptions = {IllegalArgumentException.class})
+	public void testLettersConstructorInvalid() {
+		String[][] letters = {{"A", "B"}, {"C", "DE"}};
+		new BoggleBoard(letters);
+	}
+	
+	/**
+	 * Tests the neighbors of corner, edge and inner cells.
+	 */
+	@Test(groups = {"basic"})
+	public void testNeighbors() {
+		BoggleBoard board = new BoggleBoard(4);
+		int[] corner = board.neighbors(0);
+		Arrays.sort(corner);
+		assert Arrays.equals(corner, new int[] {1, 4, 5});
+		assert board.neighbors(1).length == 5;
+		assert board.neighbors(5).length == 8;
+		assert board.neighbors(15).length == 3;
+		// Boards of the same size share the table
+		assert new BoggleBoard(4).neighbors(5) == board.neighbors(5);
+	}
+	
+	/**
+	 * Tests that boards built from the same seed are identical.
+	 */
+	@Test(groups = {"basic"})
+	public void testSeedConstructor() {
+		BoggleBoard board = new BoggleBoard(5, 42);
+		assert board.size() == 5;
+		assert validBoard(board);
+		assert sameLetters(board, new BoggleBoard(5, 42));
+		assert !sameLetters(board, new BoggleBoard(5, 43));
+	}
+	
+	/**
+	 * Tests that generators built from the same seed produce the
+	 * same boards, starting with the board built from the seed.
+	 */
+	@Test(groups = {"basic"})
+	public void testGenerator() {
+		BoggleBoard.Generator gen1 = new BoggleBoard.Generator(7);
+		BoggleBoard.Generator gen2 = new BoggleBoard.Generator(7);
+		BoggleBoard first = gen1.next(4);
+		assert sameLetters(first, new BoggleBoard(4, 7));
+		assert sameLetters(first, gen2.next(4));
+		
+		// Sequences stay identical, including split generators
+		for (int i = 0; i < 100; i++) {
+			BoggleBoard board = gen1.next(4);
+			assert validBoard(board);
+			assert sameLetters(board, gen2.next(4));
+		}
+		assert sameLetters(gen1.split().next(6), gen2.split().next(6));
+		assert !sameLetters(gen1.next(4), first);
+	}
+	
+	/**
+	 * Tests that rotations and reflections of a board have the same
+	 * canonical codes, and other boards do not.
+	 */
+	@Test(groups = {"basic"})
+	public void testCanonicalCodes() {
+		for (int size = 1; size <= 6; size++) {
+			BoggleBoard board = new BoggleBoard(size, size);
+			String[][] rotated = letters(board);
+			String[][] mirrored = new String[size][size];
+			byte[] codes = board.canonicalCodes();
+			assert codes.length == size * size;
+			for (int r = 0; r < 4; r++) {
+				// Rotates by a quarter turn and mirrors the rotation
+				String[][] next = new String[size][size];
+				for (int i = 0; i < size; i++) {
+					for (int j = 0; j < size; j++) {
+						next[j][size - 1 - i] = rotated[i][j];
+						mirrored[i][size - 1 - j] = rotated[i][j];
+					}
+				}
+				rotated = next;
+				assert Arrays.equals(new BoggleBoard(rotated).canonicalCodes(), codes);
+				assert Arrays.equals(new BoggleBoard(mirrored).canonicalCodes(), codes);
+			}
+		}
+		
+		// Canonical codes are the smallest orientation
+		BoggleBoard board = new BoggleBoard(new String[][] {
+				{"B", "C"},
+				{"D", "A"}});
+		assert Arrays.equals(board.canonicalCodes(), new byte[] {0, 2, 3, 1});
+		assert !Arrays.equals(new BoggleBoard(new String[][] {
+				{"A", "B"},
+				{"D", "C"}}).canonicalCodes(), board.canonicalCodes());
+	}
+	
+	/**
+	 * Returns the letters of the board as a grid.
+	 */
+	private String[][] letters(BoggleBoard board) {
+		String[][] letters = new String[board.size()][board.size()];
+		for (int i = 0; i < board.size(); i++) {
+			for (int j = 0; j < board.size(); j++) {
+				letters[i][j] = board.getCell(i, j);
+			}
+		}
+		return letters;
+	}
+	
+	/**
+	 * Checks if two boards have the same size and letters.
+	 */
+	private boolean sameLetters(BoggleBoard b1, BoggleBoard b2) {
+		if (b1.size() != b2.size())
+			return false;
+		for (int i = 0; i < b1.cellCount(); i++) {
+			if (b1.getCellCode(i) != b2.getCellCode(i))
+				return false;
+		}
+		return true;
+	}
+	
 	/**
 	 * Checks if all the cells in the Boggle board contains
 	 * valid strings.
@@ -0,0 +1,271 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.testng.annotations.*;
+
+/**
+ * Tests the Boggle server through sockets on the local host.
+ * @author rpathire
+ *
+ */
+public class TestBoggleServer {
+	/**
+	 * Connection to a server, sending a command at a time.
+	 */
+	private static class Client {
+		Socket socket;
+		BufferedReader in;
+		Writer out;
+
+		Client(BoggleServer server) throws IOException {
+			socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+			in = new BufferedReader(new InputStreamReader(
+					socket.getInputStream(), StandardCharsets.UTF_8));
+			out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+		}
+
+		String send(String command) throws IOException {
+			out.write(command + "\n");
+			out.flush();
+			return in.readLine();
+		}
+	}
+
+	/**
+	 * Creates a word list of every three letter word.
+	 */
+	private WordList allThreeLetterWords() {
+		WordList list = new WordList();
+		char[] word = new char[3];
+		for (word[0] = 'a'; word[0] <= 'z'; word[0]++) {
+			for (word[1] = 'a'; word[1] <= 'z'; word[1]++) {
+				for (word[2] = 'a'; word[2] <= 'z'; word[2]++) {
+					list.addWord(new String(word));
+				}
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Tests playing a game through the commands.
+	 * @throws IOException if the connection fails
+	 */
+	@Test(groups = {"basic"})
+	public void testGame() throws IOException {
+		// The first row of the board spells a word of the list
+		BoggleBoard board = new BoggleBoard(4, 7);
+		String word = (board.getCell(0, 0) + board.getCell(0, 1) +
+				board.getCell(0, 2)).toLowerCase(Locale.ROOT);
+		WordList list = new WordList();
+		list.addWord(word);
+		list.addWord("zzz");
+
+		BoggleServer server = new BoggleServer(list, 0);
+		try {
+			Client client = new Client(server);
+			String[] game = client.send("NEW 4 7").split(" ");
+			assert game[0].equals("GAME");
+			assert game[2].equals("4");
+			assert game.length == 3 + 16;
+			for (int i = 0; i < 16; i++) {
+				assert game[3 + i].equals(board.getCell(i / 4, i % 4));
+			}
+			assert server.openGames() == 1;
+
+			// Words are scored once, whatever their case
+			String id = game[1];
+			int points = BoggleSolver.score(word);
+			assert client.send("WORD " + id + " " + word.toUpperCase(Locale.ROOT))
+					.equals("OK " + points + " " + points);
+			assert client.send("WORD " + id + " " + word).equals("DUPLICATE");
+			assert client.send("WORD " + id + " zzz").equals("INVALID");
+			assert client.send("word " + id + " xyz").equals("INVALID");
+
+			String[] score = client.send("END " + id).split(" ");
+			assert score[0].equals("SCORE");
+			assert score[1].equals(Integer.toString(points));
+			assert score[2].equals("1");
+			assert Integer.parseInt(score[3]) >= 1;
+			assert server.openGames() == 0;
+			assert server.endedGames() == 1;
+
+			// Ended games are gone
+			assert client.send("WORD " + id + " " + word).startsWith("ERROR");
+			assert client.send("END " + id).startsWith("ERROR");
+			assert client.send("QUIT").equals("BYE");
+			assert client.in.readLine() == null;
+		}
+		finally {
+			server.close();
+		}
+	}
+
+	/**
+	 * Tests that malformed commands are answered with errors.
+	 * @throws IOException if the connection fails
+	 */
+	@Test(groups = {"basic"})
+	public void testErrors() throws IOException {
+		BoggleServer server = new BoggleServer(new WordList(), 0);
+		try {
+			Client client = new Client(server);
+			assert client.send("").startsWith("ERROR");
+			assert client.send("HELLO").startsWith("ERROR");
+			assert client.send("NEW 0").startsWith("ERROR");
+			assert client.send("NEW " + (BoggleServer.MAX_SIZE + 1)).startsWith("ERROR");
+			assert client.send("NEW four").startsWith("ERROR");
+			assert client.send("NEW 4 1 2").startsWith("ERROR");
+			assert client.send("WORD 1").startsWith("ERROR");
+			assert client.send("WORD 1 cat").startsWith("ERROR");
+			assert client.send("END x").startsWith("ERROR");
+
+			// The connection still works after errors
+			assert client.send("  new   5  ").startsWith("GAME");
+			assert server.openGames() == 1;
+		}
+		finally {
+			server.close();
+		}
+	}
+
+	/**
+	 * Tests that games are owned by the connection that started them
+	 * and dropped when it closes.
+	 * @throws Exception if the connection fails
+	 */
+	@Test(groups = {"basic"})
+	public void testConnectionGames() throws Exception {
+		BoggleServer server = new BoggleServer(new WordList(), 0);
+		try {
+			Client first = new Client(server);
+			Client second = new Client(server);
+			String id = first.send("NEW").split(" ")[1];
+			first.send("NEW");
+			assert second.send("END " + id).startsWith("ERROR");
+			assert server.openGames() == 2;
+
+			first.socket.close();
+			for (int i = 0; i < 100 && server.openGames() > 0; i++) {
+				Thread.sleep(10);
+			}
+			assert server.openGames() == 0;
+			assert server.endedGames() == 0;
+		}
+		finally {
+			server.close();
+		}
+	}
+
+	/**
+	 * Tests that a connection cannot open more than MAX_GAMES games,
+	 * and can start new ones once others end.
+	 * @throws IOException if the connection fails
+	 */
+	@Test(groups = {"basic"})
+	public void testGameLimit() throws IOException {
+		BoggleServer server = new BoggleServer(new WordList(), 0);
+		try {
+			Client client = new Client(server);
+			String id = null;
+			for (int i = 0; i < BoggleServer.MAX_GAMES; i++) {
+				id = client.send("NEW 2").split(" ")[1];
+			}
+			assert client.send("NEW 2").startsWith("ERROR");
+			assert server.openGames() == BoggleServer.MAX_GAMES;
+
+			// Other connections have limits of their own
+			assert new Client(server).send("NEW 2").startsWith("GAME");
+			assert client.send("END " + id).startsWith("SCORE");
+			assert client.send("NEW 2").startsWith("GAME");
+		}
+		finally {
+			server.close();
+		}
+	}
+
+	/**
+	 * Tests closing the server while clients keep connecting: every
+	 * connection made is closed, none is left served after the close.
+	 * @throws Exception if the server fails
+	 */
+	@Test(groups = {"basic"})
+	public void testCloseWhileConnecting() throws Exception {
+		for (int round = 0; round < 10; round++) {
+			final BoggleServer server = new BoggleServer(new WordList(), 0);
+			final List<Socket> sockets = new ArrayList<Socket>();
+			Thread connector = new Thread() {
+				public void run() {
+					try {
+						for (int i = 0; i < 200; i++) {
+							Socket socket = new Socket(
+									InetAddress.getLoopbackAddress(), server.getPort());
+							synchronized (sockets) {
+								sockets.add(socket);
+							}
+						}
+					}
+					catch (IOException e) {
+						// Refused once the server is closed
+					}
+				}
+			};
+			connector.start();
+			Thread.sleep(round);
+			server.close();
+			connector.join();
+
+			// Every socket reaches its end instead of being left open
+			for (Socket socket : sockets) {
+				socket.setSoTimeout(5000);
+				try {
+					assert socket.getInputStream().read() == -1;
+				}
+				catch (SocketTimeoutException e) {
+					assert false;
+				}
+				catch (IOException e) {
+					// Reset by the closed server
+				}
+				socket.close();
+			}
+		}
+	}
+
+	/**
+	 * Tests many clients playing at the same time through the load
+	 * client, which checks every answer.
+	 * @throws Exception if a client fails
+	 */
+	@Test(groups = {"basic"})
+	public void testLoad() throws Exception {
+		WordList list = allThreeLetterWords();
+		BoggleServer server = new BoggleServer(list, 0);
+		try {
+			BoggleLoadClient client = new BoggleLoadClient(list, server.getPort(), 4);
+			client.run(8, 25);
+			assert server.endedGames() == 8 * 25;
+			assert server.openGames() == 0;
+
+			// Every game starts, submits words, a duplicate, a wrong
+			// word, ends, and every client quits
+			assert client.commands() >= 8 * 25 * 5 + 8;
+			assert client.percentile(0.5) <= client.percentile(0.99);
+			assert client.percentile(0.99) <= client.percentile(1);
+			assert client.gamesPerSecond() > 0;
+		}
+		finally {
+			server.close();
+		}
+	}
+}
@@ -0,0 +1,121 @@
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.testng.annotations.*;
+
+/**
+ * Tests the Boggle solver class functionality
+ * @author rpathire
+ *
+ */
+public class TestBoggleSolver {
+	/** Board used by the tests, containing a Qu cell */
+	private static final String[][] LETTERS = {
+		{"C", "A", "T", "X"},
+		{"X", "O", "X", "X"},
+		{"X", "Qu", "I", "X"},
+		{"X", "X", "T", "E"}};
+	
+	/**
+	 * Creates a word list containing the given words.
+	 */
+	private WordList createList(String... words) {
+		WordList list = new WordList();
+		for (String w : words) {
+			list.addWord(w);
+		}
+		return list;
+	}
+	
+	/**
+	 * Tests that exactly the words that can be traced are found.
+	 */
+	@Test(groups = {"basic"})
+	public void testSolve() {
+		WordList list = createList("cat", "coat", "taco", "iota", "quit",
+				"quite", "quiet", "act", "tat", "at", "dog");
+		BoggleSolver solver = new BoggleSolver(list);
+		Set<String> words = solver.solve(new BoggleBoard(LETTERS));
+		
+		// "act" is not connected, "tat" reuses a cell and "at" is short
+		Set<String> expected = new HashSet<String>(Arrays.asList(
+				"cat", "coat", "taco", "iota", "quit", "quite", "quiet"));
+		assert words.equals(expected);
+	}
+	
+	/**
+	 * Tests that a solver can be reused and gives the same answer.
+	 */
+	@Test(groups = {"basic"})
+	public void testSolveReuse() {
+		WordList list = createList("cat", "quit");
+		BoggleSolver solver = new BoggleSolver(list);
+		BoggleBoard board = new BoggleBoard(LETTERS);
+		
+		// Solves a different size board in between
+		Set<String> first = solver.solve(board);
+		solver.solve(new BoggleBoard(10));
+		Set<String> second = solver.solve(board);
+		assert first.size() == 2;
+		assert first.equals(second);
+	}
+	
+	/**
+	 * Tests solving a board against an empty word list.
+	 */
+	@Test(groups = {"basic"})
+	public void testSolveEmptyList() {
+		BoggleSolver solver = new BoggleSolver(new WordList());
+		assert solver.solve(new BoggleBoard()).isEmpty();
+	}
+	
+	/**
+	 * Tests that a parallel solve finds the same words as a
+	 * sequential solve.
+	 */
+	@Test(groups = {"basic"})
+	public void testSolveParallel() {
+		// Creates a list of random short words
+		Random rand = new Random(1);
+		WordList list = new WordList();
+		for (int i = 0; i < 20000; i++) {
+			char[] word = new char[3 + rand.nextInt(3)];
+			for (int j = 0; j < word.length; j++) {
+				word[j] = (char) ('a' + rand.nextInt(26));
+			}
+			list.addWord(new String(word));
+		}
+		BoggleSolver solver = new BoggleSolver(list);
+		BoggleBoard board = new BoggleBoard(12);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		
+		// Both searches must agree
+		Set<String> sequential = solver.solve(board);
+		Set<String> parallel = solver.solve(board, pool);
+		pool.shutdown();
+		assert !sequential.isEmpty();
+		assert sequential.equals(parallel);
+		
+		// The common pool also works on small boards
+		board = new BoggleBoard(LETTERS);
+		assert solver.solve(board).equals(solver.solveParallel(board));
+	}
+	
+	/**
+	 * Tests the score of words of every length.
+	 */
+	@Test(groups = {"basic"})
+	public void testScore() {
+		assert BoggleSolver.score("at") == 0;
+		assert BoggleSolver.score("cat") == 1;
+		assert BoggleSolver.score("coat") == 1;
+		assert BoggleSolver.score("quite") == 2;
+		assert BoggleSolver.score("quiets") == 3;
+		assert BoggleSolver.score("quieter") == 5;
+		assert BoggleSolver.score("quietest") == 11;
+	}
+
+}
@@ -0,0 +1,130 @@
+import java.io.File;
+import java.io.IOException;
+
+import org.testng.annotations.*;
+
+/**
+ * Tests dictionaries sharing the trie of a store.
+ * @author rpathire
+ *
+ */
+public class TestDictionaryStore {
+	/**
+	 * Returns a word list of the words.
+	 * @param words words of the list
+	 * @return new word list.
+	 */
+	private static WordList list(String... words) {
+		WordList list = new WordList();
+		for (String word : words) {
+			list.addWord(word);
+		}
+		return list;
+	}
+
+	/**
+	 * Tests that views hold the words of their lists only.
+	 */
+	@Test(groups = {"basic"})
+	public void testViews() {
+		DictionaryStore store = new DictionaryStore();
+		DictionaryView base = store.add(list("cat", "cats", "dog"));
+		DictionaryView house = store.add(list("cat", "catnip", "zebra"));
+		assert store.size() == 5;
+		assert base.size() == 3;
+		assert house.size() == 3;
+
+		assert base.containsWord("cats");
+		assert base.containsWord(" DOG ");
+		assert !base.containsWord("catnip");
+		assert !base.containsWord("zebra");
+		assert !base.containsWord("ca");
+		assert base.hasPrefix("ca");
+		assert !base.hasPrefix("catn");
+		assert !base.hasPrefix("z");
+		assert house.containsWord("catnip");
+		assert !house.containsWord("cats");
+		assert !house.hasPrefix("d");
+		assert house.hasPrefix("zeb");
+	}
+
+	/**
+	 * Tests union, intersection and difference of views.
+	 */
+	@Test(groups = {"basic"})
+	public void testCombine() {
+		DictionaryStore store = new DictionaryStore();
+		DictionaryView base = store.add(list("cat", "cats", "dog", "dogma"));
+		DictionaryView banned = store.add(list("dog", "dogma", "zebra"));
+
+		DictionaryView allowed = base.subtract(banned);
+		assert allowed.size() == 2;
+		assert allowed.containsWord("cat");
+		assert allowed.containsWord("cats");
+		assert !allowed.containsWord("dog");
+		assert !allowed.hasPrefix("d");
+
+		DictionaryView both = base.intersect(banned);
+		assert both.size() == 2;
+		assert both.containsWord("dogma");
+		assert !both.hasPrefix("c");
+		assert !both.hasPrefix("z");
+
+		DictionaryView all = base.union(banned);
+		assert all.size() == 5;
+		assert all.containsWord("zebra");
+		assert all.containsWord("cats");
+
+		WordList copy = allowed.toWordList();
+		assert copy.size() == 2;
+		assert copy.containsWord("cats");
+		assert !copy.containsWord("dog");
+	}
+
+	/**
+	 * Tests views made before later dictionaries were added.
+	 */
+	@Test(groups = {"basic"})
+	public void testLaterAdds() {
+		DictionaryStore store = new DictionaryStore();
+		DictionaryView first = store.add(list("cat"));
+		DictionaryView second = store.add(list("cattle", "zoo"));
+		assert !first.hasPrefix("catt");
+		assert !first.containsWord("zoo");
+		assert first.containsWord("cat");
+
+		// The earlier view has fewer bits than the later one
+		DictionaryView all = first.union(second);
+		assert all.size() == 3;
+		assert second.union(first).size() == 3;
+		assert first.intersect(second).size() == 0;
+		assert second.subtract(first).size() == 2;
+	}
+
+	/**
+	 * Tests that views of other stores cannot be combined.
+	 */
+	@Test(groups = {"basic"}, expectedExceptions = IllegalArgumentException.class)
+	public void testOtherStore() {
+		DictionaryView view = new DictionaryStore().add(list("cat"));
+		view.union(new DictionaryStore().add(list("cat")));
+	}
+
+	/**
+	 * Tests that the solver finds the same words in a view as in its
+	 * word list.
+	 * @throws IOException if the word list cannot be read
+	 */
+	@Test(groups = {"fileio"})
+	public void testSolver() throws IOException {
+		WordList words = new WordList(new File("bench/fixtures/words-20k.txt"));
+		DictionaryStore store = new DictionaryStore();
+		store.add(list("zzz", "aardvark"));
+		DictionaryView view = store.add(words);
+		assert view.size() == words.size();
+		for (int size = 3; size <= 6; size++) {
+			BoggleBoard board = new BoggleBoard(size, size);
+			assert new BoggleSolver(view).solve(board).equals(new BoggleSolver(words).solve(board));
+		}
+	}
+}
@@ -0,0 +1,314 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.annotations.*;
+
+/**
+ * Tests the game session without any display.
+ * @author rpathire
+ *
+ */
+public class TestGameSession {
+	/** Board used by the tests, containing a Qu cell */
+	private static final String[][] LETTERS = {
+		{"C", "A", "T", "X"},
+		{"X", "O", "X", "X"},
+		{"X", "Qu", "I", "X"},
+		{"X", "X", "T", "E"}};
+
+	/**
+	 * Creates a word list containing the given words.
+	 */
+	private WordList createList(String... words) {
+		WordList list = new WordList();
+		for (String w : words) {
+			list.addWord(w);
+		}
+		return list;
+	}
+
+	/**
+	 * Listener recording the changes it is told about.
+	 */
+	private static class Recorder implements GameSession.Listener {
+		List<Integer> cells = new ArrayList<Integer>();
+		List<GameSession.WordStatus> statuses = new ArrayList<GameSession.WordStatus>();
+		List<String> words = new ArrayList<String>();
+		int points;
+		int boards;
+
+		public void cellChanged(int cell, GameSession.CellState state) {
+			cells.add(cell);
+		}
+
+		public void wordChanged(GameSession.WordStatus status) {
+			statuses.add(status);
+		}
+
+		public void wordFound(String word, int points) {
+			words.add(word);
+			this.points += points;
+		}
+
+		public void boardChanged(BoggleBoard board) {
+			boards++;
+		}
+	}
+
+	/**
+	 * Checks the state of every cell against the selected cells.
+	 */
+	private void checkStates(GameSession session, List<Integer> selection) {
+		int size = session.getBoard().size();
+		int last = selection.isEmpty() ? -1 : selection.get(selection.size() - 1);
+		assert session.lastCell() == (last == -1 ? GameSession.NO_CELL : last);
+		assert session.pathLength() == selection.size();
+		for (int cell = 0; cell < size * size; cell++) {
+			GameSession.CellState expected;
+			if (last == -1)
+				expected = GameSession.CellState.AVAILABLE;
+			else if (selection.contains(cell))
+				expected = GameSession.CellState.SELECTED;
+			else if (Math.abs(cell / size - last / size) <= 1 &&
+					Math.abs(cell % size - last % size) <= 1)
+				expected = GameSession.CellState.AVAILABLE;
+			else
+				expected = GameSession.CellState.UNAVAILABLE;
+			assert session.getState(cell) == expected;
+		}
+	}
+
+	/**
+	 * Tests selecting and deselecting cells at random, checking every
+	 * cell after each selection.
+	 */
+	@Test(groups = {"basic"})
+	public void testRandomSelects() {
+		Random rand = new Random(16);
+		for (int size : new int[] {1, 4, 7}) {
+			GameSession session = new GameSession(new BoggleBoard(size, size));
+			List<Integer> selection = new ArrayList<Integer>();
+			checkStates(session, selection);
+
+			for (int i = 0; i < 500; i++) {
+				int cell = rand.nextInt(size * size);
+				GameSession.CellState state = session.getState(cell);
+				boolean changed = session.select(cell);
+				if (state == GameSession.CellState.AVAILABLE) {
+					selection.add(cell);
+					assert changed;
+				}
+				else if (state == GameSession.CellState.SELECTED &&
+						cell != selection.get(selection.size() - 1)) {
+					selection.subList(selection.indexOf(cell) + 1,
+							selection.size()).clear();
+					assert changed;
+				}
+				else {
+					assert !changed;
+				}
+				checkStates(session, selection);
+				for (int j = 0; j < selection.size(); j++) {
+					assert session.pathCell(j) == selection.get(j);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Tests that submitted words are scored once per round.
+	 */
+	@Test(groups = {"basic"})
+	public void testSubmitWord() {
+		GameSession session = new GameSession(new BoggleBoard(LETTERS),
+				createList("cat", "coat", "quit", "at"));
+
+		// "c", "a", "t" is a word
+		session.select(0, 0);
+		session.select(0, 1);
+		assert !session.submitWord();
+		session.select(0, 2);
+		assert session.getWordStatus() == GameSession.WordStatus.WORD;
+		assert session.submitWord();
+		assert session.pathLength() == 0;
+		assert session.getScore() == 1;
+
+		// The same word is only scored once
+		session.select(0, 0);
+		session.select(0, 1);
+		session.select(0, 2);
+		assert !session.submitWord();
+		assert session.pathLength() == 3;
+
+		// "Qu" counts as two letters
+		session.clearSelection();
+		session.select(2, 1);
+		session.select(2, 2);
+		session.select(3, 2);
+		assert session.getWord().equals("QuIT");
+		assert session.submitWord();
+		session.select(0, 0);
+		session.select(1, 1);
+		session.select(0, 1);
+		session.select(0, 2);
+		assert session.submitWord();
+		assert session.getScore() == 3;
+		assert session.getFoundWords().size() == 3;
+		assert session.getFoundWords().first().equals("cat");
+		assert session.getFoundWords().contains("quit");
+
+		// Words shorter than the minimum length are not scored
+		session.select(0, 1);
+		session.select(0, 2);
+		assert !session.submitWord();
+		assert session.getScore() == 3;
+	}
+
+	/**
+	 * Tests that typed words are checked against the board and the
+	 * dictionary.
+	 */
+	@Test(groups = {"basic"})
+	public void testSubmitTypedWord() {
+		GameSession session = new GameSession(new BoggleBoard(LETTERS),
+				createList("cat", "coat", "quit", "toe", "at"));
+		assert !session.submitTypedWord("toe");
+		assert !session.submitTypedWord("at");
+		assert session.submitTypedWord(" Coat ");
+		assert !session.submitTypedWord("coat");
+		assert session.submitTypedWord("QUIT");
+		assert session.getScore() == 2;
+		assert session.getFoundWords().contains("quit");
+
+		// The selection is left alone
+		session.select(0, 0);
+		assert session.submitTypedWord("cat");
+		assert session.pathLength() == 1;
+		assert !new GameSession(new BoggleBoard(LETTERS)).submitTypedWord("cat");
+	}
+
+	/**
+	 * Tests that words cannot be submitted without a dictionary.
+	 */
+	@Test(groups = {"basic"})
+	public void testSubmitWithoutDictionary() {
+		GameSession session = new GameSession(new BoggleBoard(LETTERS));
+		session.select(0, 0);
+		session.select(0, 1);
+		session.select(0, 2);
+		assert session.getWordStatus() == GameSession.WordStatus.NONE;
+		assert !session.submitWord();
+		assert session.getScore() == 0;
+	}
+
+	/**
+	 * Tests that the listener is only told about actual changes.
+	 */
+	@Test(groups = {"basic"})
+	public void testListener() {
+		GameSession session = new GameSession(new BoggleBoard(LETTERS),
+				createList("cat"));
+		Recorder recorder = new Recorder();
+		session.setListener(recorder);
+
+		// Selecting a corner leaves 3 cells available and selects one
+		session.select(0);
+		assert recorder.cells.size() == 16 - 3;
+		assert recorder.statuses.size() == 1;
+		assert recorder.statuses.get(0) == GameSession.WordStatus.PREFIX;
+
+		// Selecting the last cell again changes nothing
+		recorder.cells.clear();
+		recorder.statuses.clear();
+		assert !session.select(0);
+		assert !session.select(15);
+		assert recorder.cells.isEmpty();
+		assert recorder.statuses.isEmpty();
+
+		session.select(1);
+		session.select(2);
+		assert recorder.statuses.get(recorder.statuses.size() - 1) ==
+				GameSession.WordStatus.WORD;
+		assert session.submitWord();
+		assert recorder.words.size() == 1;
+		assert recorder.words.get(0).equals("cat");
+		assert recorder.points == 1;
+	}
+
+	/**
+	 * Tests that a new board starts a new round.
+	 */
+	@Test(groups = {"basic"})
+	public void testSetBoard() {
+		GameSession session = new GameSession(new BoggleBoard(LETTERS),
+				createList("cat"));
+		session.select(0);
+		session.select(1);
+		session.select(2);
+		assert session.submitWord();
+		session.select(5);
+		Recorder recorder = new Recorder();
+		session.setListener(recorder);
+
+		session.setBoard(new BoggleBoard(LETTERS));
+		assert recorder.boards == 1;
+		assert session.pathLength() == 0;
+		assert session.getWord().equals("");
+		assert session.getWordStatus() == GameSession.WordStatus.NONE;
+		assert session.getScore() == 0;
+		assert session.getFoundWords().isEmpty();
+		checkStates(session, new ArrayList<Integer>());
+
+		// The word can be found again, and boards can change size
+		session.select(0);
+		session.select(1);
+		session.select(2);
+		assert session.submitWord();
+		session.setBoard(new BoggleBoard(6, 1));
+		checkStates(session, new ArrayList<Integer>());
+	}
+
+	/**
+	 * Tests that boards of another size than the fixed one are
+	 * rejected without changing the round.
+	 */
+	@Test(groups = {"basic"})
+	public void testFixedSize() {
+		GameSession session = new GameSession(new BoggleBoard(LETTERS));
+		session.select(0);
+		Recorder recorder = new Recorder();
+		session.setListener(recorder);
+		session.setFixedSize(LETTERS.length);
+		assert session.getFixedSize() == LETTERS.length;
+		for (int size : new int[] {LETTERS.length - 1, LETTERS.length + 1}) {
+			try {
+				session.setBoard(new BoggleBoard(size, 1));
+				assert false;
+			}
+			catch (IllegalArgumentException e) {
+			}
+		}
+		assert recorder.boards == 0;
+		assert session.pathLength() == 1;
+		try {
+			session.setFixedSize(LETTERS.length + 1);
+			assert false;
+		}
+		catch (IllegalArgumentException e) {
+		}
+
+		// Any size can be played again once the size is unpinned
+		session.setFixedSize(0);
+		session.setBoard(new BoggleBoard(LETTERS.length + 1, 1));
+		assert recorder.boards == 1;
+	}
+
+	/**
+	 * Tests that cells outside the board are rejected.
+	 */
+	@Test(groups = {"basic"}, expectedExceptions = IndexOutOfBoundsException.class)
+	public void testSelectOutside() {
+		new GameSession(new BoggleBoard(4)).select(4, 0);
+	}
+}
@@ -0,0 +1,140 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.SortedSet;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+import org.testng.annotations.*;
+
+/**
+ * Tests the solver keeping the words of a changing board.
+ * @author rpathire
+ *
+ */
+public class TestIncrementalSolver {
+	/**
+	 * Tests the words lost and gained by changes of a fixed board.
+	 */
+	@Test(groups = {"basic"})
+	public void testChanges() {
+		WordList words = new WordList();
+		words.addWord("cat");
+		words.addWord("cot");
+		words.addWord("quit");
+		String[][] letters = {
+			{"C", "A", "T"},
+			{"X", "X", "X"},
+			{"X", "X", "X"}};
+		IncrementalSolver solver = new IncrementalSolver(words, new BoggleBoard(letters));
+		assert solver.getWords().size() == 1;
+		assert solver.getWords().contains("cat");
+		assert solver.score() == 1;
+
+		IncrementalSolver.Change change = solver.setCell(0, 1, "o");
+		assert change.getLost().size() == 1 && change.getLost().contains("cat");
+		assert change.getGained().size() == 1 && change.getGained().contains("cot");
+		assert solver.getWords().size() == 1 && solver.getWords().contains("cot");
+		assert solver.getCellCode(1) == 'o' - 'a';
+
+		// Same letter, and a letter far from the words
+		assert solver.setCell(0, 1, "O").isEmpty();
+		assert solver.setCell(2, 2, "Z").isEmpty();
+
+		solver.setCell(1, 0, "Qu");
+		solver.setCell(2, 1, "I");
+		change = solver.setCell(1, 1, "T");
+		assert change.getGained().size() == 1 && change.getGained().contains("quit");
+		assert change.getLost().isEmpty();
+		assert solver.score() == 2;
+		assert solver.getBoard().getCell(1, 0).equals("Qu");
+	}
+
+	/**
+	 * Tests that positions and letters outside the board are rejected.
+	 */
+	@Test(groups = {"basic"})
+	public void testInvalidCell() {
+		IncrementalSolver solver = new IncrementalSolver(new WordList(), new BoggleBoard());
+		for (int[] position : new int[][] {{-1, 0}, {0, 4}, {4, 0}}) {
+			try {
+				solver.setCell(position[0], position[1], "A");
+				assert false;
+			}
+			catch (IllegalArgumentException e) {
+			}
+		}
+		try {
+			solver.setCell(0, BoggleBoard.CODE_COUNT);
+			assert false;
+		}
+		catch (IllegalArgumentException e) {
+		}
+	}
+
+	/**
+	 * Tests changes of a board whose dictionary has nodes leading to
+	 * no word, such as a view of a dictionary store.
+	 */
+	@Test(groups = {"basic"})
+	public void testView() {
+		WordList base = new WordList();
+		base.addWord("cat");
+		base.addWord("cats");
+		base.addWord("coat");
+		WordList banned = new WordList();
+		banned.addWord("cats");
+		DictionaryStore store = new DictionaryStore();
+		DictionaryView view = store.add(base).subtract(store.add(banned));
+		String[][] letters = {
+			{"C", "A", "T"},
+			{"X", "O", "S"},
+			{"X", "X", "X"}};
+		IncrementalSolver solver = new IncrementalSolver(view, new BoggleBoard(letters));
+		assert solver.getWords().size() == 2;
+		assert !solver.getWords().contains("cats");
+
+		IncrementalSolver.Change change = solver.setCell(1, 2, "E");
+		assert change.isEmpty();
+		change = solver.setCell(1, 1, "E");
+		assert change.getLost().size() == 1 && change.getLost().contains("coat");
+		assert change.getGained().isEmpty();
+	}
+
+	/**
+	 * Tests random changes of random boards against full solves, on
+	 * boards solved again and boards large enough to be searched
+	 * around the changed cell.
+	 * @throws IOException if the word list cannot be read
+	 */
+	@Test(groups = {"fileio"})
+	public void testAgainstSolver() throws IOException {
+		WordList words = new WordList(new File("bench/fixtures/words-20k.txt"));
+		BoggleSolver full = new BoggleSolver(words);
+		SplittableRandom rand = new SplittableRandom(7);
+		for (int size = 2; size <= 10; size++) {
+			IncrementalSolver solver = new IncrementalSolver(words, new BoggleBoard(size, size));
+			SortedSet<String> before = full.solve(solver.getBoard());
+			assert solver.getWords().equals(before);
+			for (int i = 0; i < 40; i++) {
+				IncrementalSolver.Change change = solver.setCell(
+						rand.nextInt(size * size), rand.nextInt(BoggleBoard.CODE_COUNT));
+				SortedSet<String> after = full.solve(solver.getBoard());
+				assert solver.getWords().equals(after);
+
+				SortedSet<String> lost = new TreeSet<String>(before);
+				lost.removeAll(after);
+				SortedSet<String> gained = new TreeSet<String>(after);
+				gained.removeAll(before);
+				assert change.getLost().equals(lost);
+				assert change.getGained().equals(gained);
+
+				int score = 0;
+				for (String word : after) {
+					score += BoggleSolver.score(word);
+				}
+				assert solver.score() == score;
+				before = after;
+			}
+		}
+	}
+}
@@ -0,0 +1,238 @@
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.annotations.*;
+
+/**
+ * Tests the selection display of the Boggle board panel.
+ * @author rpathire
+ *
+ */
+public class TestJBoggleBoard {
+	/**
+	 * Clicks the button as the user would.
+	 */
+	private void click(JBoggleButton button) {
+		for (ActionListener l : button.getActionListeners()) {
+			l.actionPerformed(new ActionEvent(button, ActionEvent.ACTION_PERFORMED, ""));
+		}
+	}
+	
+	/**
+	 * Checks the state of every button against the selected buttons.
+	 */
+	private void checkStates(JBoggleBoard panel, List<JBoggleButton> selection) {
+		JBoggleButton last = selection.isEmpty() ?
+				null : selection.get(selection.size() - 1);
+		for (int i = 0; i < panel.getComponentCount(); i++) {
+			JBoggleButton b = (JBoggleButton) panel.getComponent(i);
+			JBoggleButton.State expected;
+			if (last == null)
+				expected = JBoggleButton.State.AVAILABLE;
+			else if (selection.contains(b))
+				expected = JBoggleButton.State.SELECTED;
+			else if (Math.abs(b.getBoardX() - last.getBoardX()) <= 1 &&
+					Math.abs(b.getBoardY() - last.getBoardY()) <= 1)
+				expected = JBoggleButton.State.AVAILABLE;
+			else
+				expected = JBoggleButton.State.UNAVAILABLE;
+			assert b.getState() == expected;
+		}
+	}
+	
+	/**
+	 * Tests selecting and deselecting buttons at random, checking
+	 * every button after each click.
+	 */
+	@Test(groups = {"basic"})
+	public void testRandomClicks() {
+		Random rand = new Random(12);
+		for (int size : new int[] {1, 4, 7}) {
+			JBoggleBoard panel = new JBoggleBoard(size);
+			panel.setBoard(new BoggleBoard(size, size));
+			List<JBoggleButton> selection = new ArrayList<JBoggleButton>();
+			checkStates(panel, selection);
+			
+			for (int i = 0; i < 500; i++) {
+				JBoggleButton b = (JBoggleButton)
+						panel.getComponent(rand.nextInt(size * size));
+				if (rand.nextInt(40) == 0) {
+					panel.clearSelections();
+					selection.clear();
+				}
+				else if (b.getState() == JBoggleButton.State.AVAILABLE) {
+					click(b);
+					selection.add(b);
+				}
+				else if (b.getState() == JBoggleButton.State.SELECTED) {
+					click(b);
+					selection.subList(selection.indexOf(b) + 1, selection.size()).clear();
+				}
+				else {
+					// Unavailable buttons are disabled, clicks change nothing
+					continue;
+				}
+				checkStates(panel, selection);
+				
+				// The word is made of the selected letters
+				StringBuilder word = new StringBuilder();
+				for (JBoggleButton s : selection) {
+					word.append(s.getText());
+				}
+				assert panel.getWord().equals(word.toString());
+			}
+		}
+	}
+	
+	/**
+	 * Tests that a new board relabels the buttons in place and starts
+	 * a new round without any selection.
+	 */
+	@Test(groups = {"basic"})
+	public void testSetBoardReuse() {
+		JBoggleBoard panel = new JBoggleBoard(4);
+		panel.setBoard(new BoggleBoard(4, 1));
+		JBoggleButton first = (JBoggleButton) panel.getComponent(0);
+		click(first);
+		assert panel.getWord().length() > 0;
+		
+		BoggleBoard board = new BoggleBoard(4, 2);
+		panel.setBoard(board);
+		assert panel.getComponentCount() == 16;
+		assert panel.getComponent(0) == first;
+		assert panel.getWord().equals("");
+		checkStates(panel, new ArrayList<JBoggleButton>());
+		for (int i = 0; i < 16; i++) {
+			JBoggleButton b = (JBoggleButton) panel.getComponent(i);
+			assert b.getText().equals(board.getCell(i / 4, i % 4));
+		}
+		
+		// Buttons are still handled after the reset
+		click(first);
+		assert panel.getWord().equals(board.getCell(0, 0));
+	}
+	
+	/**
+	 * Tests that the buttons show the board they are created with and
+	 * boards set directly on the session.
+	 */
+	@Test(groups = {"basic"})
+	public void testSessionBoard() {
+		BoggleBoard board = new BoggleBoard(4, 5);
+		JBoggleBoard panel = new JBoggleBoard(board);
+		assert panel.getComponentCount() == 16;
+		for (int i = 0; i < 16; i++) {
+			JBoggleButton b = (JBoggleButton) panel.getComponent(i);
+			assert b.getText().equals(board.getCell(i / 4, i % 4));
+		}
+		
+		click((JBoggleButton) panel.getComponent(0));
+		board = new BoggleBoard(4, 6);
+		panel.getSession().setBoard(board);
+		checkStates(panel, new ArrayList<JBoggleButton>());
+		for (int i = 0; i < 16; i++) {
+			JBoggleButton b = (JBoggleButton) panel.getComponent(i);
+			assert b.getText().equals(board.getCell(i / 4, i % 4));
+		}
+		
+		// Boards of another size are rejected before the round changes
+		for (int size : new int[] {3, 5}) {
+			try {
+				panel.getSession().setBoard(new BoggleBoard(size, 1L));
+				assert false;
+			}
+			catch (IllegalArgumentException e) {
+			}
+		}
+		assert panel.getSession().getBoard() == board;
+		assert panel.getComponentCount() == 16;
+	}
+	
+	/**
+	 * Tests that memory stays constant over many rounds.
+	 */
+	@Test(groups = {"basic"})
+	public void testManyRounds() {
+		JBoggleBoard panel = new JBoggleBoard(5);
+		BoggleBoard[] boards = {new BoggleBoard(5, 1), new BoggleBoard(5, 2)};
+		Runtime runtime = Runtime.getRuntime();
+		long before = 0;
+		for (int round = 0; round < 10000; round++) {
+			// Measures once the first rounds have warmed up
+			if (round == 100) {
+				System.gc();
+				before = runtime.totalMemory() - runtime.freeMemory();
+			}
+			panel.setBoard(boards[round % 2]);
+			click((JBoggleButton) panel.getComponent(round % 25));
+		}
+		System.gc();
+		long after = runtime.totalMemory() - runtime.freeMemory();
+		
+		assert panel.getComponentCount() == 25;
+		// Allows for noise, a leaked button per round would take far more
+		assert after - before < 1000000 : (after - before) + " bytes retained";
+	}
+	
+	/**
+	 * Tests the status of the selected word as letters are selected
+	 * and dropped.
+	 */
+	@Test(groups = {"basic"})
+	public void testWordStatus() {
+		WordList list = new WordList();
+		list.addWord("cat");
+		list.addWord("coat");
+		list.addWord("quit");
+		JBoggleBoard panel = new JBoggleBoard(4);
+		panel.setBoard(new BoggleBoard(new String[][] {
+				{"C", "A", "T", "X"},
+				{"X", "O", "X", "X"},
+				{"X", "Qu", "I", "X"},
+				{"X", "X", "T", "E"}}));
+		
+		// Without a dictionary no status is known
+		JBoggleButton c = (JBoggleButton) panel.getComponent(0);
+		click(c);
+		assert panel.getWordStatus() == GameSession.WordStatus.NONE;
+		panel.setDictionary(list);
+		assert panel.getWordStatus() == GameSession.WordStatus.PREFIX;
+		
+		// Follows "c", "a", "t", then a letter no word continues with
+		JBoggleButton a = (JBoggleButton) panel.getComponent(1);
+		JBoggleButton t = (JBoggleButton) panel.getComponent(2);
+		JBoggleButton x = (JBoggleButton) panel.getComponent(3);
+		click(a);
+		assert panel.getWordStatus() == GameSession.WordStatus.PREFIX;
+		click(t);
+		assert panel.getWord().equals("CAT");
+		assert panel.getWordStatus() == GameSession.WordStatus.WORD;
+		click(x);
+		assert panel.getWordStatus() == GameSession.WordStatus.DEAD_END;
+		
+		// Dropping letters moves the cursor back
+		click(t);
+		assert panel.getWordStatus() == GameSession.WordStatus.WORD;
+		click(c);
+		assert panel.getWord().equals("C");
+		assert panel.getWordStatus() == GameSession.WordStatus.PREFIX;
+		
+		// "Qu" is a single step
+		panel.clearSelections();
+		assert panel.getWordStatus() == GameSession.WordStatus.NONE;
+		click((JBoggleButton) panel.getComponent(9));
+		click((JBoggleButton) panel.getComponent(10));
+		click((JBoggleButton) panel.getComponent(14));
+		assert panel.getWord().equals("QuIT");
+		assert panel.getWordStatus() == GameSession.WordStatus.WORD;
+		
+		// A new board starts with no word
+		panel.setBoard(new BoggleBoard(4, 3));
+		assert panel.getWordStatus() == GameSession.WordStatus.NONE;
+		assert panel.getWord().equals("");
+	}
+
+}
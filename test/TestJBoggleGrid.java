@@ -0,0 +1,143 @@
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.annotations.*;
+
+/**
+ * Tests the custom painted Boggle grid.
+ * @author rpathire
+ *
+ */
+public class TestJBoggleGrid {
+	/**
+	 * Checks the state of every cell against the selected cells.
+	 */
+	private void checkStates(JBoggleGrid grid, int size, List<Integer> selection) {
+		int last = selection.isEmpty() ? -1 : selection.get(selection.size() - 1);
+		for (int cell = 0; cell < size * size; cell++) {
+			int x = cell / size;
+			int y = cell % size;
+			GameSession.CellState expected;
+			if (last == -1)
+				expected = GameSession.CellState.AVAILABLE;
+			else if (selection.contains(cell))
+				expected = GameSession.CellState.SELECTED;
+			else if (Math.abs(x - last / size) <= 1 && Math.abs(y - last % size) <= 1)
+				expected = GameSession.CellState.AVAILABLE;
+			else
+				expected = GameSession.CellState.UNAVAILABLE;
+			assert grid.getState(x, y) == expected;
+		}
+	}
+	
+	/**
+	 * Tests selecting and deselecting cells at random, checking every
+	 * cell after each click.
+	 */
+	@Test(groups = {"basic"})
+	public void testRandomClicks() {
+		Random rand = new Random(13);
+		for (int size : new int[] {1, 4, 7}) {
+			JBoggleGrid grid = new JBoggleGrid(size);
+			BoggleBoard board = new BoggleBoard(size, size);
+			grid.setBoard(board);
+			List<Integer> selection = new ArrayList<Integer>();
+			checkStates(grid, size, selection);
+			
+			for (int i = 0; i < 500; i++) {
+				int cell = rand.nextInt(size * size);
+				GameSession.CellState state = grid.getState(cell / size, cell % size);
+				if (rand.nextInt(40) == 0) {
+					grid.clearSelections();
+					selection.clear();
+				}
+				else if (state == GameSession.CellState.AVAILABLE) {
+					grid.click(cell);
+					selection.add(cell);
+				}
+				else if (state == GameSession.CellState.SELECTED) {
+					grid.click(cell);
+					selection.subList(selection.indexOf(cell) + 1, selection.size()).clear();
+				}
+				else {
+					// Clicks on unavailable cells change nothing
+					grid.click(cell);
+				}
+				checkStates(grid, size, selection);
+				
+				// The word is made of the selected letters
+				StringBuilder word = new StringBuilder();
+				for (int s : selection) {
+					word.append(board.getCell(s / size, s % size));
+				}
+				assert grid.getWord().equals(word.toString());
+			}
+		}
+	}
+	
+	/**
+	 * Tests mapping points of the component to cells.
+	 */
+	@Test(groups = {"basic"})
+	public void testCellAt() {
+		JBoggleGrid grid = new JBoggleGrid(4);
+		grid.setSize(200, 240);
+		
+		// Cells are 50 pixels wide, rows go down and columns across
+		assert grid.cellAt(0, 0) == 0;
+		assert grid.cellAt(49, 0) == 0;
+		assert grid.cellAt(50, 0) == 1;
+		assert grid.cellAt(0, 50) == 4;
+		assert grid.cellAt(199, 199) == 15;
+		assert grid.cellAt(100, 200) == -1;
+		assert grid.cellAt(-1, 10) == -1;
+	}
+	
+	/**
+	 * Tests painting a board, part of a board and no board at all.
+	 */
+	@Test(groups = {"basic"})
+	public void testPaint() {
+		JBoggleGrid grid = new JBoggleGrid(5);
+		grid.setSize(300, 300);
+		BufferedImage image = new BufferedImage(300, 300, BufferedImage.TYPE_INT_RGB);
+		Graphics g = image.createGraphics();
+		grid.paint(g);
+		grid.setBoard(new BoggleBoard(5, 1));
+		grid.click(7);
+		grid.paint(g);
+		g.setClip(60, 60, 60, 60);
+		grid.paint(g);
+		g.dispose();
+	}
+
+	/**
+	 * Tests that the session of the grid rejects boards of another
+	 * size, leaving the grid as it was.
+	 */
+	@Test(groups = {"basic"})
+	public void testSessionSize() {
+		JBoggleGrid grid = new JBoggleGrid(4);
+		grid.setSize(240, 240);
+		grid.click(0);
+		for (int size : new int[] {3, 5}) {
+			try {
+				grid.getSession().setBoard(new BoggleBoard(size, 1L));
+				assert false;
+			}
+			catch (IllegalArgumentException e) {
+			}
+		}
+		List<Integer> selection = new ArrayList<Integer>();
+		selection.add(0);
+		checkStates(grid, 4, selection);
+		BufferedImage image = new BufferedImage(240, 240, BufferedImage.TYPE_INT_RGB);
+		Graphics g = image.createGraphics();
+		grid.paint(g);
+		g.dispose();
+	}
+
+}
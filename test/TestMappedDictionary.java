@@ -0,0 +1,115 @@
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.testng.annotations.*;
+
+/**
+ * Tests the mapped dictionary class and the dictionary compiler.
+ * @author rpathire
+ *
+ */
+public class TestMappedDictionary {
+	/**
+	 * Writes the word list to a temporary dictionary file and maps it.
+	 */
+	private MappedDictionary compile(WordList list) throws IOException {
+		File f = File.createTempFile("boggle", ".dict");
+		f.deleteOnExit();
+		MappedDictionary.write(list.trie(), f);
+		return new MappedDictionary(f);
+	}
+	
+	/**
+	 * Tests compiling a text file with improperly formatted words.
+	 * @throws IOException when test file does not exist
+	 */
+	@Test(groups = {"fileio"})
+	public void testCompileUnformatted() throws IOException {
+		File f = File.createTempFile("boggle", ".dict");
+		f.deleteOnExit();
+		int words = DictionaryCompiler.compile(new File("unformattedWordList.txt"), f);
+		MappedDictionary dict = new MappedDictionary(f);
+		
+		// Makes sure words are properly formatted
+		assert words == 4;
+		assert dict.size() == 4;
+		assert dict.containsWord("first");
+		assert dict.containsWord(" SECOND ");
+		assert dict.containsWord("third");
+		assert dict.containsWord("fourth");
+		assert !dict.containsWord("fifth");
+		assert !dict.containsWord("fir");
+		assert dict.hasPrefix("fir");
+		assert !dict.hasPrefix("fix");
+	}
+	
+	/**
+	 * Tests that a mapped dictionary holds the same words as the
+	 * word list it was written from.
+	 * @throws IOException when the dictionary cannot be written
+	 */
+	@Test(groups = {"fileio"})
+	public void testSameWords() throws IOException {
+		// Creates a list of random words, then removes some of them
+		Random rand = new Random(3);
+		WordList list = new WordList();
+		WordList removed = new WordList();
+		for (int i = 0; i < 5000; i++) {
+			char[] word = new char[1 + rand.nextInt(8)];
+			for (int j = 0; j < word.length; j++) {
+				word[j] = (char) ('a' + rand.nextInt(26));
+			}
+			list.addWord(new String(word));
+			if (i % 7 == 0)
+				removed.addWord(new String(word));
+		}
+		list.subtract(removed);
+		MappedDictionary dict = compile(list);
+		
+		// Checks random words and prefixes against the list
+		assert dict.size() == list.size();
+		for (int i = 0; i < 20000; i++) {
+			char[] word = new char[1 + rand.nextInt(5)];
+			for (int j = 0; j < word.length; j++) {
+				word[j] = (char) ('a' + rand.nextInt(26));
+			}
+			String w = new String(word);
+			assert dict.containsWord(w) == list.containsWord(w);
+			assert dict.hasPrefix(w) == list.hasPrefix(w);
+		}
+		
+		// The solver finds the same words with both
+		BoggleBoard board = new BoggleBoard(8, 5);
+		assert new BoggleSolver(dict).solve(board).equals(
+				new BoggleSolver(list).solve(board));
+	}
+	
+	/**
+	 * Tests a dictionary written from an empty word list.
+	 * @throws IOException when the dictionary cannot be written
+	 */
+	@Test(groups = {"fileio"})
+	public void testEmpty() throws IOException {
+		MappedDictionary dict = compile(new WordList());
+		assert dict.size() == 0;
+		assert !dict.containsWord("");
+		assert !dict.hasPrefix("");
+	}
+	
+	/**
+	 * Tests opening a file that is not a dictionary.
+	 * @throws IOException when the file is not a dictionary
+	 */
+	@Test(groups = {"fileio"}, expectedExceptions = {IOException.class})
+	public void testNotDictionary() throws IOException {
+		File f = File.createTempFile("boggle", ".dict");
+		f.deleteOnExit();
+		FileOutputStream out = new FileOutputStream(f);
+		out.write("first\nsecond\nthird\nfourth\n".getBytes("UTF-8"));
+		out.close();
+		new MappedDictionary(f);
+	}
+
+}
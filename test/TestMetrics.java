@@ -0,0 +1,99 @@
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.testng.SkipException;
+import org.testng.annotations.*;
+
+/**
+ * Tests the latency histograms and the metrics recorded by the
+ * dictionary and the solver. Tests of recorded values are skipped
+ * unless metrics are enabled, as the test target does for this class.
+ * @author rpathire
+ *
+ */
+public class TestMetrics {
+	/**
+	 * Tests histogram percentiles are within a bucket of the values.
+	 */
+	@Test(groups = {"basic"})
+	public void testHistogram() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assert histogram.percentile(0.5) == 0;
+		for (long v = 1; v <= 1000; v++) {
+			histogram.record(v * 1000);
+		}
+		assert histogram.count() == 1000;
+		assert histogram.mean() == 500500;
+		long p50 = histogram.percentile(0.50);
+		assert p50 >= 500000 && p50 <= 500000 * 17 / 16;
+		long p99 = histogram.percentile(0.99);
+		assert p99 >= 990000 && p99 <= 990000 * 17 / 16;
+		assert histogram.percentile(1) >= 1000000;
+
+		// Small values are exact and huge ones are capped
+		histogram.reset();
+		histogram.record(7);
+		assert histogram.percentile(1) == 7;
+		histogram.record(-5);
+		assert histogram.percentile(0.5) == 0;
+		histogram.record(Long.MAX_VALUE);
+		assert histogram.percentile(1) >= 1L << 40;
+		assert histogram.count() == 3;
+	}
+
+	/**
+	 * Tests lookups and solves are counted.
+	 */
+	@Test(groups = {"basic"})
+	public void testRecording() {
+		if (!Metrics.ENABLED)
+			throw new SkipException("boggle.metrics is not set");
+		WordList list = new WordList();
+		list.addWord("tea");
+		long lookups = Metrics.value("wordlist.lookups").longValue();
+		long prefixes = Metrics.value("wordlist.prefixChecks").longValue();
+		long solves = Metrics.value("solver.solve.count").longValue();
+		long nodes = Metrics.value("solver.nodes").longValue();
+
+		assert list.containsWord("tea");
+		assert !list.containsWord("te".toCharArray(), 0, 2);
+		assert list.hasPrefix("te");
+		new BoggleSolver(list).solve(new BoggleBoard(
+				new String[][] {{"T", "E"}, {"A", "S"}}));
+		// Other tests may run at the same time
+		assert Metrics.value("wordlist.lookups").longValue() >= lookups + 2;
+		assert Metrics.value("wordlist.prefixChecks").longValue() >= prefixes + 1;
+		assert Metrics.value("solver.solve.count").longValue() >= solves + 1;
+		assert Metrics.value("solver.nodes").longValue() >= nodes + 3;
+		assert Metrics.value("solver.solve.p999") instanceof Double;
+		assert Metrics.value("solver.missing") == null;
+		assert Metrics.value("solver.solve.p42") == null;
+
+		String dump = Metrics.dump();
+		assert dump.contains("wordlist.lookups ");
+		assert dump.contains("solver.solve count=");
+	}
+
+	/**
+	 * Tests the metrics can be read over JMX.
+	 * @throws JMException if the metrics cannot be registered or read
+	 */
+	@Test(groups = {"basic"})
+	public void testJmx() throws JMException {
+		if (!Metrics.ENABLED)
+			throw new SkipException("boggle.metrics is not set");
+		Metrics.register();
+		Metrics.register();
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(Metrics.OBJECT_NAME);
+		new BoggleBoard(4);
+		assert ((Long) server.getAttribute(name, "board.generate.count")) > 0;
+		assert server.getAttribute(name, "wordlist.lookups") instanceof Long;
+		assert server.getAttributes(name, new String[] {"solver.nodes", "missing"}).size() == 1;
+		assert server.getMBeanInfo(name).getAttributes().length > 10;
+		assert ((String) server.invoke(name, "dump", null, null)).contains("board.generate");
+	}
+}
@@ -0,0 +1,84 @@
+import org.testng.annotations.*;
+
+/**
+ * Tests the path of cells used by the solver and the game session.
+ * @author rpathire
+ *
+ */
+public class TestPathState {
+	/**
+	 * Pushes and pops cells on a board with the number of cells,
+	 * checking the path against the expected cells.
+	 */
+	private void checkPath(int cellCount) {
+		PathState path = new PathState(cellCount);
+		assert path.length() == 0;
+		assert path.last() == PathState.NO_CELL;
+
+		// Every third cell, the last cell included
+		int[] cells = new int[(cellCount + 2) / 3];
+		for (int i = 0; i < cells.length; i++) {
+			cells[i] = cellCount - 1 - 3 * i;
+			path.push(cells[i]);
+			assert path.last() == cells[i];
+		}
+		assert path.length() == cells.length;
+		for (int cell = 0; cell < cellCount; cell++) {
+			assert path.contains(cell) == ((cellCount - 1 - cell) % 3 == 0);
+		}
+		for (int i = 0; i < cells.length; i++) {
+			assert path.cell(i) == cells[i];
+		}
+
+		assert path.pop() == cells[cells.length - 1];
+		assert !path.contains(cells[cells.length - 1]);
+		path.truncate(1);
+		assert path.length() == 1;
+		assert path.contains(cellCount - 1);
+		assert !path.contains(cellCount - 4);
+		path.clear();
+		assert path.length() == 0;
+		for (int cell = 0; cell < cellCount; cell++) {
+			assert !path.contains(cell);
+		}
+	}
+
+	/**
+	 * Tests paths on boards kept in a single long.
+	 */
+	@Test(groups = {"basic"})
+	public void testSmallBoards() {
+		checkPath(4);
+		checkPath(16);
+		checkPath(PathState.MASK_CELLS);
+	}
+
+	/**
+	 * Tests paths on boards kept in an array of longs.
+	 */
+	@Test(groups = {"basic"})
+	public void testLargeBoards() {
+		checkPath(PathState.MASK_CELLS + 1);
+		checkPath(81);
+		checkPath(900);
+	}
+
+	/**
+	 * Tests that reset empties the path and resizes it.
+	 */
+	@Test(groups = {"basic"})
+	public void testReset() {
+		PathState path = new PathState(16);
+		path.push(3);
+		path.reset(16);
+		assert path.length() == 0;
+		assert !path.contains(3);
+		path.push(15);
+		path.reset(100);
+		assert path.cellCount() == 100;
+		assert !path.contains(15);
+		path.push(99);
+		assert path.contains(99);
+		assert !path.contains(35);
+	}
+}
@@ -0,0 +1,190 @@
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.testng.annotations.*;
+
+/**
+ * Tests the shared word list, including lookups made while the words
+ * are replaced.
+ * @author rpathire
+ *
+ */
+public class TestSharedWordList {
+	/**
+	 * Creates a word list of the words made of the letter followed by
+	 * two other letters.
+	 */
+	private WordList createList(char first) {
+		WordList list = new WordList();
+		char[] word = {first, 'a', 'a'};
+		for (word[1] = 'a'; word[1] <= 'z'; word[1]++) {
+			for (word[2] = 'a'; word[2] <= 'z'; word[2]++) {
+				list.addWord(new String(word));
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Tests that snapshots do not see later changes.
+	 */
+	@Test(groups = {"basic"})
+	public void testSnapshots() {
+		SharedWordList shared = new SharedWordList();
+		assert shared.size() == 0;
+		WordList empty = shared.snapshot();
+		long version = shared.version();
+
+		shared.addWord(" First ");
+		WordList first = shared.snapshot();
+		assert shared.containsWord("first");
+		assert shared.hasPrefix("fir");
+		assert shared.version() == version + 1;
+		assert empty.size() == 0;
+		assert first.isFrozen();
+
+		// Every kind of change makes a new snapshot
+		WordList other = new WordList();
+		other.addWord("second");
+		shared.addWordList(other);
+		assert shared.size() == 2;
+		shared.intersect(other);
+		assert shared.size() == 1;
+		assert shared.containsWord("second");
+		shared.subtract(other);
+		assert shared.size() == 0;
+		assert shared.version() == version + 4;
+		assert first.size() == 1;
+		assert first.containsWord("first");
+	}
+
+	/**
+	 * Tests that lists given to the shared list are copied unless
+	 * frozen.
+	 */
+	@Test(groups = {"basic"})
+	public void testReplace() {
+		WordList list = new WordList();
+		list.addWord("first");
+		SharedWordList shared = new SharedWordList(list);
+		list.addWord("second");
+		assert shared.size() == 1;
+		assert !list.isFrozen();
+
+		shared.replace(list);
+		assert shared.size() == 2;
+		assert shared.snapshot() != list;
+		list.freeze();
+		shared.replace(list);
+		assert shared.snapshot() == list;
+	}
+
+	/**
+	 * Tests that a cursor keeps walking its snapshot.
+	 */
+	@Test(groups = {"basic"})
+	public void testCursor() {
+		SharedWordList shared = new SharedWordList(createList('a'));
+		PrefixCursor cursor = shared.cursor();
+		shared.replace(createList('b'));
+		assert cursor.advance("abc");
+		assert cursor.isWord();
+		assert !shared.cursor().advance('a');
+	}
+
+	/**
+	 * Tests reloading the words from a file.
+	 * @throws IOException if the file cannot be written or read
+	 */
+	@Test(groups = {"fileio"})
+	public void testReload() throws IOException {
+		File f = File.createTempFile("words", ".txt");
+		try {
+			Writer out = new FileWriter(f);
+			out.write("first\nSecond\n");
+			out.close();
+			SharedWordList shared = new SharedWordList();
+			shared.reload(f);
+			assert shared.size() == 2;
+			assert shared.containsWord("second");
+
+			// A failed reload keeps the words
+			try {
+				shared.reload(new File("missing.txt"));
+				assert false;
+			}
+			catch (IOException e) {
+			}
+			assert shared.size() == 2;
+		}
+		finally {
+			f.delete();
+		}
+	}
+
+	/**
+	 * Tests that readers only ever see whole snapshots while the words
+	 * are replaced and changed concurrently.
+	 * @throws Exception if a reader fails
+	 */
+	@Test(groups = {"basic"})
+	public void testConcurrentReaders() throws Exception {
+		final WordList a = createList('a').freeze();
+		final WordList b = createList('b').freeze();
+		final SharedWordList shared = new SharedWordList(a);
+		final AtomicBoolean done = new AtomicBoolean();
+
+		// Each reader checks every snapshot holds exactly one of the lists
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		List<Future<Integer>> readers = new ArrayList<Future<Integer>>();
+		for (int i = 0; i < 4; i++) {
+			readers.add(pool.submit(new Callable<Integer>() {
+				public Integer call() {
+					int lookups = 0;
+					char[] word = new char[3];
+					while (!done.get() || lookups == 0) {
+						WordList words = shared.snapshot();
+						boolean isA = words.containsWord("aaa");
+						for (word[1] = 'a'; word[1] <= 'z'; word[1] += 5) {
+							word[0] = 'a';
+							word[2] = word[1];
+							assert words.containsWord(word, 0, 3) == isA;
+							word[0] = 'b';
+							assert words.containsWord(word, 0, 3) == !isA;
+						}
+						assert words.size() == 26 * 26 || words.size() == 26 * 26 + 1;
+
+						// Each lookup on the shared list sees a whole snapshot,
+						// though consecutive lookups may see different ones
+						assert shared.hasPrefix("");
+						assert shared.size() >= 26 * 26;
+						lookups++;
+					}
+					return lookups;
+				}
+			}));
+		}
+		pool.shutdown();
+
+		// Replaces the words while the readers run
+		for (int i = 0; i < 200; i++) {
+			shared.replace(i % 2 == 0 ? b : a);
+			shared.addWord(i % 2 == 0 ? "bzzz" : "azzz");
+			Thread.yield();
+		}
+		done.set(true);
+		for (Future<Integer> f : readers) {
+			assert f.get() > 0;
+		}
+		assert shared.version() == 1 + 400;
+	}
+}
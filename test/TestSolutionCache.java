@@ -0,0 +1,209 @@
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedSet;
+
+import org.testng.annotations.*;
+
+/**
+ * Tests the cache of solved boards.
+ * @author rpathire
+ *
+ */
+public class TestSolutionCache {
+	/**
+	 * Creates a shared word list of every three letter word.
+	 */
+	private SharedWordList allThreeLetterWords() {
+		WordList list = new WordList();
+		char[] word = new char[3];
+		for (word[0] = 'a'; word[0] <= 'z'; word[0]++) {
+			for (word[1] = 'a'; word[1] <= 'z'; word[1]++) {
+				for (word[2] = 'a'; word[2] <= 'z'; word[2]++) {
+					list.addWord(new String(word));
+				}
+			}
+		}
+		return new SharedWordList(list.freeze());
+	}
+	
+	/**
+	 * Returns the board turned by a quarter turn.
+	 */
+	private BoggleBoard rotate(BoggleBoard board) {
+		int size = board.size();
+		String[][] letters = new String[size][size];
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				letters[j][size - 1 - i] = board.getCell(i, j);
+			}
+		}
+		return new BoggleBoard(letters);
+	}
+	
+	/**
+	 * Tests that cached solutions are the solver's and are counted.
+	 */
+	@Test(groups = {"basic"})
+	public void testHits() {
+		SharedWordList words = allThreeLetterWords();
+		SolutionCache cache = new SolutionCache(words, 10);
+		BoggleSolver solver = new BoggleSolver(words.snapshot());
+		BoggleBoard board = new BoggleBoard(4, 1);
+		
+		SortedSet<String> found = cache.solve(board);
+		assert found.equals(solver.solve(board));
+		assert cache.misses() == 1;
+		assert cache.hits() == 0;
+		assert cache.solve(board) == found;
+		assert cache.solve(new BoggleBoard(4, 1)) == found;
+		assert cache.hits() == 2;
+		
+		// Rotations share the entry
+		BoggleBoard rotated = rotate(board);
+		assert cache.solve(rotated) == found;
+		assert cache.solve(rotate(rotate(rotated))) == found;
+		assert cache.hits() == 4;
+		assert cache.misses() == 1;
+		assert cache.size() == 1;
+		
+		// Solutions cannot be changed by callers
+		try {
+			found.clear();
+			assert false;
+		}
+		catch (UnsupportedOperationException e) {
+		}
+	}
+	
+	/**
+	 * Tests that the least recently used boards are evicted.
+	 */
+	@Test(groups = {"basic"})
+	public void testEviction() {
+		SolutionCache cache = new SolutionCache(allThreeLetterWords(), 3);
+		for (int i = 0; i < 3; i++) {
+			cache.solve(new BoggleBoard(4, i));
+		}
+		
+		// Using board 0 makes board 1 the least recently used
+		cache.solve(new BoggleBoard(4, 0));
+		cache.solve(new BoggleBoard(4, 3));
+		assert cache.size() == 3;
+		assert cache.evictions() == 1;
+		long misses = cache.misses();
+		cache.solve(new BoggleBoard(4, 0));
+		cache.solve(new BoggleBoard(4, 2));
+		assert cache.misses() == misses;
+		cache.solve(new BoggleBoard(4, 1));
+		assert cache.misses() == misses + 1;
+	}
+	
+	/**
+	 * Tests that changing the words makes boards be solved again.
+	 */
+	@Test(groups = {"basic"})
+	public void testDictionaryChange() {
+		SharedWordList words = new SharedWordList();
+		SolutionCache cache = new SolutionCache(words, 10);
+		BoggleBoard board = new BoggleBoard(new String[][] {
+				{"C", "A"},
+				{"X", "T"}});
+		assert cache.solve(board).isEmpty();
+		words.addWord("cat");
+		assert cache.solve(board).contains("cat");
+		assert cache.misses() == 2;
+		
+		// The same words again hit the first entry
+		words.subtract(words.snapshot());
+		assert cache.solve(board).isEmpty();
+		assert cache.misses() == 2;
+		assert cache.hits() == 1;
+	}
+	
+	/**
+	 * Tests that solutions written to the store are read back by
+	 * another cache.
+	 * @throws Exception if the store cannot be used
+	 */
+	@Test(groups = {"fileio"})
+	public void testStore() throws Exception {
+		File store = File.createTempFile("solutions", "");
+		store.delete();
+		try {
+			SharedWordList words = allThreeLetterWords();
+			SolutionCache cache = new SolutionCache(words, 2, store);
+			SortedSet<String> first = cache.solve(new BoggleBoard(5, 0));
+			cache.solve(new BoggleBoard(5, 1));
+			cache.solve(new BoggleBoard(5, 2));
+			assert cache.evictions() == 1;
+			assert store.list().length == 1;
+			cache.flush();
+			assert store.list().length == 3;
+			
+			// A new cache finds every board in the store
+			SolutionCache restarted = new SolutionCache(allThreeLetterWords(), 2, store);
+			assert restarted.solve(rotate(new BoggleBoard(5, 0))).equals(first);
+			restarted.solve(new BoggleBoard(5, 1));
+			restarted.solve(new BoggleBoard(5, 2));
+			assert restarted.storeHits() == 3;
+			assert restarted.misses() == 0;
+			
+			// Other words do not use the store entries
+			SolutionCache other = new SolutionCache(new SharedWordList(), 2, store);
+			assert other.solve(new BoggleBoard(5, 0)).isEmpty();
+			assert other.storeHits() == 0;
+		}
+		finally {
+			for (File f : store.listFiles()) {
+				f.delete();
+			}
+			store.delete();
+		}
+	}
+	
+	/**
+	 * Tests that boards whose codes have the same hash are stored in
+	 * files of their own.
+	 * @throws Exception if the store cannot be used
+	 */
+	@Test(groups = {"fileio"})
+	public void testStoreHashCollision() throws Exception {
+		// Draws boards until two canonical boards share a hash, which
+		// takes about a hundred thousand boards
+		Map<Integer, BoggleBoard> seen = new HashMap<Integer, BoggleBoard>();
+		BoggleBoard first = null;
+		BoggleBoard second = null;
+		for (long seed = 0; first == null; seed++) {
+			BoggleBoard board = new BoggleBoard(4, seed);
+			byte[] codes = board.canonicalCodes();
+			BoggleBoard other = seen.put(Arrays.hashCode(codes), board);
+			if (other != null && !Arrays.equals(codes, other.canonicalCodes())) {
+				first = other;
+				second = board;
+			}
+		}
+		
+		File store = File.createTempFile("solutions", "");
+		store.delete();
+		try {
+			SolutionCache cache = new SolutionCache(allThreeLetterWords(), 1, store);
+			SortedSet<String> firstWords = cache.solve(first);
+			SortedSet<String> secondWords = cache.solve(second);
+			cache.flush();
+			assert store.list().length == 2;
+			
+			SolutionCache restarted = new SolutionCache(allThreeLetterWords(), 2, store);
+			assert restarted.solve(first).equals(firstWords);
+			assert restarted.solve(second).equals(secondWords);
+			assert restarted.storeHits() == 2;
+		}
+		finally {
+			for (File f : store.listFiles()) {
+				f.delete();
+			}
+			store.delete();
+		}
+	}
+}
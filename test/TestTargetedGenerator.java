@@ -0,0 +1,134 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.SortedSet;
+import java.util.SplittableRandom;
+
+import org.testng.annotations.*;
+
+/**
+ * Tests the generator of boards meeting targets and the path counter
+ * it rescores boards with.
+ * @author rpathire
+ *
+ */
+public class TestTargetedGenerator {
+	/**
+	 * Loads the word list of the benchmarks.
+	 */
+	private WordList loadWords() throws IOException {
+		return new WordList(new File("bench/fixtures/words-20k.txt"));
+	}
+
+	/**
+	 * Returns the total score of the words.
+	 */
+	private int score(SortedSet<String> words) {
+		int score = 0;
+		for (String w : words) {
+			score += BoggleSolver.score(w);
+		}
+		return score;
+	}
+
+	/**
+	 * Tests that the counts kept while cells change are the ones of
+	 * solving the board from scratch.
+	 * @throws IOException if the word list cannot be read
+	 */
+	@Test(groups = {"fileio"})
+	public void testIncrementalCounts() throws IOException {
+		WordList words = loadWords();
+		BoggleSolver solver = new BoggleSolver(words);
+		PathCounter counter = new PathCounter(words.trie());
+		SplittableRandom rand = new SplittableRandom(7);
+		for (int size = 1; size <= 8; size++) {
+			BoggleBoard board = new BoggleBoard(size, size);
+			byte[] codes = new byte[board.cellCount()];
+			for (int i = 0; i < codes.length; i++) {
+				codes[i] = (byte) board.getCellCode(i);
+			}
+			counter.reset(size, codes);
+
+			// Changes random cells, Qu included
+			for (int step = 0; step < 50; step++) {
+				counter.setCell(rand.nextInt(codes.length),
+						rand.nextInt(BoggleBoard.CODE_COUNT));
+				SortedSet<String> found = solver.solve(counter.toBoard());
+				assert counter.words() == found.size();
+				assert counter.score() == score(found);
+			}
+		}
+	}
+
+	/**
+	 * Tests that generated boards meet their targets.
+	 * @throws IOException if the word list cannot be read
+	 */
+	@Test(groups = {"fileio"})
+	public void testTargets() throws IOException {
+		WordList words = loadWords();
+		BoggleSolver solver = new BoggleSolver(words);
+		TargetedGenerator generator = new TargetedGenerator(words, 1);
+		generator.setMinWords(60);
+		generator.setMinScore(80);
+		generator.setVowelRatio(0.25, 0.5);
+		for (int i = 0; i < 10; i++) {
+			BoggleBoard board = generator.next(4);
+			SortedSet<String> found = solver.solve(board);
+			assert found.size() >= 60;
+			assert score(found) >= 80;
+			int vowels = 0;
+			for (int cell = 0; cell < 16; cell++) {
+				vowels += "AEIOU".indexOf(BoggleBoard.codeText(
+						board.getCellCode(cell))) >= 0 ? 1 : 0;
+			}
+			assert vowels >= 4 && vowels <= 8;
+		}
+		assert generator.accepted() == 10;
+		assert generator.started() >= 10;
+
+		// Boards of 8x8 and up recount only the changed cells
+		long steps = generator.steps();
+		generator.setMinWords(600);
+		generator.setMinScore(0);
+		BoggleBoard board = generator.next(8);
+		assert generator.steps() > steps;
+		assert solver.solve(board).size() >= 600;
+	}
+
+	/**
+	 * Tests the generator gives up on targets it cannot meet.
+	 * @throws IOException if the word list cannot be read
+	 */
+	@Test(groups = {"fileio"})
+	public void testUnreachable() throws IOException {
+		TargetedGenerator generator = new TargetedGenerator(loadWords(), 1);
+		generator.setVowelRatio(0.3, 0.6);
+		assert generator.next(1) == null;
+		generator.setMinWords(1000);
+		generator.setMaxSteps(10);
+		generator.setMaxRestarts(3);
+		assert generator.next(2) == null;
+		assert generator.started() == 3;
+		assert generator.next(2) == null;
+
+		// Without targets the first board is accepted
+		generator = new TargetedGenerator(loadWords(), 1);
+		assert generator.next(4) != null;
+		assert generator.steps() == 0;
+		try {
+			generator.setVowelRatio(0.6, 0.3);
+			assert false;
+		}
+		catch (IllegalArgumentException e) {
+		}
+		for (int size : new int[] {0, -1}) {
+			try {
+				generator.next(size);
+				assert false;
+			}
+			catch (IllegalArgumentException e) {
+			}
+		}
+	}
+}
@@ -223,5 +223,354 @@ public class TestWordList {
 		assert list2.containsWord("first");
 		assert list2.containsWord("third");
 	}
+	
+	/**
+	 * Tests the intersect word list method using some common words.
+	 */
+	@Test(groups = {"basic"})
+	public void testIntersectCommon() {
+		// Create two WordLists with common words
+		WordList list1 = new WordList();
+		WordList list2 = new WordList();
+		list1.addWord("first");
+		list1.addWord("firsts");
+		list1.addWord("second");
+		list2.addWord("first");
+		list2.addWord("third");
+		list1.intersect(list2);
+		
+		// Checks size and list 1 contents
+		assert list1.size() == 1;
+		assert list2.size() == 2;
+		assert list1.containsWord("first");
+		assert !list1.containsWord("firsts");
+		assert !list1.containsWord("second");
+		assert !list1.hasPrefix("sec");
+		
+		// Checks list 2 contents
+		assert list2.containsWord("first");
+		assert list2.containsWord("third");
+	}
+	
+	/**
+	 * Tests the set operations of a word list with itself.
+	 */
+	@Test(groups = {"basic"})
+	public void testSetOperationsSelf() {
+		WordList list = new WordList();
+		list.addWord("first");
+		list.addWord("second");
+		list.addWordList(list);
+		list.intersect(list);
+		assert list.size() == 2;
+		list.subtract(list);
+		assert list.size() == 0;
+		assert !list.hasPrefix("f");
+	}
+	
+	/**
+	 * Tests union, difference and intersection of random word lists
+	 * against the same operations on hash sets.
+	 */
+	@Test(groups = {"basic"})
+	public void testSetOperationsRandom() {
+		java.util.Random rand = new java.util.Random(10);
+		for (int round = 0; round < 20; round++) {
+			// Creates two lists of short words over a small alphabet
+			java.util.Set<String> set1 = new java.util.HashSet<String>();
+			java.util.Set<String> set2 = new java.util.HashSet<String>();
+			WordList list1 = new WordList();
+			WordList list2 = new WordList();
+			for (int i = 0; i < 300; i++) {
+				char[] word = new char[1 + rand.nextInt(4)];
+				for (int j = 0; j < word.length; j++) {
+					word[j] = (char) ('a' + rand.nextInt(4));
+				}
+				String w = new String(word);
+				if (rand.nextBoolean()) {
+					set1.add(w);
+					list1.addWord(w);
+				}
+				else {
+					set2.add(w);
+					list2.addWord(w);
+				}
+			}
+			
+			// Applies one of the operations to both
+			switch (round % 3) {
+				case 0:
+					set1.addAll(set2);
+					list1.addWordList(list2);
+					break;
+				case 1:
+					set1.removeAll(set2);
+					list1.subtract(list2);
+					break;
+				default:
+					set1.retainAll(set2);
+					list1.intersect(list2);
+			}
+			assert list1.size() == set1.size();
+			for (String w : set1) {
+				assert list1.containsWord(w);
+			}
+			
+			// Prefixes of removed words only remain if a word needs them
+			for (String w : set2) {
+				boolean prefix = false;
+				for (String v : set1) {
+					prefix |= v.startsWith(w);
+				}
+				assert list1.containsWord(w) == set1.contains(w);
+				assert list1.hasPrefix(w) == prefix;
+			}
+		}
+	}
+	
+	/**
+	 * Tests the prefix check using words and their prefixes.
+	 */
+	@Test(groups = {"basic"})
+	public void testHasPrefix() {
+		WordList list = new WordList();
+		list.addWord("first");
+		list.addWord("fist");
+		
+		// Every prefix of a word is a prefix, including the word
+		assert list.hasPrefix("");
+		assert list.hasPrefix("f");
+		assert list.hasPrefix("fi");
+		assert list.hasPrefix("  FIR ");
+		assert list.hasPrefix("first");
+		// These prefixes do not start any word
+		assert !list.hasPrefix("firsts");
+		assert !list.hasPrefix("second");
+	}
+	
+	/**
+	 * Tests that removed words no longer count as prefixes.
+	 */
+	@Test(groups = {"basic"})
+	public void testHasPrefixAfterSubtract() {
+		WordList list1 = new WordList();
+		WordList list2 = new WordList();
+		list1.addWord("first");
+		list1.addWord("second");
+		list2.addWord("first");
+		list1.subtract(list2);
+		
+		// The branch of the removed word is dead
+		assert !list1.hasPrefix("f");
+		assert list1.hasPrefix("sec");
+		
+		// Adding the word back revives the branch
+		list1.addWord("first");
+		assert list1.hasPrefix("fir");
+		assert list1.containsWord("first");
+		assert list1.size() == 2;
+	}
+	
+	/**
+	 * Tests stepping a prefix cursor through a word, including a
+	 * multi-letter step like the Boggle "Qu" cell.
+	 */
+	@Test(groups = {"basic"})
+	public void testPrefixCursor() {
+		WordList list = new WordList();
+		list.addWord("quit");
+		list.addWord("quite");
+		PrefixCursor cursor = list.cursor();
+		
+		// Steps through "Qu", "i", "t"
+		assert cursor.advance("Qu");
+		assert !cursor.isWord();
+		assert cursor.advance('I');
+		assert cursor.advance('t');
+		assert cursor.depth() == 3;
+		assert cursor.isWord();
+		
+		// Dead steps leave the cursor where it was
+		assert !cursor.advance('s');
+		assert cursor.depth() == 3;
+		assert cursor.advance('e');
+		assert cursor.isWord();
+		
+		// Retreats back to the "Qu" step
+		cursor.retreat();
+		cursor.retreat();
+		cursor.retreat();
+		assert cursor.depth() == 1;
+		assert cursor.hasWords();
+		assert !cursor.advance('u');
+	}
+	
+	/**
+	 * Tests looking up words and prefixes given as character sequences
+	 * and ranges of character arrays.
+	 */
+	@Test(groups = {"basic"})
+	public void testContainsWordRange() {
+		WordList list = new WordList();
+		list.addWord("quite");
+		
+		// Builders and ranges are processed like strings
+		assert list.containsWord(new StringBuilder(" QuItE\t"));
+		assert !list.containsWord(new StringBuilder("quit"));
+		assert list.hasPrefix(new StringBuilder("QUI "));
+		char[] chars = "xx Quite yy".toCharArray();
+		assert list.containsWord(chars, 2, 7);
+		assert !list.containsWord(chars, 2, 8);
+		assert list.hasPrefix(chars, 3, 3);
+		assert !list.hasPrefix(chars, 0, 4);
+		assert !list.containsWord(chars, 0, 0);
+		assert list.hasPrefix(chars, 0, 0);
+	}
+	
+	/**
+	 * Tests looking up a range outside the array.
+	 */
+	@Test(groups = {"basic"}, expectedExceptions = {IndexOutOfBoundsException.class})
+	public void testContainsWordRangeOutside() {
+		new WordList().containsWord(new char[4], 2, 3);
+	}
+	
+	/**
+	 * Tests that looking up words, including words needing to be
+	 * trimmed and lowercased, allocates nothing.
+	 */
+	@Test(groups = {"basic"})
+	public void testLookupAllocation() {
+		java.lang.management.ThreadMXBean bean =
+				java.lang.management.ManagementFactory.getThreadMXBean();
+		// Only some JVMs can measure allocations
+		if (!(bean instanceof com.sun.management.ThreadMXBean))
+			return;
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+		if (!threads.isThreadAllocatedMemorySupported() ||
+				!threads.isThreadAllocatedMemoryEnabled())
+			return;
+		
+		WordList list = new WordList();
+		list.addWord("first");
+		list.addWord("second");
+		String[] lookups = {"first", " SECOND ", "Third", "firsts", "sec"};
+		char[] chars = "  FiRst  ".toCharArray();
+		StringBuilder builder = new StringBuilder("seCond");
+		
+		// Runs the lookups twice, so the second run is fully compiled
+		long id = Thread.currentThread().getId();
+		long allocated = 0;
+		int found = 0;
+		int rounds = 200000;
+		for (int run = 0; run < 2; run++) {
+			allocated = threads.getThreadAllocatedBytes(id);
+			for (int i = 0; i < rounds; i++) {
+				String w = lookups[i % lookups.length];
+				if (list.containsWord(w))
+					found++;
+				if (list.hasPrefix(w))
+					found++;
+				if (list.containsWord(chars, 0, chars.length))
+					found++;
+				if (list.containsWord(builder))
+					found++;
+			}
+			allocated = threads.getThreadAllocatedBytes(id) - allocated;
+		}
+		assert found > 0;
+		// Zero bytes per lookup, allowing for the measurement itself
+		assert allocated / (4L * rounds) == 0 : allocated + " bytes allocated";
+	}
+	
+	/**
+	 * Tests that a copy does not share changes with the original.
+	 */
+	@Test(groups = {"basic"})
+	public void testCopy() {
+		WordList list = new WordList();
+		list.addWord("first");
+		WordList copy = new WordList(list);
+		copy.addWord("second");
+		list.addWord("third");
+		
+		assert copy.size() == 2;
+		assert copy.containsWord("first");
+		assert copy.containsWord("second");
+		assert !copy.containsWord("third");
+		assert list.size() == 2;
+		assert !list.containsWord("second");
+	}
+	
+	/**
+	 * Tests that a frozen list can be read but not changed.
+	 */
+	@Test(groups = {"basic"})
+	public void testFreeze() {
+		WordList list = new WordList();
+		list.addWord("first");
+		assert !list.isFrozen();
+		assert list.freeze() == list;
+		assert list.isFrozen();
+		assert list.containsWord("first");
+		
+		// Every change fails and leaves the list as it was
+		WordList other = new WordList();
+		other.addWord("second");
+		try {
+			list.addWord("second");
+			assert false;
+		}
+		catch (IllegalStateException e) {
+		}
+		try {
+			list.addWordList(other);
+			assert false;
+		}
+		catch (IllegalStateException e) {
+		}
+		try {
+			list.subtract(other);
+			assert false;
+		}
+		catch (IllegalStateException e) {
+		}
+		try {
+			list.intersect(other);
+			assert false;
+		}
+		catch (IllegalStateException e) {
+		}
+		assert list.size() == 1;
+		
+		// Copies of a frozen list can change
+		WordList copy = new WordList(list);
+		assert !copy.isFrozen();
+		copy.addWord("second");
+		assert copy.size() == 2;
+	}
+	
+	/**
+	 * Tests that lists with the same words have the same fingerprint.
+	 */
+	@Test(groups = {"basic"})
+	public void testFingerprint() {
+		WordList list = new WordList();
+		list.addWord("first");
+		list.addWord("second");
+		WordList other = new WordList();
+		other.addWord("SECOND");
+		other.addWord("first");
+		assert list.fingerprint() == other.fingerprint();
+		assert list.fingerprint() != new WordList().fingerprint();
+		
+		// Words are separated, so moving letters between them counts
+		other.addWord("third");
+		assert list.fingerprint() != other.fingerprint();
+		WordList split = new WordList();
+		split.addWord("firs");
+		split.addWord("tsecond");
+		assert list.fingerprint() != split.fingerprint();
+	}
 
 }
@@ -0,0 +1,163 @@
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.annotations.*;
+
+/**
+ * Tests the streaming word list loader.
+ * @author rpathire
+ *
+ */
+public class TestWordListLoader {
+	/**
+	 * Writes the bytes to a temporary file.
+	 */
+	private File write(byte[] bytes) throws IOException {
+		File f = File.createTempFile("boggle", ".txt");
+		f.deleteOnExit();
+		FileOutputStream out = new FileOutputStream(f);
+		out.write(bytes);
+		out.close();
+		return f;
+	}
+	
+	/**
+	 * Tests loading improperly formatted words with chunks much smaller
+	 * than the file, so lines are split between several workers.
+	 * @throws IOException when test file does not exist
+	 */
+	@Test(groups = {"fileio"})
+	public void testSmallChunks() throws IOException {
+		WordListLoader loader = new WordListLoader(3, 4);
+		WordList list = loader.load(new File("unformattedWordList.txt"));
+		
+		// Makes sure words are properly formatted
+		assert list.size() == 4;
+		assert list.containsWord("first");
+		assert list.containsWord("second");
+		assert list.containsWord("third");
+		assert list.containsWord("fourth");
+		assert loader.lines() == 4;
+		assert loader.words() == 4;
+		assert loader.linesPerSecond() > 0;
+	}
+	
+	/**
+	 * Tests line endings, a byte order mark and malformed bytes.
+	 * @throws IOException when the test file cannot be written
+	 */
+	@Test(groups = {"fileio"})
+	public void testMessyInput() throws IOException {
+		byte[] text = ("\uFEFFFirst\r\nSECOND\rthird\n\n  \n\u00C9T\u00C9\r\nlast")
+				.getBytes("UTF-8");
+		byte[] bytes = new byte[text.length + 4];
+		System.arraycopy(text, 0, bytes, 0, text.length);
+		// An invalid byte on a line of its own
+		bytes[text.length] = '\n';
+		bytes[text.length + 1] = (byte) 0xFF;
+		bytes[text.length + 2] = 'x';
+		bytes[text.length + 3] = '\n';
+		
+		for (int chunk = 1; chunk <= bytes.length; chunk++) {
+			WordListLoader loader = new WordListLoader(2, chunk);
+			WordList list = loader.load(write(bytes));
+			assert list.size() == 6;
+			assert list.containsWord("first");
+			assert list.containsWord("second");
+			assert list.containsWord("third");
+			assert list.containsWord("\u00E9t\u00E9");
+			assert list.containsWord("last");
+			assert list.containsWord("\uFFFDx");
+			assert loader.lines() == 8;
+		}
+	}
+	
+	/**
+	 * Tests files whose lines end with "\r" only, or with "\r\n"
+	 * pairs falling at every position of the chunks.
+	 * @throws IOException when the test file cannot be written
+	 */
+	@Test(groups = {"fileio"})
+	public void testCarriageReturns() throws IOException {
+		for (String lineBreak : new String[] {"\r", "\r\n"}) {
+			StringBuilder text = new StringBuilder();
+			for (int i = 0; i < 50; i++) {
+				text.append("w").append(i).append(lineBreak);
+			}
+			File f = write(text.toString().getBytes("UTF-8"));
+			for (int chunk = 1; chunk <= 12; chunk++) {
+				WordListLoader loader = new WordListLoader(2, chunk);
+				WordList list = loader.load(f);
+				assert list.size() == 50;
+				assert list.containsWord("w0");
+				assert list.containsWord("w49");
+				assert loader.lines() == 50;
+			}
+		}
+	}
+	
+	/**
+	 * Tests that a large file loads the same words as adding each line
+	 * to a word list.
+	 * @throws IOException when the test file cannot be written
+	 */
+	@Test(groups = {"fileio"})
+	public void testSameAsAddWord() throws IOException {
+		// Creates random lines with duplicates, padding and uppercase
+		Random rand = new Random(8);
+		List<String> lines = new ArrayList<String>();
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 20000; i++) {
+			StringBuilder line = new StringBuilder();
+			if (rand.nextInt(10) == 0)
+				line.append("  ");
+			int length = rand.nextInt(9);
+			for (int j = 0; j < length; j++) {
+				char c = (char) ('a' + rand.nextInt(6));
+				line.append(rand.nextInt(5) == 0 ? Character.toUpperCase(c) : c);
+			}
+			if (rand.nextInt(10) == 0)
+				line.append('\t');
+			lines.add(line.toString());
+			text.append(line).append('\n');
+		}
+		WordList expected = new WordList();
+		for (String line : lines) {
+			expected.addWord(line);
+		}
+		
+		WordListLoader loader = new WordListLoader(4, 1000);
+		WordList list = loader.load(write(text.toString().getBytes("UTF-8")));
+		assert loader.lines() == lines.size();
+		assert list.size() == expected.size();
+		WordList missing = new WordList();
+		missing.addWordList(expected);
+		missing.subtract(list);
+		assert missing.size() == 0;
+	}
+	
+	/**
+	 * Tests loading an empty file.
+	 * @throws IOException when the test file cannot be written
+	 */
+	@Test(groups = {"fileio"})
+	public void testEmptyFile() throws IOException {
+		WordListLoader loader = new WordListLoader();
+		WordList list = loader.load(write(new byte[0]));
+		assert list.size() == 0;
+		assert loader.lines() == 0;
+	}
+	
+	/**
+	 * Tests creating a loader without threads.
+	 */
+	@Test(groups = {"basic"}, expectedExceptions = {IllegalArgumentException.class})
+	public void testNoThreads() {
+		new WordListLoader(0, 1024);
+	}
+
+}
@@ -0,0 +1,95 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SortedSet;
+
+import org.testng.annotations.*;
+
+/**
+ * Tests the validator of typed words against the solver.
+ * @author rpathire
+ *
+ */
+public class TestWordPathValidator {
+	/** Board used by the tests, containing a Qu cell and a Q cell */
+	private static final String[][] LETTERS = {
+		{"C", "A", "T", "X"},
+		{"X", "O", "X", "U"},
+		{"X", "Qu", "I", "Q"},
+		{"X", "X", "T", "E"}};
+
+	/**
+	 * Tests words traced on a fixed board.
+	 */
+	@Test(groups = {"basic"})
+	public void testTrace() {
+		WordPathValidator validator = new WordPathValidator(new BoggleBoard(LETTERS));
+		assert validator.canTrace("cat");
+		assert validator.canTrace(" CoAt ");
+		assert validator.canTrace("cot");
+		assert !validator.canTrace("tac t");
+		assert !validator.canTrace("cac");
+		assert !validator.canTrace("");
+		assert !validator.canTrace("   ");
+		assert !validator.canTrace("cat!");
+		assert !validator.canTrace("catz");
+
+		// "qu" goes through either the Qu cell or the Q and U cells
+		assert validator.canTrace("quit");
+		assert validator.canTrace("oquit");
+		assert validator.canTrace("qit");
+		assert validator.canTrace("qiu");
+		assert validator.canTrace("eq");
+		assert !validator.canTrace("quc");
+		assert !validator.canTrace("qoc");
+		assert !validator.canTrace("uqo");
+
+		// A u traced through the Qu cell leaves the U cells free
+		validator = new WordPathValidator(new BoggleBoard(new String[][] {
+			{"Qu", "E"},
+			{"U", "E"}}));
+		assert validator.canTrace("queue");
+		assert !validator.canTrace("quuu");
+		validator = new WordPathValidator(new BoggleBoard(new String[][] {
+			{"Qu", "A", "N"},
+			{"M", "U", "T"},
+			{"X", "X", "X"}}));
+		assert validator.canTrace("quantum");
+		assert !validator.canTrace("quantumu");
+	}
+
+	/**
+	 * Tests words repeating letters.
+	 */
+	@Test(groups = {"basic"})
+	public void testRepeatedLetters() {
+		String[][] letters = new String[4][4];
+		for (String[] row : letters) {
+			Arrays.fill(row, "A");
+		}
+		WordPathValidator validator = new WordPathValidator(new BoggleBoard(letters));
+		assert validator.canTrace("aaaaaaaaaaaaaaaa");
+		assert !validator.canTrace("aaaaaaaaaaaaaaaaa");
+	}
+
+	/**
+	 * Tests that the words of the solver are exactly the dictionary
+	 * words the validator accepts.
+	 * @throws IOException if the word list cannot be read
+	 */
+	@Test(groups = {"fileio"})
+	public void testAgainstSolver() throws IOException {
+		final WordList words = new WordList(new File("bench/fixtures/words-20k.txt"));
+		BoggleSolver solver = new BoggleSolver(words);
+		for (int size = 2; size <= 6; size++) {
+			final BoggleBoard board = new BoggleBoard(size, size);
+			final SortedSet<String> found = solver.solve(board);
+			final WordPathValidator validator = new WordPathValidator(board);
+			words.trie().forEachWord(new WordTrie.WordVisitor() {
+				public void visit(String word) {
+					assert validator.isValid(word, words) == found.contains(word) : word;
+				}
+			});
+		}
+	}
+}